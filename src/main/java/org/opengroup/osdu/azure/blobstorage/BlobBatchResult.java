@@ -0,0 +1,81 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.blobstorage;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a batch operation executed by {@link BlobStore}, per blob.
+ */
+@Getter
+public class BlobBatchResult {
+    /**
+     * the paths of the blobs the operation succeeded on.
+     */
+    private final List<String> succeeded = new ArrayList<>();
+    /**
+     * the status code of the operation per path of the blobs it failed on.
+     */
+    private final Map<String, Integer> failed = new LinkedHashMap<>();
+    /**
+     * the number of batch requests submitted.
+     */
+    private int batches;
+
+    @Getter(AccessLevel.NONE)
+    private final boolean notFoundSucceeds;
+
+    /**
+     * @param notFoundSucceeds true if operations on missing blobs count as succeeded, e.g. for deletes
+     */
+    BlobBatchResult(final boolean notFoundSucceeds) {
+        this.notFoundSucceeds = notFoundSucceeds;
+    }
+
+    /**
+     * @param statusCodes status code of the operation per path of the blobs of one batch request
+     */
+    void add(final Map<String, Integer> statusCodes) {
+        batches++;
+        statusCodes.forEach((filePath, statusCode) -> {
+            if (statusCode < HttpStatus.SC_MULTIPLE_CHOICES || notFoundSucceeds && statusCode == HttpStatus.SC_NOT_FOUND) {
+                succeeded.add(filePath);
+            } else {
+                failed.put(filePath, statusCode);
+            }
+        });
+    }
+
+    /**
+     * @return true if the operation succeeded on every blob
+     */
+    public boolean isSuccess() {
+        return failed.isEmpty();
+    }
+
+    /**
+     * @return 200 if the operation succeeded on every blob, else the highest failure status code
+     */
+    public int getStatusCode() {
+        return failed.values().stream().max(Integer::compare).orElse(HttpStatus.SC_OK);
+    }
+}
@@ -0,0 +1,164 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.blobstorage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only {@link SeekableByteChannel} over a blob, backed by ranged reads. The blob is read in fixed size blocks, so
+ * a small read also reads ahead up to the end of its block, and the most recently used blocks are kept in an LRU cache.
+ * Headers and trailers of large files can be read without downloading the whole blob.
+ * Failed ranged reads surface as {@link org.opengroup.osdu.core.common.model.http.AppException}, like the rest of
+ * {@link BlobStore}. Instances are not thread safe.
+ */
+public final class BlobSeekableByteChannel implements SeekableByteChannel {
+
+    /**
+     * Reads a range of the blob.
+     */
+    @FunctionalInterface
+    interface RangeReader {
+        /**
+         * @param offset offset of the range
+         * @param length length of the range, within the blob
+         * @return content of the range
+         */
+        byte[] read(long offset, int length);
+    }
+
+    private final RangeReader rangeReader;
+    private final long size;
+    private final int blockSize;
+    private final Map<Long, byte[]> blocks;
+    private long position;
+    private boolean open = true;
+
+    /**
+     * @param rangeReader Reads ranges of the blob
+     * @param size        Size of the blob
+     * @param blockSize   Size of the blocks read at once
+     * @param cacheBlocks Max number of blocks cached
+     */
+    BlobSeekableByteChannel(final RangeReader rangeReader, final long size, final int blockSize, final int cacheBlocks) {
+        if (blockSize <= 0 || cacheBlocks <= 0) {
+            throw new IllegalArgumentException("Block size and cached blocks must be positive");
+        }
+        this.rangeReader = rangeReader;
+        this.size = size;
+        this.blockSize = blockSize;
+        this.blocks = new LinkedHashMap<Long, byte[]>(cacheBlocks, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, byte[]> eldest) {
+                return size() > cacheBlocks;
+            }
+        };
+    }
+
+    @Override
+    public int read(final ByteBuffer destination) throws IOException {
+        ensureOpen();
+        if (position >= size) {
+            return -1;
+        }
+        int read = 0;
+        while (destination.hasRemaining() && position < size) {
+            long index = position / blockSize;
+            byte[] block = getBlock(index);
+            int offsetInBlock = (int) (position - index * blockSize);
+            if (offsetInBlock >= block.length) {
+                throw new IOException("Blob is shorter than its size when the channel was opened");
+            }
+            int length = Math.min(destination.remaining(), block.length - offsetInBlock);
+            destination.put(block, offsetInBlock, length);
+            position += length;
+            read += length;
+        }
+        return read;
+    }
+
+    @Override
+    public int write(final ByteBuffer source) throws IOException {
+        ensureOpen();
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(final long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must not be negative");
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(final long newSize) throws IOException {
+        ensureOpen();
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        blocks.clear();
+    }
+
+    /**
+     * @param index index of the block
+     * @return the block, read from the blob unless cached
+     */
+    private byte[] getBlock(final long index) {
+        byte[] block = blocks.get(index);
+        if (block == null) {
+            long offset = index * blockSize;
+            block = rangeReader.read(offset, (int) Math.min(blockSize, size - offset));
+            blocks.put(index, block);
+        }
+        return block;
+    }
+
+    /**
+     * @throws ClosedChannelException if the channel is closed
+     */
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -16,6 +16,7 @@ package org.opengroup.osdu.azure.blobstorage;
 
 import com.azure.identity.DefaultAzureCredential;
 import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.storage.blob.BlobServiceAsyncClient;
 import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.BlobServiceClientBuilder;
 import com.azure.storage.common.StorageSharedKeyCredential;
@@ -39,6 +40,7 @@ public class BlobServiceClientFactoryImpl implements IBlobServiceClientFactory {
     private DefaultAzureCredential defaultAzureCredential;
     private PartitionServiceClient partitionService;
     private Map<String, BlobServiceClient> blobServiceClientMap;
+    private Map<String, BlobServiceAsyncClient> blobServiceAsyncClientMap;
     private static final String SYSTEM_STORAGE_CACHE_KEY = "system_storage";
     private static final String SYSTEM_STORAGE_BLOB_ENDPOINT = "system-storage-blob-endpoint";
 
@@ -64,6 +66,7 @@ public class BlobServiceClientFactoryImpl implements IBlobServiceClientFactory {
         this.defaultAzureCredential = credentials;
         this.partitionService = partitionServiceClient;
         blobServiceClientMap = new ConcurrentHashMap<>();
+        blobServiceAsyncClientMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -96,32 +99,68 @@ public class BlobServiceClientFactoryImpl implements IBlobServiceClientFactory {
         return this.blobServiceClientMap.computeIfAbsent(SYSTEM_STORAGE_CACHE_KEY, blobServiceClient -> createSystemBlobServiceClient());
     }
 
+    /**
+     * @param dataPartitionId data partition id.
+     * @return BlobServiceAsyncClient corresponding to the given data partition id.
+     */
+    @Override
+    public BlobServiceAsyncClient getBlobServiceAsyncClient(final String dataPartitionId) {
+        Validators.checkNotNull(defaultAzureCredential, "Credential");
+        Validators.checkNotNullAndNotEmpty(dataPartitionId, "dataPartitionId");
+
+        String cacheKey = String.format("%s-blobServiceAsyncClient", dataPartitionId);
+        return this.blobServiceAsyncClientMap.computeIfAbsent(cacheKey, blobServiceClient -> createBlobServiceClientBuilder(dataPartitionId).buildAsyncClient());
+    }
+
+    /**
+     * @return BlobServiceAsyncClient for system resources.
+     */
+    @Override
+    public BlobServiceAsyncClient getSystemBlobServiceAsyncClient() {
+        Validators.checkNotNull(defaultAzureCredential, "Credential");
+
+        return this.blobServiceAsyncClientMap.computeIfAbsent(SYSTEM_STORAGE_CACHE_KEY, blobServiceClient -> createSystemBlobServiceClientBuilder().buildAsyncClient());
+    }
+
     /**
      * @param dataPartitionId data partition id.
      * @return BlobServiceClient
      */
     private BlobServiceClient createBlobServiceClient(final String dataPartitionId) {
+        return createBlobServiceClientBuilder(dataPartitionId).buildClient();
+    }
+
+    /**
+     * @return BlobServiceClient for system resources.
+     */
+    private BlobServiceClient createSystemBlobServiceClient() {
+        return createSystemBlobServiceClientBuilder().buildClient();
+    }
+
+    /**
+     * @param dataPartitionId data partition id.
+     * @return BlobServiceClientBuilder with the endpoint and credential of the data partition.
+     */
+    private BlobServiceClientBuilder createBlobServiceClientBuilder(final String dataPartitionId) {
         PartitionInfoAzure pi = this.partitionService.getPartition(dataPartitionId);
         String endpoint = pi.getStorageBlobEndpoint();
         BlobServiceClientBuilder blobServiceClientBuilder = getBlobServiceClientBuilder(endpoint);
 
         if (msiConfiguration.getIsEnabled()) {
-            return blobServiceClientBuilder.credential(defaultAzureCredential)
-                    .buildClient();
+            return blobServiceClientBuilder.credential(defaultAzureCredential);
         } else {
             StorageSharedKeyCredential storageSharedKeyCredential = new StorageSharedKeyCredential(
                     pi.getStorageAccountName(),
                     pi.getStorageAccountKey()
             );
-            return blobServiceClientBuilder.credential(storageSharedKeyCredential)
-                    .buildClient();
+            return blobServiceClientBuilder.credential(storageSharedKeyCredential);
         }
     }
 
     /**
-     * @return BlobServiceClient for system resources.
+     * @return BlobServiceClientBuilder with the endpoint and credential of system resources.
      */
-    private BlobServiceClient createSystemBlobServiceClient() {
+    private BlobServiceClientBuilder createSystemBlobServiceClientBuilder() {
 
         String endpoint = KeyVaultFacade.getSecretWithDefault(secretClient, SYSTEM_STORAGE_BLOB_ENDPOINT, null);
 
@@ -132,15 +171,13 @@ public class BlobServiceClientFactoryImpl implements IBlobServiceClientFactory {
         BlobServiceClientBuilder blobServiceClientBuilder = getBlobServiceClientBuilder(endpoint);
 
         if (msiConfiguration.getIsEnabled()) {
-            return blobServiceClientBuilder.credential(defaultAzureCredential)
-                    .buildClient();
+            return blobServiceClientBuilder.credential(defaultAzureCredential);
         } else {
             StorageSharedKeyCredential storageSharedKeyCredential = new StorageSharedKeyCredential(
                     getSecret(systemBlobStoreConfig.getStorageAccountNameKeyName()),
                     getSecret(systemBlobStoreConfig.getStorageKeyKeyName())
             );
-            return blobServiceClientBuilder.credential(storageSharedKeyCredential)
-                    .buildClient();
+            return blobServiceClientBuilder.credential(storageSharedKeyCredential);
         }
     }
 
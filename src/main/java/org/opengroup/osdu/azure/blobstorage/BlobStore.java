@@ -15,21 +15,35 @@
 package org.opengroup.osdu.azure.blobstorage;
 
 import com.azure.core.http.rest.PagedIterable;
+import com.azure.core.http.rest.Response;
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
 import com.azure.core.util.polling.LongRunningOperationStatus;
 import com.azure.core.util.polling.PollResponse;
 import com.azure.core.util.polling.SyncPoller;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.batch.BlobBatch;
+import com.azure.storage.blob.batch.BlobBatchClient;
+import com.azure.storage.blob.batch.BlobBatchClientBuilder;
+import com.azure.storage.blob.models.AccessTier;
 import com.azure.storage.blob.models.BlobCopyInfo;
+import com.azure.storage.blob.models.BlobDownloadResponse;
 import com.azure.storage.blob.models.BlobErrorCode;
 import com.azure.storage.blob.models.BlobItem;
 import com.azure.storage.blob.models.BlobListDetails;
 import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobRequestConditions;
 import com.azure.storage.blob.models.BlobStorageException;
 import com.azure.storage.blob.models.CopyStatusType;
 import com.azure.storage.blob.models.ListBlobsOptions;
+import com.azure.storage.blob.models.ParallelTransferOptions;
 import com.azure.storage.blob.models.UserDelegationKey;
+import com.azure.storage.blob.options.BlobDownloadToFileOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import com.azure.storage.blob.options.BlobUploadFromFileOptions;
 import com.azure.storage.blob.sas.BlobContainerSasPermission;
 import com.azure.storage.blob.sas.BlobSasPermission;
 import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
@@ -42,14 +56,35 @@ import org.opengroup.osdu.azure.logging.DependencyPayload;
 import org.opengroup.osdu.core.common.logging.ILogger;
 import org.opengroup.osdu.core.common.model.http.AppException;
 import org.slf4j.helpers.MessageFormatter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
 
 /**
  * A simpler interface to interact with Azure blob storage.
@@ -71,6 +106,12 @@ import java.time.OffsetDateTime;
  *          blobStorage.writeToStorageContainer("dataPartitionId", "filePath", "content", "containerName");
  *      }
  *
+ *      void writeBytesToStorageContainerExample()
+ *      {
+ *          byte[] content = blobStorage.readBytesFromStorageContainer("dataPartitionId", "filePath", "containerName");
+ *          blobStorage.writeBytesToStorageContainer("dataPartitionId", "copyFilePath", content, "containerName");
+ *      }
+ *
  *      void deleteFromStorageContainerExample()
  *      {
  *          Boolean success = blobStorage.deleteFromStorageContainer("dataPartitionId", "filePath", "containerName");
@@ -93,10 +134,32 @@ import java.time.OffsetDateTime;
  * </pre>
  */
 public class BlobStore {
+    /**
+     * Default number of bytes a seekable channel reads at once.
+     */
+    public static final int DEFAULT_CHANNEL_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Default number of blocks a seekable channel caches.
+     */
+    public static final int DEFAULT_CHANNEL_CACHE_BLOCKS = 16;
+
+    /**
+     * Max number of sub-requests of a batch request, as allowed by the Blob Batch API.
+     */
+    public static final int MAX_BATCH_SIZE = 256;
+
+    /**
+     * Default number of batch requests submitted in parallel.
+     */
+    public static final int DEFAULT_BATCH_CONCURRENCY = 4;
+
     private static final String LOGGER_NAME = BlobStore.class.getName();
 
     private static final int POLL_COMPLETION_TIMEOUT_IN_SECONDS = 10;
     private static final int BLOB_LIST_TIMEOUT_IN_SECONDS = 60;
+    private static final double BYTES_PER_MB = 1024 * 1024;
+    private static final int MS_PER_SECOND = 1000;
     private IBlobServiceClientFactory blobServiceClientFactory;
     private ILogger logger;
     private DependencyLogger dependencyLogger;
@@ -180,6 +243,134 @@ public class BlobStore {
         return this.undeleteFromStorageContainerInternal(filePath, containerName, blobContainerClient);
     }
 
+    /**
+     * Deletes the files with batch requests of up to {@link #MAX_BATCH_SIZE} deletes, {@link #DEFAULT_BATCH_CONCURRENCY}
+     * of them submitted in parallel.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePaths       Paths of files to be deleted.
+     * @param containerName   Name of the storage container
+     * @return outcome per file, files that do not exist count as deleted.
+     */
+    public BlobBatchResult batchDeleteFromStorageContainer(
+            final String dataPartitionId,
+            final List<String> filePaths,
+            final String containerName) {
+        return batchDeleteFromStorageContainer(dataPartitionId, filePaths, containerName, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    /**
+     * Deletes the files with batch requests of up to {@link #MAX_BATCH_SIZE} deletes.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePaths       Paths of files to be deleted.
+     * @param containerName   Name of the storage container
+     * @param maxConcurrency  Max number of batch requests submitted in parallel
+     * @return outcome per file, files that do not exist count as deleted.
+     */
+    public BlobBatchResult batchDeleteFromStorageContainer(
+            final String dataPartitionId,
+            final List<String> filePaths,
+            final String containerName,
+            final int maxConcurrency) {
+        return submitInBatches("BATCH_DELETE_FROM_STORAGE_CONTAINER", dataPartitionId, filePaths, containerName, maxConcurrency, true,
+                (batch, filePath) -> batch.deleteBlob(containerName, filePath));
+    }
+
+    /**
+     * Sets the access tier of the files with batch requests of up to {@link #MAX_BATCH_SIZE} files,
+     * {@link #DEFAULT_BATCH_CONCURRENCY} of them submitted in parallel.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePaths       Paths of files to be moved to the tier.
+     * @param containerName   Name of the storage container
+     * @param accessTier      Access tier to set
+     * @return outcome per file
+     */
+    public BlobBatchResult batchSetAccessTier(
+            final String dataPartitionId,
+            final List<String> filePaths,
+            final String containerName,
+            final AccessTier accessTier) {
+        return batchSetAccessTier(dataPartitionId, filePaths, containerName, accessTier, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    /**
+     * Sets the access tier of the files with batch requests of up to {@link #MAX_BATCH_SIZE} files.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePaths       Paths of files to be moved to the tier.
+     * @param containerName   Name of the storage container
+     * @param accessTier      Access tier to set
+     * @param maxConcurrency  Max number of batch requests submitted in parallel
+     * @return outcome per file
+     */
+    public BlobBatchResult batchSetAccessTier(
+            final String dataPartitionId,
+            final List<String> filePaths,
+            final String containerName,
+            final AccessTier accessTier,
+            final int maxConcurrency) {
+        return submitInBatches("BATCH_SET_ACCESS_TIER", dataPartitionId, filePaths, containerName, maxConcurrency, false,
+                (batch, filePath) -> batch.setBlobAccessTier(containerName, filePath, accessTier));
+    }
+
+    /**
+     * Checks which of the files exist, {@link #DEFAULT_BATCH_CONCURRENCY} at a time.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePaths       Paths of files to be checked.
+     * @param containerName   Name of the storage container
+     * @return whether the file exists per path, in the order of the paths.
+     */
+    public Map<String, Boolean> batchCheckIfBlobsExist(
+            final String dataPartitionId,
+            final List<String> filePaths,
+            final String containerName) {
+        return batchCheckIfBlobsExist(dataPartitionId, filePaths, containerName, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    /**
+     * Checks which of the files exist. The Blob Batch API does not support existence checks, so every file is checked
+     * with its own request, at most {@code maxConcurrency} of them in parallel.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePaths       Paths of files to be checked.
+     * @param containerName   Name of the storage container
+     * @param maxConcurrency  Max number of requests in parallel
+     * @return whether the file exists per path, in the order of the paths.
+     */
+    public Map<String, Boolean> batchCheckIfBlobsExist(
+            final String dataPartitionId,
+            final List<String> filePaths,
+            final String containerName,
+            final int maxConcurrency) {
+        BlobContainerClient blobContainerClient = getBlobContainerClient(dataPartitionId, containerName);
+        final long start = System.currentTimeMillis();
+        int statusCode = HttpStatus.SC_OK;
+        Map<String, Boolean> existing = new LinkedHashMap<>();
+        try {
+            Flux.fromIterable(new LinkedHashSet<>(filePaths))
+                    .flatMapSequential(filePath -> Mono.fromCallable(() -> blobContainerClient.getBlobClient(filePath).exists())
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .map(exists -> new AbstractMap.SimpleImmutableEntry<>(filePath, exists)), Math.max(1, maxConcurrency))
+                    .toIterable()
+                    .forEach(entry -> existing.put(entry.getKey(), entry.getValue()));
+            return existing;
+        } catch (BlobStorageException ex) {
+            statusCode = ex.getStatusCode();
+            throw handleBlobStorageException(statusCode, "Failed to check if blobs exist", ex);
+        } catch (Exception ex) {
+            statusCode = HttpStatus.SC_INTERNAL_SERVER_ERROR;
+            throw handleBlobStoreException(500, "Failed to check if blobs exist", ex);
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String data = String.format("%s blobs=%d existing=%d", containerName, existing.size(),
+                    existing.values().stream().filter(Boolean::booleanValue).count());
+            logDependency("BATCH_CHECK_IF_BLOBS_EXIST", data, containerName, timeTaken, String.valueOf(statusCode), statusCode == HttpStatus.SC_OK);
+        }
+    }
+
     /**
      * @param filePath        Path of file to be written at.
      * @param content         Content to be written in the file.
@@ -208,6 +399,172 @@ public class BlobStore {
         this.writeToStorageContainerInternal(filePath, content, containerName, blobContainerClient);
     }
 
+    /**
+     * Reads the file without decoding it. The bytes are downloaded into a single buffer that is returned as is.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be read.
+     * @param containerName   Name of the storage container
+     * @return the content of file with provided file path.
+     */
+    public byte[] readBytesFromStorageContainer(
+            final String dataPartitionId,
+            final String filePath,
+            final String containerName) {
+        return readBinaryDataFromStorageContainer(dataPartitionId, filePath, containerName).toBytes();
+    }
+
+    /**
+     * Reads the file without decoding it. The bytes are downloaded into a single buffer that is returned as is.
+     *
+     * @param filePath        Path of file to be read.
+     * @param containerName   Name of the storage container
+     * @return the content of file with provided file path.
+     */
+    public byte[] readBytesFromStorageContainer(
+            final String filePath,
+            final String containerName) {
+        return readBinaryDataFromStorageContainer(filePath, containerName).toBytes();
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be read.
+     * @param containerName   Name of the storage container
+     * @return read-only view over the content of file with provided file path.
+     */
+    public ByteBuffer readByteBufferFromStorageContainer(
+            final String dataPartitionId,
+            final String filePath,
+            final String containerName) {
+        return readBinaryDataFromStorageContainer(dataPartitionId, filePath, containerName).toByteBuffer();
+    }
+
+    /**
+     * @param filePath        Path of file to be read.
+     * @param containerName   Name of the storage container
+     * @return read-only view over the content of file with provided file path.
+     */
+    public ByteBuffer readByteBufferFromStorageContainer(
+            final String filePath,
+            final String containerName) {
+        return readBinaryDataFromStorageContainer(filePath, containerName).toByteBuffer();
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be read.
+     * @param containerName   Name of the storage container
+     * @return the content of file with provided file path.
+     */
+    public BinaryData readBinaryDataFromStorageContainer(
+            final String dataPartitionId,
+            final String filePath,
+            final String containerName) {
+        BlobContainerClient blobContainerClient = getBlobContainerClient(dataPartitionId, containerName);
+        return this.readBinaryDataFromStorageContainerInternal(filePath, containerName, blobContainerClient);
+    }
+
+    /**
+     * @param filePath        Path of file to be read.
+     * @param containerName   Name of the storage container
+     * @return the content of file with provided file path.
+     */
+    public BinaryData readBinaryDataFromStorageContainer(
+            final String filePath,
+            final String containerName) {
+        BlobContainerClient blobContainerClient = getSystemBlobContainerClient(containerName);
+        return this.readBinaryDataFromStorageContainerInternal(filePath, containerName, blobContainerClient);
+    }
+
+    /**
+     * Writes the bytes as is, without copying them.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be written at.
+     * @param content         Content to be written in the file.
+     * @param containerName   Name of the storage container
+     */
+    public void writeBytesToStorageContainer(
+            final String dataPartitionId,
+            final String filePath,
+            final byte[] content,
+            final String containerName) {
+        writeBinaryDataToStorageContainer(dataPartitionId, filePath, BinaryData.fromBytes(content), containerName);
+    }
+
+    /**
+     * Writes the bytes as is, without copying them.
+     *
+     * @param filePath        Path of file to be written at.
+     * @param content         Content to be written in the file.
+     * @param containerName   Name of the storage container
+     */
+    public void writeBytesToStorageContainer(
+            final String filePath,
+            final byte[] content,
+            final String containerName) {
+        writeBinaryDataToStorageContainer(filePath, BinaryData.fromBytes(content), containerName);
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer, without copying them.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be written at.
+     * @param content         Content to be written in the file.
+     * @param containerName   Name of the storage container
+     */
+    public void writeByteBufferToStorageContainer(
+            final String dataPartitionId,
+            final String filePath,
+            final ByteBuffer content,
+            final String containerName) {
+        writeBinaryDataToStorageContainer(dataPartitionId, filePath, BinaryData.fromByteBuffer(content), containerName);
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer, without copying them.
+     *
+     * @param filePath        Path of file to be written at.
+     * @param content         Content to be written in the file.
+     * @param containerName   Name of the storage container
+     */
+    public void writeByteBufferToStorageContainer(
+            final String filePath,
+            final ByteBuffer content,
+            final String containerName) {
+        writeBinaryDataToStorageContainer(filePath, BinaryData.fromByteBuffer(content), containerName);
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be written at.
+     * @param content         Content to be written in the file.
+     * @param containerName   Name of the storage container
+     */
+    public void writeBinaryDataToStorageContainer(
+            final String dataPartitionId,
+            final String filePath,
+            final BinaryData content,
+            final String containerName) {
+        BlobContainerClient blobContainerClient = getBlobContainerClient(dataPartitionId, containerName);
+        this.writeBinaryDataToStorageContainerInternal(filePath, content, containerName, blobContainerClient);
+    }
+
+    /**
+     * @param filePath        Path of file to be written at.
+     * @param content         Content to be written in the file.
+     * @param containerName   Name of the storage container
+     */
+    public void writeBinaryDataToStorageContainer(
+            final String filePath,
+            final BinaryData content,
+            final String containerName) {
+        BlobContainerClient blobContainerClient = getSystemBlobContainerClient(containerName);
+        this.writeBinaryDataToStorageContainerInternal(filePath, content, containerName, blobContainerClient);
+    }
+
     /**
      * @param dataPartitionId Data partition id
      * @param containerName   Name of the storage container
@@ -567,6 +924,61 @@ public class BlobStore {
         }
     }
 
+    /**
+     * @param filePath            Path of file to be read.
+     * @param containerName       Name of the storage container
+     * @param blobContainerClient Blob container client
+     * @return the content of file, downloaded into a single buffer of the size of the blob
+     */
+    private BinaryData readBinaryDataFromStorageContainerInternal(
+            final String filePath,
+            final String containerName,
+            final BlobContainerClient blobContainerClient) {
+        BlockBlobClient blockBlobClient = blobContainerClient.getBlobClient(filePath).getBlockBlobClient();
+        final long start = System.currentTimeMillis();
+        int statusCode = HttpStatus.SC_OK;
+        try {
+            BinaryData content = blockBlobClient.downloadContent();
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("{}", MessageFormatter.format("Done reading from {}", filePath).getMessage());
+            return content;
+        } catch (BlobStorageException ex) {
+            statusCode = ex.getStatusCode();
+            throw handleBlobStorageException(statusCode, "Failed to read specified blob", ex);
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String dependencyData = MessageFormatter.arrayFormat("{}/{}", new String[]{containerName, filePath}).getMessage();
+            logDependency("READ_FROM_STORAGE_CONTAINER", dependencyData, dependencyData, timeTaken, String.valueOf(statusCode), statusCode == HttpStatus.SC_OK);
+        }
+    }
+
+    /**
+     * @param filePath            Path of file to be written at.
+     * @param content             Content to be written in the file, handed to the SDK as is.
+     * @param containerName       Name of the storage container
+     * @param blobContainerClient Blob container client
+     */
+    private void writeBinaryDataToStorageContainerInternal(
+            final String filePath,
+            final BinaryData content,
+            final String containerName,
+            final BlobContainerClient blobContainerClient) {
+        BlockBlobClient blockBlobClient = blobContainerClient.getBlobClient(filePath).getBlockBlobClient();
+
+        final long start = System.currentTimeMillis();
+        int statusCode = HttpStatus.SC_OK;
+        try {
+            blockBlobClient.upload(content, true);
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("{}", MessageFormatter.format("Done uploading file content to {}", filePath).getMessage());
+        } catch (BlobStorageException ex) {
+            statusCode = ex.getStatusCode();
+            throw handleBlobStorageException(500, "Failed to upload file content.", ex);
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String dependencyData = MessageFormatter.arrayFormat("{}/{}", new String[]{containerName, filePath}).getMessage();
+            logDependency("WRITE_TO_STORAGE_CONTAINER", dependencyData, dependencyData, timeTaken, String.valueOf(statusCode), statusCode == HttpStatus.SC_OK);
+        }
+    }
+
     /**
      * @param blockBlobClient Blob client
      * @param expiryTime      Time after which SAS Token expires
@@ -762,4 +1174,372 @@ public class BlobStore {
         return blobInputStream;
     }
 
+    /**
+     * Reads a range of the file, without downloading the rest of it.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be read.
+     * @param containerName   Name of the storage container
+     * @param offset          Offset of the first byte to read
+     * @param length          Max number of bytes to read, fewer are returned if the file ends before
+     * @return the content of the range, 416 if the offset is beyond the end of the file, 400 if the offset is
+     * negative or the length not positive.
+     */
+    public byte[] readRange(
+            final String dataPartitionId,
+            final String filePath,
+            final String containerName,
+            final long offset,
+            final int length) {
+        if (offset < 0 || length <= 0) {
+            throw new AppException(HttpStatus.SC_BAD_REQUEST, "Invalid range",
+                    MessageFormatter.format("Range of item with name={} needs a non negative offset and a positive length", filePath).getMessage());
+        }
+        BlockBlobClient blockBlobClient = getBlobContainerClient(dataPartitionId, containerName).getBlobClient(filePath).getBlockBlobClient();
+        return readRangeInternal(filePath, containerName, blockBlobClient, offset, length, null);
+    }
+
+    /**
+     * Opens a read-only channel over the file with blocks of {@link #DEFAULT_CHANNEL_BLOCK_SIZE} bytes, of which
+     * {@link #DEFAULT_CHANNEL_CACHE_BLOCKS} are cached.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be read.
+     * @param containerName   Name of the storage container
+     * @return seekable channel over the file
+     */
+    public SeekableByteChannel openSeekableByteChannel(
+            final String dataPartitionId,
+            final String filePath,
+            final String containerName) {
+        return openSeekableByteChannel(dataPartitionId, filePath, containerName, DEFAULT_CHANNEL_BLOCK_SIZE, DEFAULT_CHANNEL_CACHE_BLOCKS);
+    }
+
+    /**
+     * Opens a read-only channel over the file, backed by ranged reads of whole blocks. The channel is bound to the
+     * version of the file it was opened on: reads fail with 412 once the file is overwritten.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be read.
+     * @param containerName   Name of the storage container
+     * @param blockSize       Number of bytes read at once, i.e. the read-ahead of small reads
+     * @param cacheBlocks     Max number of blocks cached
+     * @return seekable channel over the file
+     */
+    public SeekableByteChannel openSeekableByteChannel(
+            final String dataPartitionId,
+            final String filePath,
+            final String containerName,
+            final int blockSize,
+            final int cacheBlocks) {
+        BlockBlobClient blockBlobClient = getBlobContainerClient(dataPartitionId, containerName).getBlobClient(filePath).getBlockBlobClient();
+        BlobProperties properties;
+        try {
+            properties = blockBlobClient.getProperties();
+        } catch (BlobStorageException ex) {
+            throw handleBlobStorageException(ex.getStatusCode(), "Failed to read specified blob", ex);
+        }
+        BlobRequestConditions sameVersion = new BlobRequestConditions().setIfMatch(properties.getETag());
+        return new BlobSeekableByteChannel(
+                (offset, length) -> readRangeInternal(filePath, containerName, blockBlobClient, offset, length, sameVersion),
+                properties.getBlobSize(), blockSize, cacheBlocks);
+    }
+
+    /**
+     * Uploads the stream, whose length need not be known, as a block blob, overwriting the existing blob. The stream
+     * is read in blocks, at most {@code maxConcurrency} of them are buffered and uploaded in parallel.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be written at.
+     * @param content         Content to be written in the file, read until its end but not closed.
+     * @param transferOptions Block size, max concurrency and max single upload size, null for the SDK defaults
+     * @param containerName   Name of the storage container
+     */
+    public void uploadFromStream(
+            final String dataPartitionId,
+            final String filePath,
+            final InputStream content,
+            final ParallelTransferOptions transferOptions,
+            final String containerName) {
+        BlobClient blobClient = getBlobContainerClient(dataPartitionId, containerName).getBlobClient(filePath);
+        CountingInputStream countingStream = new CountingInputStream(content);
+        transfer("UPLOAD_TO_STORAGE_CONTAINER", containerName, filePath, "Failed to upload file content.", () -> {
+            blobClient.uploadWithResponse(new BlobParallelUploadOptions(countingStream).setParallelTransferOptions(transferOptions), null, Context.NONE);
+            return countingStream.getCount();
+        });
+    }
+
+    /**
+     * Uploads the local file as a block blob, overwriting the existing blob. Blocks are read from the file and uploaded
+     * in parallel, without buffering the whole file.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be written at.
+     * @param source          Local file to upload
+     * @param transferOptions Block size, max concurrency and max single upload size, null for the SDK defaults
+     * @param containerName   Name of the storage container
+     */
+    public void uploadFromFile(
+            final String dataPartitionId,
+            final String filePath,
+            final Path source,
+            final ParallelTransferOptions transferOptions,
+            final String containerName) {
+        BlobClient blobClient = getBlobContainerClient(dataPartitionId, containerName).getBlobClient(filePath);
+        transfer("UPLOAD_TO_STORAGE_CONTAINER", containerName, filePath, "Failed to upload file content.", () -> {
+            blobClient.uploadFromFileWithResponse(new BlobUploadFromFileOptions(source.toString()).setParallelTransferOptions(transferOptions), null, Context.NONE);
+            return source.toFile().length();
+        });
+    }
+
+    /**
+     * Downloads the blob into the local file, overwriting it. Ranges of the blob are downloaded in parallel and
+     * written straight to the file.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be read.
+     * @param destination     Local file to download to
+     * @param transferOptions Block size and max concurrency, null for the SDK defaults
+     * @param containerName   Name of the storage container
+     */
+    public void downloadToFile(
+            final String dataPartitionId,
+            final String filePath,
+            final Path destination,
+            final ParallelTransferOptions transferOptions,
+            final String containerName) {
+        BlobClient blobClient = getBlobContainerClient(dataPartitionId, containerName).getBlobClient(filePath);
+        BlobDownloadToFileOptions options = new BlobDownloadToFileOptions(destination.toString())
+                .setOpenOptions(new HashSet<>(Arrays.asList(StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE, StandardOpenOption.READ)));
+        if (transferOptions != null) {
+            options.setParallelTransferOptions(new com.azure.storage.common.ParallelTransferOptions()
+                    .setBlockSizeLong(transferOptions.getBlockSizeLong())
+                    .setMaxConcurrency(transferOptions.getMaxConcurrency())
+                    .setProgressListener(transferOptions.getProgressListener()));
+        }
+        transfer("DOWNLOAD_FROM_STORAGE_CONTAINER", containerName, filePath, "Failed to read specified blob", () ->
+                blobClient.downloadToFileWithResponse(options, null, Context.NONE).getValue().getBlobSize());
+    }
+
+    /**
+     * Downloads the blob into the stream as it arrives, without buffering it. An output stream can only be written in
+     * order, so the blob is downloaded sequentially; use {@link #downloadToFile} for parallel downloads.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be read.
+     * @param destination     Stream to write the content to, not closed.
+     * @param containerName   Name of the storage container
+     */
+    public void downloadToStream(
+            final String dataPartitionId,
+            final String filePath,
+            final OutputStream destination,
+            final String containerName) {
+        BlobClient blobClient = getBlobContainerClient(dataPartitionId, containerName).getBlobClient(filePath);
+        transfer("DOWNLOAD_FROM_STORAGE_CONTAINER", containerName, filePath, "Failed to read specified blob", () -> {
+            BlobDownloadResponse response = blobClient.downloadStreamWithResponse(destination, null, null, null, false, null, Context.NONE);
+            Long contentLength = response.getDeserializedHeaders().getContentLength();
+            return contentLength == null ? 0 : contentLength;
+        });
+    }
+
+    /**
+     * @param filePath            Path of file to be read.
+     * @param containerName       Name of the storage container
+     * @param blockBlobClient     Block blob client
+     * @param offset              Offset of the first byte to read
+     * @param length              Max number of bytes to read
+     * @param requestConditions   Conditions the blob must meet, null for none
+     * @return the content of the range
+     */
+    private byte[] readRangeInternal(
+            final String filePath,
+            final String containerName,
+            final BlockBlobClient blockBlobClient,
+            final long offset,
+            final int length,
+            final BlobRequestConditions requestConditions) {
+        final long start = System.currentTimeMillis();
+        int statusCode = HttpStatus.SC_PARTIAL_CONTENT;
+        // length is an upper bound, e.g. Integer.MAX_VALUE to read to the end, so the buffer grows with the content
+        ByteArrayOutputStream downloadStream = new ByteArrayOutputStream(Math.min(length, DEFAULT_CHANNEL_BLOCK_SIZE));
+        try {
+            BlobDownloadResponse response = blockBlobClient.downloadStreamWithResponse(downloadStream, new BlobRange(offset, (long) length),
+                    null, requestConditions, false, null, Context.NONE);
+            statusCode = response.getStatusCode();
+            return downloadStream.toByteArray();
+        } catch (BlobStorageException ex) {
+            statusCode = ex.getStatusCode();
+            throw handleBlobStorageException(statusCode, "Failed to read specified range of blob", ex);
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String target = MessageFormatter.arrayFormat("{}/{}", new String[]{containerName, filePath}).getMessage();
+            final String data = String.format("%s offset=%d length=%d", target, offset, length);
+            logDependency("READ_RANGE_FROM_STORAGE_CONTAINER", data, target, timeTaken, String.valueOf(statusCode), statusCode < HttpStatus.SC_MULTIPLE_CHOICES);
+        }
+    }
+
+    /**
+     * Submits an operation on every file, chunked into batch requests of up to {@link #MAX_BATCH_SIZE} files, and logs
+     * one dependency for all of them.
+     *
+     * @param name             Name of the dependency
+     * @param dataPartitionId  Data partition id
+     * @param filePaths        Paths of files to operate on
+     * @param containerName    Name of the storage container
+     * @param maxConcurrency   Max number of batch requests submitted in parallel
+     * @param notFoundSucceeds true if operations on missing files count as succeeded
+     * @param operation        Adds the operation on a file to a batch
+     * @return outcome per file
+     */
+    private BlobBatchResult submitInBatches(
+            final String name,
+            final String dataPartitionId,
+            final List<String> filePaths,
+            final String containerName,
+            final int maxConcurrency,
+            final boolean notFoundSucceeds,
+            final BiFunction<BlobBatch, String, Response<Void>> operation) {
+        BlobBatchClient blobBatchClient = getBlobBatchClient(getBlobContainerClient(dataPartitionId, containerName));
+        List<String> distinctPaths = new ArrayList<>(new LinkedHashSet<>(filePaths));
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinctPaths.size(); i += MAX_BATCH_SIZE) {
+            chunks.add(distinctPaths.subList(i, Math.min(i + MAX_BATCH_SIZE, distinctPaths.size())));
+        }
+
+        BlobBatchResult result = new BlobBatchResult(notFoundSucceeds);
+        final long start = System.currentTimeMillis();
+        int statusCode = HttpStatus.SC_INTERNAL_SERVER_ERROR;
+        try {
+            Flux.fromIterable(chunks)
+                    .flatMap(chunk -> Mono.fromCallable(() -> submitBatch(blobBatchClient, chunk, operation))
+                            .subscribeOn(Schedulers.boundedElastic()), Math.max(1, maxConcurrency))
+                    .toIterable()
+                    .forEach(result::add);
+            statusCode = result.getStatusCode();
+            return result;
+        } catch (BlobStorageException ex) {
+            statusCode = ex.getStatusCode();
+            throw handleBlobStorageException(statusCode, "Failed to submit batch requests", ex);
+        } catch (Exception ex) {
+            // e.g. timeouts, or checked exceptions wrapped by reactor
+            statusCode = HttpStatus.SC_INTERNAL_SERVER_ERROR;
+            throw handleBlobStoreException(500, "Failed to submit batch requests", ex);
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String data = String.format("%s blobs=%d batches=%d failed=%d", containerName, distinctPaths.size(), result.getBatches(), result.getFailed().size());
+            logDependency(name, data, containerName, timeTaken, String.valueOf(statusCode), statusCode == HttpStatus.SC_OK);
+        }
+    }
+
+    /**
+     * Submits one batch request.
+     *
+     * @param blobBatchClient Blob batch client
+     * @param filePaths       Paths of files to operate on, at most {@link #MAX_BATCH_SIZE}
+     * @param operation       Adds the operation on a file to the batch
+     * @return status code of the operation per path, the status code of the batch request for all if it was rejected as a whole
+     */
+    private static Map<String, Integer> submitBatch(
+            final BlobBatchClient blobBatchClient,
+            final List<String> filePaths,
+            final BiFunction<BlobBatch, String, Response<Void>> operation) {
+        BlobBatch batch = blobBatchClient.getBlobBatch();
+        Map<String, Response<Void>> responses = new LinkedHashMap<>();
+        filePaths.forEach(filePath -> responses.put(filePath, operation.apply(batch, filePath)));
+        Map<String, Integer> statusCodes = new LinkedHashMap<>();
+        try {
+            blobBatchClient.submitBatchWithResponse(batch, false, null, Context.NONE);
+            responses.forEach((filePath, response) -> statusCodes.put(filePath, response.getStatusCode()));
+        } catch (BlobStorageException ex) {
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(MessageFormatter.format("Batch request on {} blobs was rejected", filePaths.size()).getMessage(), ex);
+            filePaths.forEach(filePath -> statusCodes.put(filePath, ex.getStatusCode()));
+        }
+        return statusCodes;
+    }
+
+    /**
+     * @param blobContainerClient Blob container client
+     * @return batch client for the container
+     */
+    BlobBatchClient getBlobBatchClient(final BlobContainerClient blobContainerClient) {
+        return new BlobBatchClientBuilder(blobContainerClient).buildClient();
+    }
+
+    /**
+     * Runs a streaming transfer and logs its size and throughput as a dependency.
+     *
+     * @param name           Name of the dependency
+     * @param containerName  Name of the storage container
+     * @param filePath       Path of the blob
+     * @param failureMessage Error message if the transfer fails
+     * @param transfer       Transfers the blob and returns the number of bytes transferred
+     */
+    private void transfer(final String name, final String containerName, final String filePath, final String failureMessage, final LongSupplier transfer) {
+        final long start = System.currentTimeMillis();
+        int statusCode = HttpStatus.SC_OK;
+        long bytes = 0;
+        try {
+            bytes = transfer.getAsLong();
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("{}", MessageFormatter.arrayFormat("Done transferring {} bytes of {}", new Object[]{bytes, filePath}).getMessage());
+        } catch (BlobStorageException ex) {
+            statusCode = ex.getStatusCode();
+            throw handleBlobStorageException(statusCode, failureMessage, ex);
+        } catch (UncheckedIOException ex) {
+            statusCode = HttpStatus.SC_INTERNAL_SERVER_ERROR;
+            throw handleBlobStoreException(500, MessageFormatter.format("Failed to transfer content of {}", filePath).getMessage(), ex);
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String target = MessageFormatter.arrayFormat("{}/{}", new String[]{containerName, filePath}).getMessage();
+            final String data = String.format("%s bytes=%d mb_per_sec=%.2f", target, bytes, bytes / BYTES_PER_MB / Math.max(timeTaken, 1) * MS_PER_SECOND);
+            logDependency(name, data, target, timeTaken, String.valueOf(statusCode), statusCode == HttpStatus.SC_OK);
+        }
+    }
+
+    /**
+     * Counts the bytes read from a stream of unknown length.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        /**
+         * @param in Stream to count
+         */
+        CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        /**
+         * @return number of bytes read so far
+         */
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
 }
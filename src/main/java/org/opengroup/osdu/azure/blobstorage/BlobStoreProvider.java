@@ -37,4 +37,15 @@ public class BlobStoreProvider {
     public BlobStore buildBlobStore(final IBlobServiceClientFactory blobServiceClientFactory, final ILogger logger, final DependencyLogger depLogger) {
         return new BlobStore(blobServiceClientFactory, logger, depLogger);
     }
+
+    /**
+     * Create instance of {@link ReactiveBlobStore}.
+     * @param blobServiceClientFactory Factory which provides a BlobServiceAsyncClient.
+     * @param depLogger dependency logger to use for dependency logging.
+     * @return instance of {@link ReactiveBlobStore}
+     */
+    @Bean
+    public ReactiveBlobStore buildReactiveBlobStore(final IBlobServiceClientFactory blobServiceClientFactory, final DependencyLogger depLogger) {
+        return new ReactiveBlobStore(blobServiceClientFactory, depLogger);
+    }
 }
@@ -14,7 +14,10 @@
 
 package org.opengroup.osdu.azure.blobstorage;
 
+import com.azure.storage.blob.BlobServiceAsyncClient;
 import com.azure.storage.blob.BlobServiceClient;
+import org.apache.http.HttpStatus;
+import org.opengroup.osdu.core.common.model.http.AppException;
 
 /**
  *  Interface for Blob service client factory to return appropriate
@@ -33,4 +36,33 @@ public interface IBlobServiceClientFactory {
      * @return      BlobServiceClient for system resources.
      */
     BlobServiceClient getSystemBlobServiceClient();
+
+    /**
+     * Factories that do not provide async clients keep working with {@link BlobStore}, only
+     * {@link ReactiveBlobStore} requires them.
+     *
+     * @param dataPartitionId       data partition id.
+     * @return      BlobServiceAsyncClient corresponding to the given data partition id.
+     * @throws AppException with status 501 unless the factory provides async clients
+     */
+    default BlobServiceAsyncClient getBlobServiceAsyncClient(String dataPartitionId) {
+        throw asyncClientsNotSupported();
+    }
+
+    /**
+     *
+     * @return      BlobServiceAsyncClient for system resources.
+     * @throws AppException with status 501 unless the factory provides async clients
+     */
+    default BlobServiceAsyncClient getSystemBlobServiceAsyncClient() {
+        throw asyncClientsNotSupported();
+    }
+
+    /**
+     * @return exception reporting that the factory does not provide async clients
+     */
+    private AppException asyncClientsNotSupported() {
+        return new AppException(HttpStatus.SC_NOT_IMPLEMENTED, "Async blob client not available",
+                String.format("%s does not provide async blob clients", getClass().getName()));
+    }
 }
@@ -0,0 +1,315 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.blobstorage;
+
+import com.azure.core.util.BinaryData;
+import com.azure.storage.blob.BlobContainerAsyncClient;
+import com.azure.storage.blob.models.BlobErrorCode;
+import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.models.ListBlobsOptions;
+import org.apache.http.HttpStatus;
+import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
+import org.opengroup.osdu.azure.logging.DependencyLogger;
+import org.opengroup.osdu.azure.logging.DependencyPayload;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.slf4j.helpers.MessageFormatter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link BlobStore} over the async blob clients. Requests are sent as the returned
+ * publishers are subscribed to, so many blobs can be read at once without a blocked thread per blob. Errors are mapped
+ * to {@link AppException} and requests logged as dependencies like in {@link BlobStore}.
+ * Usage examples:
+ * <pre>
+ * {@code
+ *      @Autowired
+ *      private ReactiveBlobStore reactiveBlobStore;
+ *
+ *      Flux<BinaryData> readManyExample(List<String> filePaths)
+ *      {
+ *          return reactiveBlobStore.readFromStorageContainer("dataPartitionId", filePaths, "containerName", 64);
+ *      }
+ *
+ *      Mono<Void> writeExample()
+ *      {
+ *          return reactiveBlobStore.writeToStorageContainer("dataPartitionId", "filePath", BinaryData.fromString("content"), "containerName");
+ *      }
+ * }
+ * </pre>
+ */
+public class ReactiveBlobStore {
+    /**
+     * Default number of blobs read at once by {@link #readFromStorageContainer(String, List, String)}.
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+
+    private static final String LOGGER_NAME = ReactiveBlobStore.class.getName();
+    // Result code of requests cancelled by the subscriber, as "client closed request".
+    private static final int CANCELLED_STATUS_CODE = 499;
+
+    private final IBlobServiceClientFactory blobServiceClientFactory;
+    private final DependencyLogger dependencyLogger;
+
+    /**
+     * Constructor to create ReactiveBlobStore.
+     *
+     * @param factory   Factory that provides blob clients.
+     * @param depLogger dependency logger instance to use for dependency logging.
+     */
+    public ReactiveBlobStore(final IBlobServiceClientFactory factory, final DependencyLogger depLogger) {
+        this.blobServiceClientFactory = factory;
+        this.dependencyLogger = depLogger;
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be read.
+     * @param containerName   Name of the storage container
+     * @return the content of file with provided file path.
+     */
+    public Mono<BinaryData> readFromStorageContainer(
+            final String dataPartitionId,
+            final String filePath,
+            final String containerName) {
+        return withDependency("READ_FROM_STORAGE_CONTAINER", containerName, filePath, "Failed to read specified blob", null,
+                () -> getBlobContainerAsyncClient(dataPartitionId, containerName).getBlobAsyncClient(filePath).downloadContent());
+    }
+
+    /**
+     * Reads the files, {@link #DEFAULT_MAX_CONCURRENCY} at a time.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePaths       Paths of files to be read.
+     * @param containerName   Name of the storage container
+     * @return the content of the files, in the order of the paths.
+     */
+    public Flux<BinaryData> readFromStorageContainer(
+            final String dataPartitionId,
+            final List<String> filePaths,
+            final String containerName) {
+        return readFromStorageContainer(dataPartitionId, filePaths, containerName, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Reads the files, at most {@code maxConcurrency} at a time. The first failed read fails the flux.
+     *
+     * @param dataPartitionId Data partition id
+     * @param filePaths       Paths of files to be read.
+     * @param containerName   Name of the storage container
+     * @param maxConcurrency  Max number of files read at once
+     * @return the content of the files, in the order of the paths.
+     */
+    public Flux<BinaryData> readFromStorageContainer(
+            final String dataPartitionId,
+            final List<String> filePaths,
+            final String containerName,
+            final int maxConcurrency) {
+        return Flux.fromIterable(filePaths)
+                .flatMapSequential(filePath -> readFromStorageContainer(dataPartitionId, filePath, containerName), Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be written at.
+     * @param content         Content to be written in the file.
+     * @param containerName   Name of the storage container
+     * @return completes once the file is written.
+     */
+    public Mono<Void> writeToStorageContainer(
+            final String dataPartitionId,
+            final String filePath,
+            final BinaryData content,
+            final String containerName) {
+        return withDependency("WRITE_TO_STORAGE_CONTAINER", containerName, filePath, "Failed to upload file content.", HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                () -> getBlobContainerAsyncClient(dataPartitionId, containerName).getBlobAsyncClient(filePath).upload(content, true).then());
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param filePath        Path of file to be deleted.
+     * @param containerName   Name of the storage container
+     * @return true once the file is deleted.
+     */
+    public Mono<Boolean> deleteFromStorageContainer(
+            final String dataPartitionId,
+            final String filePath,
+            final String containerName) {
+        return withDependency("DELETE_FROM_STORAGE_CONTAINER", containerName, filePath, "Failed to delete blob", HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                () -> getBlobContainerAsyncClient(dataPartitionId, containerName).getBlobAsyncClient(filePath).delete().thenReturn(true));
+    }
+
+    /**
+     * Lists the blobs of the container whose names start with the prefix, page by page as the flux is consumed.
+     *
+     * @param dataPartitionId Data partition id
+     * @param containerName   Name of the storage container
+     * @param prefix          Prefix of the blob names, null for all blobs
+     * @return the blobs
+     */
+    public Flux<BlobItem> listBlobs(
+            final String dataPartitionId,
+            final String containerName,
+            final String prefix) {
+        return Flux.defer(() -> {
+            final long start = System.currentTimeMillis();
+            final AtomicLong count = new AtomicLong();
+            final String target = MessageFormatter.arrayFormat("{}/{}", new String[]{containerName, prefix}).getMessage();
+            return getBlobContainerAsyncClient(dataPartitionId, containerName)
+                    .listBlobs(new ListBlobsOptions().setPrefix(prefix))
+                    .doOnNext(blobItem -> count.incrementAndGet())
+                    .doOnComplete(() -> logDependency("LIST_BLOBS", String.format("%s blobs=%d", target, count.get()), target,
+                            System.currentTimeMillis() - start, HttpStatus.SC_OK))
+                    .doOnCancel(() -> logDependency("LIST_BLOBS", String.format("%s blobs=%d", target, count.get()), target,
+                            System.currentTimeMillis() - start, CANCELLED_STATUS_CODE))
+                    .onErrorMap(error -> toAppException("LIST_BLOBS", String.format("%s blobs=%d", target, count.get()), target,
+                            start, "Failed to list blobs", null, error));
+        });
+    }
+
+    /**
+     * Sends a request on subscription and logs it as a dependency once it completes, fails or is cancelled.
+     *
+     * @param name              Name of the dependency
+     * @param containerName     Name of the storage container
+     * @param filePath          Path of the blob
+     * @param errorMessage      Error message if the request fails
+     * @param failureStatusCode Status code if the request fails, null for the status code of the storage error
+     * @param request           Creates the request
+     * @param <T>               Type of the response
+     * @return the response
+     */
+    private <T> Mono<T> withDependency(
+            final String name,
+            final String containerName,
+            final String filePath,
+            final String errorMessage,
+            final Integer failureStatusCode,
+            final Supplier<Mono<T>> request) {
+        return Mono.defer(() -> {
+            final long start = System.currentTimeMillis();
+            final String dependencyData = MessageFormatter.arrayFormat("{}/{}", new String[]{containerName, filePath}).getMessage();
+            return Mono.defer(request)
+                    .doOnSuccess(response -> logDependency(name, dependencyData, dependencyData, System.currentTimeMillis() - start, HttpStatus.SC_OK))
+                    .doOnCancel(() -> logDependency(name, dependencyData, dependencyData, System.currentTimeMillis() - start, CANCELLED_STATUS_CODE))
+                    .onErrorMap(error -> toAppException(name, dependencyData, dependencyData, start, errorMessage, failureStatusCode, error));
+        });
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param containerName   Name of storage container
+     * @return blob container async client corresponding to the dataPartitionId.
+     */
+    private BlobContainerAsyncClient getBlobContainerAsyncClient(final String dataPartitionId, final String containerName) {
+        try {
+            return blobServiceClientFactory.getBlobServiceAsyncClient(dataPartitionId).getBlobContainerAsyncClient(containerName);
+        } catch (AppException ex) {
+            throw logAndCreateAppException(ex.getError().getCode(), "Error creating creating blob container client.", ex);
+        } catch (Exception ex) {
+            throw logAndCreateAppException(500, "Error creating creating blob container client.", ex);
+        }
+    }
+
+    /**
+     * Logs a failed request as a dependency and maps its error to an AppException. Errors other than storage errors
+     * and AppExceptions are logged with status 500 and wrapped.
+     *
+     * @param name              Name of the dependency
+     * @param data              Data of the dependency
+     * @param target            Target of the dependency
+     * @param start             Time the request was sent at, in milliseconds
+     * @param errorMessage      Error message
+     * @param failureStatusCode Status code of storage errors, null for the status code of the storage error
+     * @param error             Original error
+     * @return Instance of AppException
+     */
+    private AppException toAppException(
+            final String name,
+            final String data,
+            final String target,
+            final long start,
+            final String errorMessage,
+            final Integer failureStatusCode,
+            final Throwable error) {
+        final long timeTakenInMs = System.currentTimeMillis() - start;
+        if (error instanceof BlobStorageException) {
+            BlobStorageException ex = (BlobStorageException) error;
+            logDependency(name, data, target, timeTakenInMs, ex.getStatusCode());
+            return toAppException(failureStatusCode == null ? ex.getStatusCode() : failureStatusCode, errorMessage, ex);
+        }
+        if (error instanceof AppException) {
+            AppException ex = (AppException) error;
+            logDependency(name, data, target, timeTakenInMs, ex.getError().getCode());
+            return ex;
+        }
+        logDependency(name, data, target, timeTakenInMs, HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        return logAndCreateAppException(HttpStatus.SC_INTERNAL_SERVER_ERROR, errorMessage,
+                error instanceof Exception ? (Exception) error : new IllegalStateException(error));
+    }
+
+    /**
+     * Maps a storage error the way {@link BlobStore} does.
+     *
+     * @param status       Response status code, unless the blob is missing or the server busy
+     * @param errorMessage Error message
+     * @param ex           Original exception
+     * @return Instance of AppException
+     */
+    private AppException toAppException(final int status, final String errorMessage, final BlobStorageException ex) {
+        if (BlobErrorCode.BLOB_NOT_FOUND.equals(ex.getErrorCode())) {
+            return logAndCreateAppException(404, "Specified blob was not found", ex);
+        }
+        if (BlobErrorCode.SERVER_BUSY.equals(ex.getErrorCode())) {
+            return logAndCreateAppException(503, "The server is busy, retry this request later", ex);
+        }
+        return logAndCreateAppException(status, errorMessage, ex);
+    }
+
+    /**
+     * Logs and returns instance of AppException.
+     *
+     * @param status       Response status code
+     * @param errorMessage Error message
+     * @param ex           Original exception
+     * @return Instance of AppException
+     */
+    private AppException logAndCreateAppException(final int status, final String errorMessage, final Exception ex) {
+        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(MessageFormatter.format("{}", errorMessage).getMessage(), ex);
+        return new AppException(status, errorMessage, ex.getMessage(), ex);
+    }
+
+    /**
+     * Log dependency.
+     *
+     * @param name          the name of the command initiated with this dependency call
+     * @param data          the command initiated by this dependency call
+     * @param target        the target of this dependency call
+     * @param timeTakenInMs the request duration in milliseconds
+     * @param statusCode    the status code of the call
+     */
+    private void logDependency(final String name, final String data, final String target, final long timeTakenInMs, final int statusCode) {
+        DependencyPayload payload = new DependencyPayload(name, data, Duration.ofMillis(timeTakenInMs), String.valueOf(statusCode), statusCode == HttpStatus.SC_OK);
+        payload.setType("BlobStore");
+        payload.setTarget(target);
+        dependencyLogger.logDependencyWithPayload(payload);
+    }
+}
@@ -0,0 +1,160 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.CosmosBulkOperationResponse;
+import com.azure.cosmos.models.CosmosItemOperation;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Outcome of a bulk operation executed by {@link CosmosStoreBulkOperations}, per item.
+ * Operations still throttled after the last re-drive attempt are listed in {@link #getThrottled()},
+ * every other failure in {@link #getFailed()}.
+ */
+@Getter
+public class CosmosBulkResult {
+    /**
+     * the operations that completed successfully.
+     */
+    private final List<CosmosItemOperation> succeeded = new ArrayList<>();
+    /**
+     * the responses of the operations that failed with anything other than 429.
+     */
+    private final List<CosmosBulkOperationResponse<?>> failed = new ArrayList<>();
+    /**
+     * the operations that were throttled (429) and not yet re-driven successfully.
+     */
+    private final List<CosmosItemOperation> throttled = new ArrayList<>();
+    /**
+     * the request charge summed over all attempts.
+     */
+    private double requestCharge;
+    /**
+     * the number of re-drive attempts made for throttled operations.
+     */
+    private int redriveAttempts;
+    /**
+     * the longest retry-after hint returned with the throttled operations of the last attempt.
+     */
+    private Duration retryAfter = Duration.ZERO;
+
+    @Getter(AccessLevel.NONE)
+    private final SortedSet<Integer> failureStatusCodes = new TreeSet<>();
+
+    @Getter(AccessLevel.NONE)
+    private final boolean notFoundSucceeds;
+
+    /**
+     * Result in which operations on missing items count as failed.
+     */
+    public CosmosBulkResult() {
+        this(false);
+    }
+
+    /**
+     * @param notFoundSucceeds true if operations on missing items count as succeeded, e.g. for deletes
+     */
+    CosmosBulkResult(final boolean notFoundSucceeds) {
+        this.notFoundSucceeds = notFoundSucceeds;
+    }
+
+    /**
+     * @param response response of a completed operation
+     * @return true if the item was missing and that counts as succeeded
+     */
+    boolean isNotFoundSuccess(final CosmosBulkOperationResponse<?> response) {
+        return notFoundSucceeds && statusCodeOf(response) == HttpStatus.SC_NOT_FOUND;
+    }
+
+    /**
+     * @param response response of a completed operation, null if the SDK returned none
+     */
+    void add(final CosmosBulkOperationResponse<?> response) {
+        if (response == null) {
+            failureStatusCodes.add(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+        if (response.getResponse() != null) {
+            requestCharge += response.getResponse().getRequestCharge();
+        }
+        int statusCode = statusCodeOf(response);
+        if (response.getResponse() != null && response.getResponse().isSuccessStatusCode()
+                || notFoundSucceeds && statusCode == HttpStatus.SC_NOT_FOUND) {
+            succeeded.add(response.getOperation());
+        } else if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS) {
+            throttled.add(response.getOperation());
+            if (response.getResponse() != null && response.getResponse().getRetryAfterDuration() != null
+                    && response.getResponse().getRetryAfterDuration().compareTo(retryAfter) > 0) {
+                retryAfter = response.getResponse().getRetryAfterDuration();
+            }
+        } else {
+            failed.add(response);
+            failureStatusCodes.add(statusCode);
+        }
+    }
+
+    /**
+     * Clears the throttled operations ahead of a re-drive and returns them.
+     *
+     * @return the operations to re-drive
+     */
+    List<CosmosItemOperation> startRedrive() {
+        List<CosmosItemOperation> operations = new ArrayList<>(throttled);
+        throttled.clear();
+        retryAfter = Duration.ZERO;
+        redriveAttempts++;
+        return operations;
+    }
+
+    /**
+     * @return true if every operation succeeded
+     */
+    public boolean isSuccess() {
+        return throttled.isEmpty() && failureStatusCodes.isEmpty();
+    }
+
+    /**
+     * @return 200 if every operation succeeded, 429 if any operation is still throttled, else the highest failure status code
+     */
+    public int getStatusCode() {
+        if (!throttled.isEmpty()) {
+            return HttpStatus.SC_TOO_MANY_REQUESTS;
+        }
+        return failureStatusCodes.isEmpty() ? HttpStatus.SC_OK : failureStatusCodes.last();
+    }
+
+    /**
+     * @param response operation response
+     * @return status code of the response, taken from the exception when the SDK gave no item response
+     */
+    private static int statusCodeOf(final CosmosBulkOperationResponse<?> response) {
+        if (response.getResponse() != null) {
+            return response.getResponse().getStatusCode();
+        }
+        if (response.getException() instanceof CosmosException) {
+            return ((CosmosException) response.getException()).getStatusCode();
+        }
+        return HttpStatus.SC_INTERNAL_SERVER_ERROR;
+    }
+}
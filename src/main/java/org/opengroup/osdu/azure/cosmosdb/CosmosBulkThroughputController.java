@@ -0,0 +1,221 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosContainer;
+import com.azure.cosmos.ThroughputControlGroupConfig;
+import com.azure.cosmos.ThroughputControlGroupConfigBuilder;
+import com.azure.cosmos.models.CosmosBulkExecutionOptions;
+import com.microsoft.applicationinsights.telemetry.MetricTelemetry;
+import org.opengroup.osdu.azure.di.CosmosBulkExecutorConfiguration;
+import org.opengroup.osdu.azure.logging.ApplicationInsightsClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Caps the RU/s that bulk operations may consume per data partition and container at
+ * {@link CosmosBulkExecutorConfiguration#bulkThroughputControlMaxRUs()}, so bulk jobs leave room for interactive traffic.
+ * The cap is opt-in: it only applies when BULK_EXECUTOR_MAX_RUS is set, and a budget of 0 or less disables it.
+ * The cap is enforced by the SDK through a local throughput control group that bulk requests are assigned to;
+ * point reads and writes are not part of the group and are not limited. The group is local, so the budget holds per
+ * instance: N pods running bulk jobs against a container may consume up to N times the budget together.
+ * Consumed and remaining budget are tracked per one second window and published as the CosmosBulkConsumedRUs and
+ * CosmosBulkRemainingRUs metrics; the last window of a bulk operation is published by {@link #flush}.
+ */
+@Component
+@Lazy
+public class CosmosBulkThroughputController {
+
+    static final String THROUGHPUT_CONTROL_GROUP = "osdu-bulk";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CosmosBulkThroughputController.class.getName());
+    private static final long WINDOW_MS = 1000;
+
+    @Autowired
+    private CosmosBulkExecutorConfiguration bulkExecutorConfiguration;
+
+    private final Map<String, BudgetWindow> budgets = new ConcurrentHashMap<>();
+
+    /**
+     * Assigns bulk requests against the container to the bulk throughput control group.
+     *
+     * @param container                  Cosmos container the bulk operations run against
+     * @param cosmosBulkExecutionOptions bulk execution options to assign to the group
+     */
+    public void applyTo(final CosmosContainer container, final CosmosBulkExecutionOptions cosmosBulkExecutionOptions) {
+        applyTo(container::enableLocalThroughputControlGroup, cosmosBulkExecutionOptions);
+    }
+
+    /**
+     * Assigns bulk requests against the container to the bulk throughput control group.
+     *
+     * @param container                  Cosmos async container the bulk operations run against
+     * @param cosmosBulkExecutionOptions bulk execution options to assign to the group
+     */
+    public void applyTo(final CosmosAsyncContainer container, final CosmosBulkExecutionOptions cosmosBulkExecutionOptions) {
+        applyTo(container::enableLocalThroughputControlGroup, cosmosBulkExecutionOptions);
+    }
+
+    /**
+     * Records the request charge of completed bulk operations against the budget.
+     *
+     * @param dataPartitionId name of data partition.
+     * @param cosmosDBName    name of Cosmos db.
+     * @param collectionName  name of collection in Cosmos.
+     * @param requestCharge   request charge to record
+     */
+    public void recordCharge(final String dataPartitionId, final String cosmosDBName, final String collectionName, final double requestCharge) {
+        String key = getBudgetKey(dataPartitionId, cosmosDBName, collectionName);
+        budgets.computeIfAbsent(key, k -> new BudgetWindow()).record(key, requestCharge, getMaxRUs());
+    }
+
+    /**
+     * Publishes the metrics of the current window of the container and starts a new one, so the charge recorded
+     * since the last full window is not lost once a bulk operation completes.
+     *
+     * @param dataPartitionId name of data partition.
+     * @param cosmosDBName    name of Cosmos db.
+     * @param collectionName  name of collection in Cosmos.
+     */
+    public void flush(final String dataPartitionId, final String cosmosDBName, final String collectionName) {
+        String key = getBudgetKey(dataPartitionId, cosmosDBName, collectionName);
+        BudgetWindow window = budgets.get(key);
+        if (window != null) {
+            window.flush(key, getMaxRUs());
+        }
+    }
+
+    /**
+     * @param dataPartitionId name of data partition.
+     * @param cosmosDBName    name of Cosmos db.
+     * @param collectionName  name of collection in Cosmos.
+     * @return RUs consumed by bulk operations in the current one second window
+     */
+    public double getConsumedRUs(final String dataPartitionId, final String cosmosDBName, final String collectionName) {
+        BudgetWindow window = budgets.get(getBudgetKey(dataPartitionId, cosmosDBName, collectionName));
+        return window == null ? 0.0 : window.consumed();
+    }
+
+    /**
+     * @param dataPartitionId name of data partition.
+     * @param cosmosDBName    name of Cosmos db.
+     * @param collectionName  name of collection in Cosmos.
+     * @return RUs left for bulk operations in the current one second window
+     */
+    public double getRemainingRUs(final String dataPartitionId, final String cosmosDBName, final String collectionName) {
+        return Math.max(0.0, getMaxRUs() - getConsumedRUs(dataPartitionId, cosmosDBName, collectionName));
+    }
+
+    /**
+     * @param enabler                    enables a throughput control group on the target container
+     * @param cosmosBulkExecutionOptions bulk execution options to assign to the group
+     */
+    private void applyTo(final Consumer<ThroughputControlGroupConfig> enabler, final CosmosBulkExecutionOptions cosmosBulkExecutionOptions) {
+        int maxRUs = getMaxRUs();
+        if (maxRUs <= 0) {
+            return;
+        }
+        ThroughputControlGroupConfig groupConfig = new ThroughputControlGroupConfigBuilder()
+                .groupName(THROUGHPUT_CONTROL_GROUP)
+                .targetThroughput(maxRUs)
+                .build();
+        try {
+            // enabling a group that is already enabled with the same settings is a no-op in the SDK
+            enabler.accept(groupConfig);
+            cosmosBulkExecutionOptions.setThroughputControlGroupName(THROUGHPUT_CONTROL_GROUP);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Unable to enable bulk throughput control group, bulk operations will not be throttled client side", e);
+        }
+    }
+
+    /**
+     * @return bulk RU/s budget per container on this instance
+     */
+    private int getMaxRUs() {
+        return bulkExecutorConfiguration.bulkThroughputControlMaxRUs();
+    }
+
+    /**
+     * @param dataPartitionId name of data partition.
+     * @param cosmosDBName    name of Cosmos db.
+     * @param collectionName  name of collection in Cosmos.
+     * @return key of the budget
+     */
+    private static String getBudgetKey(final String dataPartitionId, final String cosmosDBName, final String collectionName) {
+        return String.format("%s:%s/%s", dataPartitionId, cosmosDBName, collectionName);
+    }
+
+    /**
+     * RUs consumed in a one second window. The metrics of a window are published when the next one starts or when
+     * the window is flushed.
+     */
+    private static final class BudgetWindow {
+        private long windowStart = System.currentTimeMillis();
+        private double consumed;
+
+        /**
+         * @param key           budget key used as metric dimension
+         * @param requestCharge request charge to record
+         * @param maxRUs        budget of the window
+         */
+        synchronized void record(final String key, final double requestCharge, final int maxRUs) {
+            if (System.currentTimeMillis() - windowStart >= WINDOW_MS) {
+                flush(key, maxRUs);
+            }
+            consumed += requestCharge;
+        }
+
+        /**
+         * Publishes the metrics of the window, unless nothing was consumed, and starts a new one.
+         *
+         * @param key    budget key used as metric dimension
+         * @param maxRUs budget of the window
+         */
+        synchronized void flush(final String key, final int maxRUs) {
+            if (consumed > 0.0) {
+                trackMetric("CosmosBulkConsumedRUs", key, consumed);
+                trackMetric("CosmosBulkRemainingRUs", key, Math.max(0.0, maxRUs - consumed));
+            }
+            windowStart = System.currentTimeMillis();
+            consumed = 0.0;
+        }
+
+        /**
+         * @return RUs consumed in the current window
+         */
+        synchronized double consumed() {
+            return System.currentTimeMillis() - windowStart >= WINDOW_MS ? 0.0 : consumed;
+        }
+
+        /**
+         * @param name  metric name
+         * @param key   budget key
+         * @param value metric value
+         */
+        private static void trackMetric(final String name, final String key, final double value) {
+            MetricTelemetry telemetry = new MetricTelemetry(name, value);
+            telemetry.getProperties().put("target", key);
+            ApplicationInsightsClient.getTelemetryClient().trackMetric(telemetry);
+        }
+    }
+}
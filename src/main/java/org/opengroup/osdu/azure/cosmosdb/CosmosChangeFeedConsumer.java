@@ -0,0 +1,414 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.ChangeFeedProcessor;
+import com.azure.cosmos.ChangeFeedProcessorBuilder;
+import com.azure.cosmos.models.ChangeFeedProcessorOptions;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.http.HttpStatus;
+import org.opengroup.osdu.azure.di.CosmosChangeFeedConfiguration;
+import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
+import org.opengroup.osdu.azure.logging.DependencyLogger;
+import org.opengroup.osdu.azure.logging.DependencyLoggingOptions;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.opengroup.osdu.azure.logging.DependencyType.COSMOS_STORE;
+
+/**
+ * Streams the changes of a Cosmos container to a handler through a change feed processor. Leases are kept in a lease
+ * container of the same database, one per partition of the feed container, so the partitions are spread over the
+ * instances running a processor of the same name and each change is handled by one instance. The changes of a partition
+ * are checkpointed once the handler returns; if it throws, they are handed to it again. Every batch is logged as a
+ * CHANGE_FEED_BATCH dependency, without request charge as the processor does not report the charge of its reads. The clients of a data partition with running processors are pinned in the client
+ * factory, and its processors are restarted on new clients when the factory rebuilds them, e.g. after a key rotation.
+ *
+ * <pre>
+ * {@code
+ *  changeFeedConsumer.start("opendes", "osdu-db", "StorageRecord", "leases", "indexer", RecordMetadataDoc.class, this::index);
+ * }
+ * </pre>
+ */
+@Component
+@Lazy
+public class CosmosChangeFeedConsumer {
+    private static final String LOGGER_NAME = CosmosChangeFeedConsumer.class.getName();
+    private static final String LEASE_PARTITION_KEY_PATH = "/id";
+
+    @Autowired
+    private ICosmosClientFactory cosmosClientFactory;
+    @Autowired
+    private DependencyLogger dependencyLogger;
+    @Autowired
+    private CosmosChangeFeedConfiguration changeFeedConfiguration;
+
+    private final Map<String, RunningProcessor> processors = new ConcurrentHashMap<>();
+
+    /**
+     * Restarts the processors of a data partition once its clients were evicted.
+     */
+    @PostConstruct
+    public void initialize() {
+        cosmosClientFactory.addEvictionListener(dataPartitionId -> CompletableFuture.runAsync(() -> restartProcessors(dataPartitionId)));
+    }
+
+    /**
+     * Starts a change feed processor, unless one of the same name already runs for the data partition.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection whose changes are consumed
+     * @param leaseCollection Collection holding the leases
+     * @param processorName   Name of the processor, instances running a processor of the same name share its leases
+     * @param handler         Handles a batch of changes
+     * @return the running processor
+     * @throws AppException with status 500 if the processor cannot be started
+     */
+    public ChangeFeedProcessor start(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String leaseCollection,
+            final String processorName,
+            final Consumer<List<JsonNode>> handler) {
+        String key = getProcessorKey(dataPartitionId, processorName);
+        RunningProcessor running = processors.get(key);
+        if (running != null) {
+            return running.processor;
+        }
+        // started outside the map, the start makes network calls
+        return publish(key, startProcessor(dataPartitionId, cosmosDBName, collection, leaseCollection, processorName, handler)).processor;
+    }
+
+    /**
+     * Starts a change feed processor handing the changes to the handler as items of the given type.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection whose changes are consumed
+     * @param leaseCollection Collection holding the leases
+     * @param processorName   Name of the processor, instances running a processor of the same name share its leases
+     * @param clazz           Class type of the items
+     * @param handler         Handles a batch of changed items
+     * @param <T>             Type
+     * @return the running processor
+     * @throws AppException with status 500 if the processor cannot be started
+     */
+    public <T> ChangeFeedProcessor start(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String leaseCollection,
+            final String processorName,
+            final Class<T> clazz,
+            final Consumer<List<T>> handler) {
+        return start(dataPartitionId, cosmosDBName, collection, leaseCollection, processorName, changes -> {
+            List<T> items = new ArrayList<>(changes.size());
+            for (JsonNode change : changes) {
+                items.add(CosmosItemMapper.get().convertValue(change, clazz));
+            }
+            handler.accept(items);
+        });
+    }
+
+    /**
+     * Stops a processor. Its leases are released and picked up by the other instances.
+     *
+     * @param dataPartitionId Data partition id
+     * @param processorName   Name of the processor
+     */
+    public void stop(final String dataPartitionId, final String processorName) {
+        RunningProcessor running = processors.remove(getProcessorKey(dataPartitionId, processorName));
+        if (running != null) {
+            stopProcessor(running);
+        }
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param processorName   Name of the processor
+     * @return number of changes not yet handled per lease, empty if the processor does not run here
+     */
+    public Map<String, Integer> getEstimatedLag(final String dataPartitionId, final String processorName) {
+        RunningProcessor running = processors.get(getProcessorKey(dataPartitionId, processorName));
+        if (running == null) {
+            return Collections.emptyMap();
+        }
+        return running.processor.getEstimatedLag().block();
+    }
+
+    /**
+     * Stops all processors.
+     */
+    @PreDestroy
+    public void stopAll() {
+        processors.keySet().forEach(key -> {
+            RunningProcessor running = processors.remove(key);
+            if (running != null) {
+                stopProcessor(running);
+            }
+        });
+    }
+
+    /**
+     * Stops the processors of a data partition and starts them again, so they run on its current clients.
+     * Processors stopped meanwhile are not restarted.
+     *
+     * @param dataPartitionId Data partition id
+     */
+    void restartProcessors(final String dataPartitionId) {
+        for (Map.Entry<String, RunningProcessor> entry : new ArrayList<>(processors.entrySet())) {
+            String key = entry.getKey();
+            RunningProcessor running = entry.getValue();
+            if (!running.dataPartitionId.equals(dataPartitionId) || !processors.remove(key, running)) {
+                continue;
+            }
+            stopProcessor(running);
+            try {
+                publish(key, running.restarter.get());
+            } catch (AppException e) {
+                // already logged by startProcessor
+                continue;
+            }
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).info("Restarted change feed processor {} on new clients", key);
+        }
+    }
+
+    /**
+     * Publishes a started processor, unless another one was published under the same key meanwhile,
+     * in which case the started processor is stopped again.
+     *
+     * @param key     key of the processor
+     * @param started the started processor
+     * @return the processor running under the key
+     */
+    private RunningProcessor publish(final String key, final RunningProcessor started) {
+        RunningProcessor running = processors.putIfAbsent(key, started);
+        if (running == null) {
+            return started;
+        }
+        stopProcessor(started);
+        return running;
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection whose changes are consumed
+     * @param leaseCollection Collection holding the leases
+     * @param processorName   Name of the processor
+     * @param handler         Handles a batch of changes
+     * @return the started processor
+     */
+    private RunningProcessor startProcessor(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String leaseCollection,
+            final String processorName,
+            final Consumer<List<JsonNode>> handler) {
+        Scheduler scheduler = changeFeedConfiguration.getMaxParallelism() > 0
+                ? Schedulers.newBoundedElastic(changeFeedConfiguration.getMaxParallelism(), Integer.MAX_VALUE, "cosmos-change-feed-" + processorName)
+                : null;
+        cosmosClientFactory.pinClients(dataPartitionId);
+        try {
+            if (changeFeedConfiguration.isCreateLeaseContainer()) {
+                cosmosClientFactory.getAsyncClient(dataPartitionId).getDatabase(cosmosDBName)
+                        .createContainerIfNotExists(leaseCollection, LEASE_PARTITION_KEY_PATH).block();
+            }
+            ChangeFeedProcessor processor = new ChangeFeedProcessorBuilder()
+                    .hostName(getHostName())
+                    .feedContainer(cosmosClientFactory.getAsyncContainer(dataPartitionId, cosmosDBName, collection))
+                    .leaseContainer(cosmosClientFactory.getAsyncContainer(dataPartitionId, cosmosDBName, leaseCollection))
+                    .handleChanges(changes -> handleChanges(dataPartitionId, cosmosDBName, collection, processorName, handler, changes))
+                    .options(newProcessorOptions(collection, processorName, scheduler))
+                    .buildChangeFeedProcessor();
+            processor.start().block();
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).info("Started change feed processor {} on {}:{}/{}",
+                    processorName, dataPartitionId, cosmosDBName, collection);
+            return new RunningProcessor(dataPartitionId, processor, scheduler,
+                    () -> startProcessor(dataPartitionId, cosmosDBName, collection, leaseCollection, processorName, handler));
+        } catch (RuntimeException e) {
+            // start failures may come wrapped by reactor rather than as CosmosException
+            cosmosClientFactory.unpinClients(dataPartitionId);
+            if (scheduler != null) {
+                scheduler.dispose();
+            }
+            String errorMessage = String.format("Unable to start change feed processor %s", processorName);
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+            throw new AppException(500, errorMessage, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops a processor and releases the pin on the clients of its data partition.
+     *
+     * @param running the processor
+     */
+    private void stopProcessor(final RunningProcessor running) {
+        try {
+            running.stop();
+        } finally {
+            cosmosClientFactory.unpinClients(running.dataPartitionId);
+        }
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection whose changes are consumed
+     * @param processorName   Name of the processor
+     * @param handler         Handles a batch of changes
+     * @param changes         the changes
+     */
+    void handleChanges(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String processorName,
+            final Consumer<List<JsonNode>> handler,
+            final List<JsonNode> changes) {
+        final long start = System.currentTimeMillis();
+        int statusCode = HttpStatus.SC_OK;
+        try {
+            handler.accept(changes);
+        } catch (RuntimeException e) {
+            statusCode = HttpStatus.SC_INTERNAL_SERVER_ERROR;
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(String.format(
+                    "Change feed processor %s failed to handle %d change(s), they are handed to it again", processorName, changes.size()), e);
+            // the processor does not checkpoint the batch when the handler throws
+            throw e;
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String dependencyTarget = String.format("%s:%s/%s", dataPartitionId, cosmosDBName, collection);
+            final String dependencyData = String.format("processor=%s items=%d", processorName, changes.size());
+            final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
+                    .type(COSMOS_STORE)
+                    .name("CHANGE_FEED_BATCH")
+                    .data(dependencyData)
+                    .target(dependencyTarget)
+                    .timeTakenInMs(timeTaken)
+                    .resultCode(statusCode)
+                    .success(statusCode == HttpStatus.SC_OK)
+                    .build();
+            dependencyLogger.logDependency(options);
+        }
+    }
+
+    /**
+     * @param collection    Collection whose changes are consumed
+     * @param processorName Name of the processor
+     * @param scheduler     scheduler the partitions are processed on, null for the SDK default
+     * @return processor options
+     */
+    ChangeFeedProcessorOptions newProcessorOptions(final String collection, final String processorName, final Scheduler scheduler) {
+        ChangeFeedProcessorOptions options = new ChangeFeedProcessorOptions()
+                // processors of several collections may share a lease container
+                .setLeasePrefix(String.format("%s.%s.", collection, processorName))
+                .setMaxItemCount(changeFeedConfiguration.getMaxItemCount())
+                .setFeedPollDelay(changeFeedConfiguration.getFeedPollDelay())
+                .setStartFromBeginning(changeFeedConfiguration.isStartFromBeginning())
+                .setMaxScaleCount(changeFeedConfiguration.getMaxLeasesPerHost());
+        if (scheduler != null) {
+            options.setScheduler(scheduler);
+        }
+        if (changeFeedConfiguration.getLeaseRenewInterval() != null) {
+            options.setLeaseRenewInterval(changeFeedConfiguration.getLeaseRenewInterval());
+        }
+        if (changeFeedConfiguration.getLeaseAcquireInterval() != null) {
+            options.setLeaseAcquireInterval(changeFeedConfiguration.getLeaseAcquireInterval());
+        }
+        if (changeFeedConfiguration.getLeaseExpirationInterval() != null) {
+            options.setLeaseExpirationInterval(changeFeedConfiguration.getLeaseExpirationInterval());
+        }
+        return options;
+    }
+
+    /**
+     * @return name under which this instance owns leases
+     */
+    private String getHostName() {
+        if (changeFeedConfiguration.getHostName() != null) {
+            return changeFeedConfiguration.getHostName();
+        }
+        String hostName = System.getenv("HOSTNAME");
+        return hostName != null ? hostName : UUID.randomUUID().toString();
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param processorName   Name of the processor
+     * @return key of the processor
+     */
+    private static String getProcessorKey(final String dataPartitionId, final String processorName) {
+        return dataPartitionId + ":" + processorName;
+    }
+
+    /**
+     * A started processor, the scheduler it runs on and how to start it again.
+     */
+    private static final class RunningProcessor {
+        private final String dataPartitionId;
+        private final ChangeFeedProcessor processor;
+        private final Scheduler scheduler;
+        private final Supplier<RunningProcessor> restarter;
+
+        /**
+         * @param dataPartitionId data partition id
+         * @param processor       the processor
+         * @param scheduler       its scheduler, null for the SDK default
+         * @param restarter       starts the processor again
+         */
+        RunningProcessor(final String dataPartitionId, final ChangeFeedProcessor processor, final Scheduler scheduler,
+                         final Supplier<RunningProcessor> restarter) {
+            this.dataPartitionId = dataPartitionId;
+            this.processor = processor;
+            this.scheduler = scheduler;
+            this.restarter = restarter;
+        }
+
+        /**
+         * Stops the processor and disposes its scheduler.
+         */
+        void stop() {
+            try {
+                processor.stop().block();
+            } catch (RuntimeException e) {
+                CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn("Unable to stop change feed processor", e);
+            } finally {
+                if (scheduler != null) {
+                    scheduler.dispose();
+                }
+            }
+        }
+    }
+}
@@ -1,18 +1,38 @@
 package org.opengroup.osdu.azure.cosmosdb;
 
+import com.azure.cosmos.ConnectionMode;
 import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
 import com.azure.cosmos.CosmosClient;
 import com.azure.cosmos.CosmosClientBuilder;
+import com.azure.cosmos.CosmosContainer;
+import com.azure.cosmos.GatewayConnectionConfig;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import jakarta.annotation.PostConstruct;
 
 import com.azure.cosmos.ThrottlingRetryOptions;
 import com.azure.identity.DefaultAzureCredential;
 import com.azure.security.keyvault.secrets.SecretClient;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import org.opengroup.osdu.azure.KeyVaultFacade;
 import org.opengroup.osdu.azure.cosmosdb.system.config.SystemCosmosConfig;
+import org.opengroup.osdu.azure.di.CosmosClientCacheConfiguration;
+import org.opengroup.osdu.azure.di.CosmosConnectionConfiguration;
 import org.opengroup.osdu.azure.di.MSIConfiguration;
 import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
 import org.opengroup.osdu.azure.di.CosmosRetryConfiguration;
@@ -25,6 +45,10 @@ import org.springframework.stereotype.Component;
 
 /**
  * Implementation for ICosmosClientFactory.
+ * Clients are cached per data partition. The cache can be bounded with {@link CosmosClientCacheConfiguration},
+ * in which case the clients of the least recently used or idle partitions are evicted and closed after a delay.
+ * Handles are resolved under a shared lock and evicted under an exclusive one, so a handle handed out is always
+ * tracked for eviction. Pinned partitions are only evicted by {@link #refreshClients(String)}.
  */
 @Component
 @Lazy
@@ -32,6 +56,7 @@ public class CosmosClientFactoryImpl implements ICosmosClientFactory {
     private static final String LOGGER_NAME = CosmosClientFactoryImpl.class.getName();
     private static final String SYSTEM_COSMOS_CACHE_KEY = "system_cosmos";
     private static final String DATA_PARTITION_ID = "dataPartitionId";
+    private static final long IDLE_SWEEP_INTERVAL_MS = 60_000;
 
     @Lazy
     @Autowired
@@ -45,6 +70,15 @@ public class CosmosClientFactoryImpl implements ICosmosClientFactory {
 
     private Map<String, CosmosClient> cosmosClientMap;
     private Map<String, CosmosAsyncClient> cosmosAsyncClientMap;
+    private Map<ContainerKey, CosmosContainer> cosmosContainerMap;
+    private Map<ContainerKey, CosmosAsyncContainer> cosmosAsyncContainerMap;
+    private Map<String, CosmosClientBuilder> cosmosClientBuilderMap;
+    private Map<String, ClientSettings> clientSettingsMap;
+    private Map<String, Long> lastAccessMap;
+    private Map<String, Integer> pinCounts;
+    private List<Consumer<String>> evictionListeners;
+    private final ReentrantReadWriteLock cacheLock = new ReentrantReadWriteLock();
+    private volatile long lastIdleSweep;
 
     @Autowired
     private CosmosRetryConfiguration cosmosRetryConfiguration;
@@ -55,6 +89,12 @@ public class CosmosClientFactoryImpl implements ICosmosClientFactory {
     @Autowired
     private DefaultAzureCredential defaultAzureCredential;
 
+    @Autowired
+    private CosmosConnectionConfiguration connectionConfiguration;
+
+    @Autowired
+    private CosmosClientCacheConfiguration clientCacheConfiguration;
+
     /**
      * Initializes the private variables as required.
      */
@@ -62,6 +102,14 @@ public class CosmosClientFactoryImpl implements ICosmosClientFactory {
     public void initialize() {
         cosmosClientMap = new ConcurrentHashMap<>();
         cosmosAsyncClientMap = new ConcurrentHashMap<>();
+        cosmosContainerMap = new ConcurrentHashMap<>();
+        cosmosAsyncContainerMap = new ConcurrentHashMap<>();
+        cosmosClientBuilderMap = new ConcurrentHashMap<>();
+        clientSettingsMap = new ConcurrentHashMap<>();
+        lastAccessMap = new ConcurrentHashMap<>();
+        pinCounts = new ConcurrentHashMap<>();
+        evictionListeners = new CopyOnWriteArrayList<>();
+        lastIdleSweep = System.currentTimeMillis();
     }
 
     /**
@@ -71,9 +119,9 @@ public class CosmosClientFactoryImpl implements ICosmosClientFactory {
     @Override
     public CosmosClient getClient(final String dataPartitionId) {
         Validators.checkNotNullAndNotEmpty(dataPartitionId, DATA_PARTITION_ID);
-        String cacheKey = String.format("%s-cosmosClient", dataPartitionId);
+        String cacheKey = getClientCacheKey(dataPartitionId);
 
-        return this.cosmosClientMap.computeIfAbsent(cacheKey, cosmosClient -> createCosmosClient(dataPartitionId));
+        return withAccess(dataPartitionId, () -> this.cosmosClientMap.computeIfAbsent(cacheKey, cosmosClient -> createCosmosClient(dataPartitionId)));
     }
 
     /**
@@ -83,9 +131,9 @@ public class CosmosClientFactoryImpl implements ICosmosClientFactory {
     @Override
     public CosmosAsyncClient getAsyncClient(final String dataPartitionId) {
         Validators.checkNotNullAndNotEmpty(dataPartitionId, DATA_PARTITION_ID);
-        String cacheKey = String.format("%s-cosmosAsyncClient", dataPartitionId);
+        String cacheKey = getAsyncClientCacheKey(dataPartitionId);
 
-        return this.cosmosAsyncClientMap.computeIfAbsent(cacheKey, cosmosClient -> createCosmosAsyncClient(dataPartitionId));
+        return withAccess(dataPartitionId, () -> this.cosmosAsyncClientMap.computeIfAbsent(cacheKey, cosmosClient -> createCosmosAsyncClient(dataPartitionId)));
     }
 
     /**
@@ -100,29 +148,129 @@ public class CosmosClientFactoryImpl implements ICosmosClientFactory {
     }
 
     /**
+     * Container handles are cached, so the database and container lookups happen once per container.
      *
      * @param dataPartitionId Data Partition Id
-     * @return Cosmos Client Instance
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @return Cosmos container handle
      */
-    private CosmosClient createCosmosClient(final String dataPartitionId) {
-        PartitionInfoAzure pi = this.partitionService.getPartition(dataPartitionId);
+    @Override
+    public CosmosContainer getContainer(final String dataPartitionId, final String cosmosDBName, final String collection) {
+        Validators.checkNotNullAndNotEmpty(dataPartitionId, DATA_PARTITION_ID);
+        return withAccess(dataPartitionId, () -> this.cosmosContainerMap.computeIfAbsent(new ContainerKey(dataPartitionId, cosmosDBName, collection),
+                key -> getClient(dataPartitionId).getDatabase(cosmosDBName).getContainer(collection)));
+    }
 
-        ThrottlingRetryOptions throttlingRetryOptions = cosmosRetryConfiguration.getThrottlingRetryOptions();
-        CosmosClient cosmosClient;
+    /**
+     * Async container handles are cached like the sync ones.
+     *
+     * @param dataPartitionId Data Partition Id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @return Cosmos async container handle
+     */
+    @Override
+    public CosmosAsyncContainer getAsyncContainer(final String dataPartitionId, final String cosmosDBName, final String collection) {
+        Validators.checkNotNullAndNotEmpty(dataPartitionId, DATA_PARTITION_ID);
+        return withAccess(dataPartitionId, () -> this.cosmosAsyncContainerMap.computeIfAbsent(new ContainerKey(dataPartitionId, cosmosDBName, collection),
+                key -> getAsyncClient(dataPartitionId).getDatabase(cosmosDBName).getContainer(collection)));
+    }
 
-        if (msiConfiguration.getIsEnabled()) {
-            cosmosClient = new CosmosClientBuilder()
-                    .endpoint(pi.getCosmosEndpoint())
-                    .credential(defaultAzureCredential)
-                    .throttlingRetryOptions(throttlingRetryOptions)
-                    .buildClient();
-        } else {
-            cosmosClient = new CosmosClientBuilder()
-                    .endpoint(pi.getCosmosEndpoint())
-                    .key(pi.getCosmosPrimaryKey())
-                    .throttlingRetryOptions(throttlingRetryOptions)
-                    .buildClient();
+    /**
+     * The system client is never evicted, so its container handles are cached for the lifetime of the factory.
+     *
+     * @param cosmosDBName Database name
+     * @param collection   Collection name
+     * @return Cosmos container handle for system resources
+     */
+    @Override
+    public CosmosContainer getSystemContainer(final String cosmosDBName, final String collection) {
+        return this.cosmosContainerMap.computeIfAbsent(new ContainerKey(SYSTEM_COSMOS_CACHE_KEY, cosmosDBName, collection),
+                key -> getSystemClient().getDatabase(cosmosDBName).getContainer(collection));
+    }
+
+    /**
+     * Rebuilds the clients of the data partition on next use if its Cosmos endpoint or primary key changed,
+     * e.g. after a key rotation. The previous clients are closed after the configured delay.
+     *
+     * @param dataPartitionId Data Partition Id
+     * @return true if the clients were evicted
+     */
+    @Override
+    public boolean refreshClients(final String dataPartitionId) {
+        Validators.checkNotNullAndNotEmpty(dataPartitionId, DATA_PARTITION_ID);
+        ClientSettings current = clientSettingsMap.get(dataPartitionId);
+        if (current == null) {
+            return false;
         }
+        if (current.equals(getClientSettings(this.partitionService.getPartition(dataPartitionId)))) {
+            return false;
+        }
+        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME)
+                .info("Cosmos settings of dataPartition {} changed, rebuilding its clients.", dataPartitionId);
+        evictClients(dataPartitionId);
+        return true;
+    }
+
+    /**
+     * @param dataPartitionId Data Partition Id
+     */
+    @Override
+    public void pinClients(final String dataPartitionId) {
+        Validators.checkNotNullAndNotEmpty(dataPartitionId, DATA_PARTITION_ID);
+        pinCounts.merge(dataPartitionId, 1, Integer::sum);
+    }
+
+    /**
+     * @param dataPartitionId Data Partition Id
+     */
+    @Override
+    public void unpinClients(final String dataPartitionId) {
+        Validators.checkNotNullAndNotEmpty(dataPartitionId, DATA_PARTITION_ID);
+        pinCounts.computeIfPresent(dataPartitionId, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * @param listener called with the data partition id
+     */
+    @Override
+    public void addEvictionListener(final Consumer<String> listener) {
+        evictionListeners.add(listener);
+    }
+
+    /**
+     * Evicts the clients of the unpinned data partitions that were not used within the configured idle timeout.
+     */
+    public void evictIdleClients() {
+        Duration idleTimeout = clientCacheConfiguration.getIdleTimeout();
+        if (idleTimeout == null) {
+            return;
+        }
+        List<String> idlePartitions = new ArrayList<>();
+        cacheLock.writeLock().lock();
+        try {
+            long now = System.currentTimeMillis();
+            lastIdleSweep = now;
+            lastAccessMap.forEach((dataPartitionId, lastAccess) -> {
+                if (now - lastAccess >= idleTimeout.toMillis() && !pinCounts.containsKey(dataPartitionId)) {
+                    idlePartitions.add(dataPartitionId);
+                }
+            });
+            idlePartitions.forEach(this::removeClients);
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+        idlePartitions.forEach(this::notifyEvicted);
+    }
+
+    /**
+     *
+     * @param dataPartitionId Data Partition Id
+     * @return Cosmos Client Instance
+     */
+    private CosmosClient createCosmosClient(final String dataPartitionId) {
+        CosmosClient cosmosClient = getCosmosClientBuilder(dataPartitionId).buildClient();
 
         CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME)
                 .debug("Created CosmosClient for dataPartition {}.", dataPartitionId);
@@ -130,53 +278,66 @@ public class CosmosClientFactoryImpl implements ICosmosClientFactory {
     }
 
     /**
+     * With the opt-in transport sharing between the sync and async clients, the async client is the one the sync client
+     * of the data partition runs on, so both use the same connections and threads.
      *
      * @param dataPartitionId Data Partition Id
      * @return Cosmos Async Client Instance
      */
     private CosmosAsyncClient createCosmosAsyncClient(final String dataPartitionId) {
-        PartitionInfoAzure pi = this.partitionService.getPartition(dataPartitionId);
-
-        ThrottlingRetryOptions throttlingRetryOptions = cosmosRetryConfiguration.getThrottlingRetryOptions();
-        CosmosAsyncClient cosmosAsyncClient;
-
-        if (msiConfiguration.getIsEnabled()) {
-            cosmosAsyncClient = new CosmosClientBuilder()
-                    .endpoint(pi.getCosmosEndpoint())
-                    .credential(defaultAzureCredential)
-                    .throttlingRetryOptions(throttlingRetryOptions)
-                    .buildAsyncClient();
-        } else {
-            cosmosAsyncClient = new CosmosClientBuilder()
-                    .endpoint(pi.getCosmosEndpoint())
-                    .key(pi.getCosmosPrimaryKey())
-                    .throttlingRetryOptions(throttlingRetryOptions)
-                    .buildAsyncClient();
+        if (connectionConfiguration.isTransportSharedBetweenSyncAndAsyncClients()) {
+            CosmosAsyncClient sharedClient = getWrappedAsyncClient(
+                    this.cosmosClientMap.computeIfAbsent(getClientCacheKey(dataPartitionId), cosmosClient -> createCosmosClient(dataPartitionId)));
+            if (sharedClient != null) {
+                CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME)
+                        .debug("Using the transport of the CosmosClient for the CosmosAsyncClient of dataPartition {}.", dataPartitionId);
+                return sharedClient;
+            }
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME)
+                    .warn("Unable to share the transport of the CosmosClient of dataPartition {}, building a separate CosmosAsyncClient.", dataPartitionId);
         }
+        CosmosAsyncClient cosmosAsyncClient = getCosmosClientBuilder(dataPartitionId).buildAsyncClient();
 
         CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME)
                 .debug("Created CosmosAsyncClient for dataPartition {}.", dataPartitionId);
         return cosmosAsyncClient;
     }
 
+    /**
+     * The SDK does not expose the async client a sync client is built on, so it is read reflectively. This depends on
+     * SDK internals and is only used when transport sharing is opted in.
+     *
+     * @param cosmosClient sync client
+     * @return the async client the sync client runs on, null if it cannot be accessed
+     */
+    private static CosmosAsyncClient getWrappedAsyncClient(final CosmosClient cosmosClient) {
+        if (AsyncClientAccessor.METHOD == null) {
+            return null;
+        }
+        try {
+            return (CosmosAsyncClient) AsyncClientAccessor.METHOD.invoke(cosmosClient);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME)
+                    .warn("Unable to access the async client of a CosmosClient, building a separate one", e);
+            return null;
+        }
+    }
+
     /**
      * Method to create the cosmos client for system resources.
      * @return cosmos client.
      */
     private CosmosClient createSystemCosmosClient() {
 
-        CosmosClient cosmosClient;
+        CosmosClientBuilder builder = new CosmosClientBuilder()
+                .endpoint(getSecret(systemCosmosConfig.getCosmosDBAccountKeyName()));
         if (msiConfiguration.getIsEnabled()) {
-            cosmosClient = new CosmosClientBuilder()
-                    .endpoint(getSecret(systemCosmosConfig.getCosmosDBAccountKeyName()))
-                    .credential(defaultAzureCredential)
-                    .buildClient();
+            builder.credential(defaultAzureCredential);
         } else {
-            cosmosClient = new CosmosClientBuilder()
-                    .endpoint(getSecret(systemCosmosConfig.getCosmosDBAccountKeyName()))
-                    .key(getSecret(systemCosmosConfig.getCosmosPrimaryKeyName()))
-                    .buildClient();
+            builder.key(getSecret(systemCosmosConfig.getCosmosPrimaryKeyName()));
         }
+        applyConnectionConfiguration(builder, null);
+        CosmosClient cosmosClient = builder.buildClient();
 
         CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME)
                 .debug("Created CosmosClient for system resources");
@@ -184,6 +345,212 @@ public class CosmosClientFactoryImpl implements ICosmosClientFactory {
         return cosmosClient;
     }
 
+    /**
+     * The sync and async clients of a data partition are built from the same builder, so the partition is
+     * looked up once. With connection sharing across clients enabled, the clients of all partitions share the transport,
+     * i.e. the direct mode connections and their event loop threads and the gateway http client.
+     *
+     * @param dataPartitionId Data Partition Id
+     * @return builder for the clients of the data partition
+     */
+    CosmosClientBuilder getCosmosClientBuilder(final String dataPartitionId) {
+        return this.cosmosClientBuilderMap.computeIfAbsent(dataPartitionId, key -> newCosmosClientBuilder(dataPartitionId));
+    }
+
+    /**
+     * @param dataPartitionId Data Partition Id
+     * @return builder for the clients of the data partition
+     */
+    private CosmosClientBuilder newCosmosClientBuilder(final String dataPartitionId) {
+        PartitionInfoAzure pi = this.partitionService.getPartition(dataPartitionId);
+        ClientSettings settings = getClientSettings(pi);
+        clientSettingsMap.put(dataPartitionId, settings);
+
+        ThrottlingRetryOptions throttlingRetryOptions = cosmosRetryConfiguration.getThrottlingRetryOptions();
+        CosmosClientBuilder builder = new CosmosClientBuilder()
+                .endpoint(settings.endpoint)
+                .throttlingRetryOptions(throttlingRetryOptions);
+
+        if (msiConfiguration.getIsEnabled()) {
+            builder.credential(defaultAzureCredential);
+        } else {
+            builder.key(settings.primaryKey);
+        }
+        applyConnectionConfiguration(builder, dataPartitionId);
+        return builder;
+    }
+
+    /**
+     * @param builder         Cosmos client builder
+     * @param dataPartitionId Data Partition Id, null for the system client
+     */
+    private void applyConnectionConfiguration(final CosmosClientBuilder builder, final String dataPartitionId) {
+        GatewayConnectionConfig gatewayConnectionConfig = connectionConfiguration.getGatewayConnectionConfig(dataPartitionId);
+        if (connectionConfiguration.getMode(dataPartitionId) == ConnectionMode.GATEWAY) {
+            builder.gatewayMode(gatewayConnectionConfig);
+        } else {
+            // direct mode still reaches the gateway for metadata requests
+            builder.directMode(connectionConfiguration.getDirectConnectionConfig(dataPartitionId), gatewayConnectionConfig);
+        }
+        builder.connectionSharingAcrossClientsEnabled(connectionConfiguration.isConnectionSharingAcrossClientsEnabled());
+        List<String> preferredRegions = connectionConfiguration.getPreferredRegions(dataPartitionId);
+        if (preferredRegions != null && !preferredRegions.isEmpty()) {
+            builder.preferredRegions(preferredRegions);
+        }
+    }
+
+    /**
+     * Resolves a handle of the data partition and records its use, evicting idle and least recently used partitions
+     * as configured beforehand. The handle is resolved under the shared lock, so it cannot be evicted half way.
+     *
+     * @param dataPartitionId Data Partition Id
+     * @param handle          resolves the handle from the cache
+     * @param <T>             Type of the handle
+     * @return the handle
+     */
+    private <T> T withAccess(final String dataPartitionId, final Supplier<T> handle) {
+        // a container is resolved through the client while the lock is held, which cannot be upgraded to evict
+        if (cacheLock.getReadHoldCount() == 0) {
+            evictForAccess(dataPartitionId);
+        }
+        cacheLock.readLock().lock();
+        try {
+            lastAccessMap.put(dataPartitionId, System.currentTimeMillis());
+            return handle.get();
+        } finally {
+            cacheLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Evicts idle partitions once per sweep interval, and the least recently used unpinned partitions if the data
+     * partition is new and the cache is full.
+     *
+     * @param dataPartitionId Data Partition Id
+     */
+    private void evictForAccess(final String dataPartitionId) {
+        Duration idleTimeout = clientCacheConfiguration.getIdleTimeout();
+        if (idleTimeout != null && System.currentTimeMillis() - lastIdleSweep >= Math.min(idleTimeout.toMillis(), IDLE_SWEEP_INTERVAL_MS)) {
+            evictIdleClients();
+        }
+        int maxPartitions = clientCacheConfiguration.getMaxPartitions();
+        if (maxPartitions <= 0 || lastAccessMap.containsKey(dataPartitionId) || lastAccessMap.size() < maxPartitions) {
+            return;
+        }
+        List<String> evicted = new ArrayList<>();
+        cacheLock.writeLock().lock();
+        try {
+            while (lastAccessMap.size() - (lastAccessMap.containsKey(dataPartitionId) ? 1 : 0) >= maxPartitions) {
+                String leastRecentlyUsed = lastAccessMap.entrySet().stream()
+                        .filter(entry -> !entry.getKey().equals(dataPartitionId) && !pinCounts.containsKey(entry.getKey()))
+                        .min(Comparator.comparingLong(Map.Entry::getValue))
+                        .map(Map.Entry::getKey)
+                        .orElse(null);
+                if (leastRecentlyUsed == null) {
+                    break;
+                }
+                removeClients(leastRecentlyUsed);
+                evicted.add(leastRecentlyUsed);
+            }
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+        evicted.forEach(this::notifyEvicted);
+    }
+
+    /**
+     * Evicts the clients of the data partition, pinned or not.
+     *
+     * @param dataPartitionId Data Partition Id
+     */
+    private void evictClients(final String dataPartitionId) {
+        cacheLock.writeLock().lock();
+        try {
+            removeClients(dataPartitionId);
+        } finally {
+            cacheLock.writeLock().unlock();
+        }
+        notifyEvicted(dataPartitionId);
+    }
+
+    /**
+     * Removes the clients of the data partition from the cache and closes them once requests still running on them had time to complete.
+     * Must be called with the exclusive lock held.
+     *
+     * @param dataPartitionId Data Partition Id
+     */
+    private void removeClients(final String dataPartitionId) {
+        lastAccessMap.remove(dataPartitionId);
+        clientSettingsMap.remove(dataPartitionId);
+        cosmosClientBuilderMap.remove(dataPartitionId);
+        cosmosContainerMap.keySet().removeIf(key -> key.dataPartitionId.equals(dataPartitionId));
+        cosmosAsyncContainerMap.keySet().removeIf(key -> key.dataPartitionId.equals(dataPartitionId));
+        CosmosClient cosmosClient = cosmosClientMap.remove(getClientCacheKey(dataPartitionId));
+        CosmosAsyncClient cosmosAsyncClient = cosmosAsyncClientMap.remove(getAsyncClientCacheKey(dataPartitionId));
+        closeLater(cosmosClient);
+        // an async client sharing the transport of the sync client is closed with it
+        if (cosmosClient == null || !connectionConfiguration.isTransportSharedBetweenSyncAndAsyncClients()
+                || cosmosAsyncClient != getWrappedAsyncClient(cosmosClient)) {
+            closeLater(cosmosAsyncClient);
+        }
+        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME)
+                .info("Evicted Cosmos clients of dataPartition {}.", dataPartitionId);
+    }
+
+    /**
+     * @param dataPartitionId Data Partition Id whose clients were evicted
+     */
+    private void notifyEvicted(final String dataPartitionId) {
+        for (Consumer<String> listener : evictionListeners) {
+            try {
+                listener.accept(dataPartitionId);
+            } catch (RuntimeException e) {
+                CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn("Cosmos client eviction listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * @param client client to close, may be null
+     */
+    private void closeLater(final AutoCloseable client) {
+        if (client == null) {
+            return;
+        }
+        long delay = clientCacheConfiguration.getCloseDelay() == null ? 0 : clientCacheConfiguration.getCloseDelay().toMillis();
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+            try {
+                client.close();
+            } catch (Exception e) {
+                CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn("Unable to close evicted Cosmos client", e);
+            }
+        });
+    }
+
+    /**
+     * @param pi partition info
+     * @return the settings the clients of the partition are built from
+     */
+    private ClientSettings getClientSettings(final PartitionInfoAzure pi) {
+        return new ClientSettings(pi.getCosmosEndpoint(), msiConfiguration.getIsEnabled() ? null : pi.getCosmosPrimaryKey());
+    }
+
+    /**
+     * @param dataPartitionId Data Partition Id
+     * @return cache key of the sync client
+     */
+    private static String getClientCacheKey(final String dataPartitionId) {
+        return String.format("%s-cosmosClient", dataPartitionId);
+    }
+
+    /**
+     * @param dataPartitionId Data Partition Id
+     * @return cache key of the async client
+     */
+    private static String getAsyncClientCacheKey(final String dataPartitionId) {
+        return String.format("%s-cosmosAsyncClient", dataPartitionId);
+    }
+
     /**
      * @param keyName Name of the key to be read from key vault.
      * @return secret value
@@ -191,4 +558,51 @@ public class CosmosClientFactoryImpl implements ICosmosClientFactory {
     private String getSecret(final String keyName) {
         return KeyVaultFacade.getSecretWithValidation(secretClient, keyName);
     }
+
+    /**
+     * Accessor of the async client wrapped by a sync client, looked up on first use only.
+     */
+    private static final class AsyncClientAccessor {
+        private static final Method METHOD = find();
+
+        /**
+         * This class only holds the accessor - no need for a constructor.
+         */
+        private AsyncClientAccessor() {
+        }
+
+        /**
+         * @return accessor of the async client wrapped by a sync client, null if the SDK does not provide one
+         */
+        private static Method find() {
+            try {
+                Method accessor = CosmosClient.class.getDeclaredMethod("asyncClient");
+                accessor.setAccessible(true);
+                return accessor;
+            } catch (NoSuchMethodException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Key of a cached container handle.
+     */
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static final class ContainerKey {
+        private final String dataPartitionId;
+        private final String cosmosDBName;
+        private final String collection;
+    }
+
+    /**
+     * Endpoint and key the clients of a partition were built from, the key is null when managed identity is used.
+     */
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static final class ClientSettings {
+        private final String endpoint;
+        private final String primaryKey;
+    }
 }
@@ -0,0 +1,73 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import org.opengroup.osdu.azure.di.CosmosPrewarmConfiguration;
+import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens connections and fills the address and metadata caches of the containers listed in
+ * {@link CosmosPrewarmConfiguration} once the application has started, so the first requests after
+ * a pod starts do not pay for them. The async handle of each container is cached as well. The application
+ * reports ready only after prewarming is done.
+ * A container that cannot be prewarmed is logged and skipped.
+ */
+@Component
+public class CosmosContainerPrewarmer {
+    private static final String LOGGER_NAME = CosmosContainerPrewarmer.class.getName();
+
+    @Autowired
+    private CosmosPrewarmConfiguration prewarmConfiguration;
+
+    @Lazy
+    @Autowired
+    private ICosmosClientFactory cosmosClientFactory;
+
+    /**
+     * Prewarms the configured containers.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        for (CosmosPrewarmConfiguration.Container container : prewarmConfiguration.getContainers()) {
+            prewarm(container.getDataPartitionId(), container.getDatabase(), container.getCollection());
+        }
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     */
+    @SuppressWarnings("deprecation")
+    private void prewarm(final String dataPartitionId, final String cosmosDBName, final String collection) {
+        final long start = System.currentTimeMillis();
+        try {
+            // the builder level proactive init would need preferred regions, which are not configured for every deployment
+            cosmosClientFactory.getContainer(dataPartitionId, cosmosDBName, collection).openConnectionsAndInitCaches();
+            // the async client opens its connections on first use, unless it shares the transport of the sync one
+            cosmosClientFactory.getAsyncContainer(dataPartitionId, cosmosDBName, collection);
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).info("Prewarmed container {}:{}/{} in {} ms.",
+                    dataPartitionId, cosmosDBName, collection, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(String.format("Unable to prewarm container %s:%s/%s",
+                    dataPartitionId, cosmosDBName, collection), e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * Converts items read as JSON into the requested class. Unknown properties, e.g. the system properties of
+ * an item, are ignored like the default item serializer of the SDK does.
+ */
+final class CosmosItemMapper {
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .findAndAddModules()
+            .build();
+
+    /**
+     * This class is all static methods - no need for a constructor to be public.
+     */
+    private CosmosItemMapper() {
+    }
+
+    /**
+     * @return the mapper shared by the classes of this package
+     */
+    static ObjectMapper get() {
+        return MAPPER;
+    }
+}
@@ -0,0 +1,35 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import org.apache.http.HttpStatus;
+import org.opengroup.osdu.core.common.model.http.AppException;
+
+/**
+ * Thrown by {@link CosmosStore} when a conditional write is rejected with 412 because the item no longer
+ * matches the given ETag or filter predicate, i.e. it was changed concurrently. Callers usually re-read the
+ * item and retry.
+ */
+public class CosmosPreconditionFailedException extends AppException {
+    private static final long serialVersionUID = -2747417623474235462L;
+
+    /**
+     * @param message Error message
+     * @param e       Original exception
+     */
+    public CosmosPreconditionFailedException(final String message, final Exception e) {
+        super(HttpStatus.SC_PRECONDITION_FAILED, "Precondition failed", message, e);
+    }
+}
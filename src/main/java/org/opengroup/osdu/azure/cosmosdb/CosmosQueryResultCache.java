@@ -0,0 +1,305 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.CosmosContainer;
+import com.azure.cosmos.models.CosmosChangeFeedRequestOptions;
+import com.azure.cosmos.models.FeedRange;
+import com.azure.cosmos.models.FeedResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import org.opengroup.osdu.azure.di.CosmosQueryCacheConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caches query results of the collections listed in {@link CosmosQueryCacheConfiguration}, per container and bounded
+ * by a time to live and a max number of entries. Every instance polls the change feed of the containers it caches and
+ * drops all results of a container once a change shows up, so a result is at most one poll interval stale. The pull
+ * model is used rather than a change feed processor: a processor spreads leases over the instances, which would leave
+ * the caches of all but one instance stale. Results of a container are not cached while its change feed cannot be read.
+ * The change feed is read in latest version mode, which does not report deletes: writes and deletes through
+ * {@link CosmosStore} drop the results of the container on the instance that made them, while deletes made elsewhere,
+ * including by a time to live on the items, show up only once the cached results expire.
+ * The all versions and deletes mode would report them, but needs continuous backups on the account.
+ */
+@Component
+@Lazy
+public class CosmosQueryResultCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CosmosQueryResultCache.class.getName());
+
+    @Autowired
+    private CosmosQueryCacheConfiguration queryCacheConfiguration;
+
+    private final Map<String, ContainerCache> caches = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService poller;
+
+    /**
+     * @param collection Collection name
+     * @return true if query results of the collection are cached
+     */
+    public boolean isEnabled(final String collection) {
+        return queryCacheConfiguration.isEnabled(collection);
+    }
+
+    /**
+     * Returns the cached result of the query, or runs it and caches its result. Results are cached as JSON and every
+     * hit gets items of its own, so callers may mutate them. A result that cannot be converted to JSON is not cached.
+     *
+     * @param containerKey key of the container, e.g. {@code <data-partition-id>:<database>/<collection>}
+     * @param container    resolves the Cosmos container whose change feed is polled to invalidate its results; called
+     *                     on every poll, so the poller follows clients rebuilt by the client factory
+     * @param queryKey     key of the query, including its parameters and result type
+     * @param clazz        Class type of the items
+     * @param loader       runs the query
+     * @param <T>          Type
+     * @return List<T> List of items found
+     */
+    public <T> List<T> getOrLoad(
+            final String containerKey,
+            final Supplier<CosmosContainer> container,
+            final String queryKey,
+            final Class<T> clazz,
+            final Supplier<List<T>> loader) {
+        ContainerCache cache = caches.get(containerKey);
+        if (cache == null) {
+            ContainerCache created = new ContainerCache(container);
+            cache = caches.putIfAbsent(containerKey, created);
+            if (cache == null) {
+                cache = created;
+                startTracking(containerKey, created);
+            }
+        }
+        List<JsonNode> cached = cache.get(queryKey);
+        if (cached != null) {
+            LOGGER.debug("Serving cached result of query on {}", containerKey);
+            List<T> items = new ArrayList<>(cached.size());
+            for (JsonNode node : cached) {
+                items.add(CosmosItemMapper.get().convertValue(node, clazz));
+            }
+            return items;
+        }
+        long generation = cache.generation();
+        List<T> results = loader.get();
+        List<JsonNode> nodes = new ArrayList<>(results.size());
+        try {
+            for (T item : results) {
+                nodes.add(CosmosItemMapper.get().valueToTree(item));
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn(String.format("Unable to cache result of query on %s", containerKey), e);
+            return results;
+        }
+        cache.put(queryKey, nodes, generation,
+                System.currentTimeMillis() + queryCacheConfiguration.getTtl().toMillis(), queryCacheConfiguration.getMaxEntries());
+        return results;
+    }
+
+    /**
+     * Drops all cached results of a container.
+     *
+     * @param containerKey key of the container
+     */
+    public void invalidate(final String containerKey) {
+        ContainerCache cache = caches.get(containerKey);
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    /**
+     * Polls the change feed of every cached container once.
+     */
+    void pollChangeFeeds() {
+        caches.forEach((key, cache) -> cache.poll(key));
+    }
+
+    /**
+     * Stops polling.
+     */
+    @PreDestroy
+    public void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    /**
+     * Takes the change feed position of a newly published container cache and starts the poller. Runs outside the map,
+     * the cache serves and keeps no results until its position is taken.
+     *
+     * @param containerKey key of the container
+     * @param cache        cache of the container
+     */
+    private void startTracking(final String containerKey, final ContainerCache cache) {
+        cache.poll(containerKey);
+        startPoller();
+    }
+
+    /**
+     * Starts the poller on first use.
+     */
+    private synchronized void startPoller() {
+        if (poller != null) {
+            return;
+        }
+        long interval = queryCacheConfiguration.getChangeFeedPollInterval().toMillis();
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cosmos-query-cache-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollChangeFeeds, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cached results of one container and the change feed position they are valid for.
+     */
+    private static final class ContainerCache {
+        private final Supplier<CosmosContainer> container;
+        private final LinkedHashMap<String, CachedResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long generation;
+        private String continuation;
+        private boolean tracking;
+
+        /**
+         * @param container resolves the Cosmos container
+         */
+        ContainerCache(final Supplier<CosmosContainer> container) {
+            this.container = container;
+        }
+
+        /**
+         * @param queryKey key of the query
+         * @return cached result, null if absent, expired or the change feed is not tracked
+         */
+        synchronized List<JsonNode> get(final String queryKey) {
+            CachedResult cached = entries.get(queryKey);
+            if (cached == null || !tracking) {
+                return null;
+            }
+            if (cached.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(queryKey);
+                return null;
+            }
+            return cached.items;
+        }
+
+        /**
+         * @return generation to pass to {@link #put} for a result loaded from now on
+         */
+        synchronized long generation() {
+            return generation;
+        }
+
+        /**
+         * Caches a result unless the container changed while it was loaded.
+         *
+         * @param queryKey   key of the query
+         * @param items      result as JSON
+         * @param generation generation taken before the result was loaded
+         * @param expiresAt  time in ms the result expires
+         * @param maxEntries max cached results
+         */
+        synchronized void put(final String queryKey, final List<JsonNode> items, final long generation, final long expiresAt, final int maxEntries) {
+            if (!tracking || generation != this.generation) {
+                return;
+            }
+            entries.put(queryKey, new CachedResult(items, expiresAt));
+            while (entries.size() > maxEntries) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+
+        /**
+         * Drops all cached results.
+         */
+        synchronized void invalidate() {
+            generation++;
+            entries.clear();
+        }
+
+        /**
+         * Reads the change feed from the last position, dropping all results if anything changed.
+         *
+         * @param containerKey key of the container, for logging
+         */
+        void poll(final String containerKey) {
+            String position;
+            synchronized (this) {
+                position = continuation;
+            }
+            boolean changed = false;
+            try {
+                CosmosChangeFeedRequestOptions options = position == null
+                        ? CosmosChangeFeedRequestOptions.createForProcessingFromNow(FeedRange.forFullRange())
+                        : CosmosChangeFeedRequestOptions.createForProcessingFromContinuation(position);
+                for (FeedResponse<JsonNode> page : container.get().queryChangeFeed(options, JsonNode.class).iterableByPage()) {
+                    changed |= !page.getResults().isEmpty();
+                    if (page.getContinuationToken() != null) {
+                        position = page.getContinuationToken();
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn(String.format("Unable to read change feed of %s, its query results are not cached", containerKey), e);
+                // all results are dropped, so the feed can be picked up again from now
+                synchronized (this) {
+                    tracking = false;
+                    continuation = null;
+                    invalidate();
+                }
+                return;
+            }
+            synchronized (this) {
+                if (changed || !tracking) {
+                    invalidate();
+                }
+                continuation = position;
+                tracking = position != null;
+            }
+        }
+    }
+
+    /**
+     * A cached result and the time it expires.
+     */
+    private static final class CachedResult {
+        private final List<JsonNode> items;
+        private final long expiresAt;
+
+        /**
+         * @param items     result as JSON
+         * @param expiresAt time in ms the result expires
+         */
+        CachedResult(final List<JsonNode> items, final long expiresAt) {
+            this.items = items;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
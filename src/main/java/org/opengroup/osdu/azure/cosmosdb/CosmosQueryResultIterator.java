@@ -0,0 +1,108 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.FeedResponse;
+import org.apache.http.HttpStatus;
+import org.opengroup.osdu.core.common.model.http.AppException;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over the items of a Cosmos query that pulls result pages lazily.
+ * Only the current page is held in memory; the next page is requested from Cosmos
+ * when the current one is exhausted. Request charge, page count and item count are
+ * accumulated so that they can be reported once the iteration is finished.
+ *
+ * @param <T> Type of the items
+ */
+final class CosmosQueryResultIterator<T> implements Iterator<T> {
+
+    private final Iterator<FeedResponse<T>> pages;
+    private Iterator<T> currentPage = Collections.emptyIterator();
+    private double requestCharge;
+    private int pageCount;
+    private long itemCount;
+    private int statusCode = HttpStatus.SC_OK;
+
+    /**
+     * @param pageIterator iterator over the query result pages
+     */
+    CosmosQueryResultIterator(final Iterator<FeedResponse<T>> pageIterator) {
+        this.pages = pageIterator;
+    }
+
+    /**
+     * @return true if there are more items, fetching the next page if required
+     */
+    @Override
+    public boolean hasNext() {
+        try {
+            while (!currentPage.hasNext() && pages.hasNext()) {
+                FeedResponse<T> page = pages.next();
+                requestCharge += page.getRequestCharge();
+                pageCount++;
+                currentPage = page.getResults().iterator();
+            }
+            return currentPage.hasNext();
+        } catch (CosmosException e) {
+            statusCode = e.getStatusCode();
+            throw new AppException(HttpStatus.SC_INTERNAL_SERVER_ERROR, "Unexpectedly failed to query items from CosmosDB", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the next item
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        itemCount++;
+        return currentPage.next();
+    }
+
+    /**
+     * @return total request charge of the pages fetched so far
+     */
+    double getRequestCharge() {
+        return requestCharge;
+    }
+
+    /**
+     * @return number of pages fetched so far
+     */
+    int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * @return number of items returned so far
+     */
+    long getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * @return HTTP status of the iteration, 200 unless fetching a page failed
+     */
+    int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,50 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.models.CosmosItemIdentity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Result of a batched point read done with {@link CosmosStore#findItems}.
+ *
+ * @param <T> Type of the items read
+ */
+@Getter
+@AllArgsConstructor
+public class CosmosReadManyResult<T> {
+    /**
+     * the items that were found.
+     */
+    private final List<T> items;
+    /**
+     * the requested identities for which no item exists.
+     */
+    private final List<CosmosItemIdentity> missing;
+    /**
+     * the request charge summed over all readMany calls.
+     */
+    private final double requestCharge;
+
+    /**
+     * @return true if every requested item was found
+     */
+    public boolean isComplete() {
+        return missing.isEmpty();
+    }
+}
@@ -20,19 +20,32 @@ import com.azure.cosmos.CosmosException;
 import com.azure.cosmos.implementation.ConflictException;
 import com.azure.cosmos.implementation.NotFoundException;
 import com.azure.cosmos.implementation.RequestRateTooLargeException;
+import com.azure.cosmos.models.CosmosBatch;
+import com.azure.cosmos.models.CosmosBatchOperationResult;
+import com.azure.cosmos.models.CosmosBatchResponse;
+import com.azure.cosmos.models.CosmosItemIdentity;
 import com.azure.cosmos.models.CosmosItemRequestOptions;
 import com.azure.cosmos.models.CosmosItemResponse;
+import com.azure.cosmos.models.CosmosPatchItemRequestOptions;
+import com.azure.cosmos.models.CosmosPatchOperations;
 import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.FeedRange;
 import com.azure.cosmos.models.FeedResponse;
 import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlParameter;
 import com.azure.cosmos.models.SqlQuerySpec;
 import com.azure.cosmos.util.CosmosPagedFlux;
 import com.azure.cosmos.util.CosmosPagedIterable;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Strings;
 import org.apache.http.HttpStatus;
+import org.opengroup.osdu.azure.di.CosmosPagingConfiguration;
+import org.opengroup.osdu.azure.di.CosmosQueryFanOutConfiguration;
+import org.opengroup.osdu.azure.di.CosmosWriteConfiguration;
 import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
 import org.opengroup.osdu.azure.logging.DependencyLogger;
 import org.opengroup.osdu.azure.logging.DependencyLoggingOptions;
+import org.opengroup.osdu.azure.query.CosmosQueryCursor;
 import org.opengroup.osdu.azure.query.CosmosStorePageRequest;
 import org.opengroup.osdu.core.common.model.http.AppException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,11 +53,24 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static org.opengroup.osdu.azure.logging.DependencyType.COSMOS_STORE;
 
@@ -77,6 +103,12 @@ import static org.opengroup.osdu.azure.logging.DependencyType.COSMOS_STORE;
  *         List<MyObject> objects = cosmosStore.queryItems("dataPartitionId", "cosmosDb", "collection", query, options, MyObject.class);
  *      }
  *
+ *      void queryItemsStreamExample() {
+ *          try (Stream<MyObject> objects = cosmosStore.queryItemsStream("dataPartitionId", "cosmosDb", "collection", query, options, MyObject.class)) {
+ *              objects.forEach(this::process);
+ *          }
+ *      }
+ *
  *      void createItemExample() {
  *          cosmosStore.createItem("dataPartitionId", "cosmosDb", "collection", "some-data");
  *      }
@@ -89,12 +121,29 @@ import static org.opengroup.osdu.azure.logging.DependencyType.COSMOS_STORE;
 public class CosmosStore {
 
     private static final String LOGGER_NAME = CosmosStore.class.getName();
+    private static final String SYSTEM_CACHE_PARTITION = "<system>";
     private static final int PREFERRED_PAGE_SIZE = 1000;
+    private static final int READ_MANY_CHUNK_SIZE = 1000;
+
+    private static final Pattern NON_CONCATENABLE_QUERY = Pattern.compile(
+            "\\b(ORDER\\s+BY|GROUP\\s+BY|TOP|OFFSET|DISTINCT|COUNT\\s*\\(|SUM\\s*\\(|AVG\\s*\\(|MIN\\s*\\(|MAX\\s*\\()",
+            Pattern.CASE_INSENSITIVE);
 
     @Autowired
     private ICosmosClientFactory cosmosClientFactory;
     @Autowired
     private DependencyLogger dependencyLogger;
+    @Autowired
+    private CosmosQueryFanOutConfiguration queryFanOutConfiguration;
+    @Autowired
+    private CosmosWriteConfiguration writeConfiguration;
+    @Autowired
+    private CosmosPagingConfiguration pagingConfiguration;
+    @Autowired
+    private CosmosQueryResultCache queryResultCache;
+
+    // least recently used first, guarded by itself
+    private final LinkedHashMap<String, CachedCount> totalCounts = new LinkedHashMap<>(16, 0.75f, true);
 
     /**
      * @param dataPartitionId Data partition id
@@ -136,6 +185,163 @@ public class CosmosStore {
         return findItemInternal(cosmosDBName, collection, container, id, partitionKey, clazz);
     }
 
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param clazz           Class to serialize results into
+     * @param <T>             Type to return
+     * @return The item and its ETag, to be passed to the conditional writes, empty if not found
+     */
+    public <T> Optional<CosmosVersionedItem<T>> findItemWithETag(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey,
+            final Class<T> clazz) {
+        try {
+            return findVersionedItemInternal(dataPartitionId, cosmosDBName, collection, id, partitionKey, new CosmosItemRequestOptions(), clazz);
+        } catch (NotFoundException e) {
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(String.format("Unable to find item with id=%s and partition_key=%s", id, partitionKey), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Re-reads an item only if it changed since the version the caller holds, which costs less than a full read
+     * when it did not.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param eTag            ETag of the version the caller holds
+     * @param clazz           Class to serialize results into
+     * @param <T>             Type to return
+     * @return The current item and its ETag, empty if the item still has the given ETag
+     */
+    public <T> Optional<CosmosVersionedItem<T>> findItemIfNoneMatch(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey,
+            final String eTag,
+            final Class<T> clazz) {
+        try {
+            return findVersionedItemInternal(dataPartitionId, cosmosDBName, collection, id, partitionKey, new CosmosItemRequestOptions().setIfNoneMatchETag(eTag), clazz);
+        } catch (NotFoundException e) {
+            String errorMessage = "Item was unexpectedly not found";
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+            throw new AppException(404, errorMessage, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads many items at once with the SDK readMany API instead of one point read per item.
+     * Identities are sent in chunks of at most {@value #READ_MANY_CHUNK_SIZE}, duplicates dropped, and ids that occur
+     * with several partition keys are spread over different chunks, so every item found matches exactly one identity
+     * of its chunk. The whole operation is
+     * reported as a single READ_MANY_ITEMS dependency carrying the summed request charge.
+     * Identities without a matching item are reported in {@link CosmosReadManyResult#getMissing()}.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param identities      Id and partition key of each item to read
+     * @param clazz           Class to serialize results into
+     * @param <T>             Type to return
+     * @return The items found, the identities not found and the request charge
+     */
+    public <T> CosmosReadManyResult<T> findItems(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final List<CosmosItemIdentity> identities,
+            final Class<T> clazz) {
+        if (identities.isEmpty()) {
+            return new CosmosReadManyResult<>(new ArrayList<>(), new ArrayList<>(), 0.0);
+        }
+        CosmosContainer container = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
+        final long start = System.currentTimeMillis();
+        double requestCharge = 0.0;
+        int statusCode = HttpStatus.SC_OK;
+        List<T> items = new ArrayList<>();
+        List<CosmosItemIdentity> missing = new ArrayList<>();
+        try {
+            for (List<CosmosItemIdentity> chunk : toReadManyChunks(identities)) {
+                FeedResponse<ObjectNode> response = container.readMany(chunk, ObjectNode.class);
+                requestCharge += response.getRequestCharge();
+                Set<String> foundIds = new HashSet<>();
+                for (ObjectNode node : response.getResults()) {
+                    foundIds.add(node.path("id").asText());
+                    items.add(CosmosItemMapper.get().convertValue(node, clazz));
+                }
+                for (CosmosItemIdentity identity : chunk) {
+                    if (!foundIds.contains(identity.getId())) {
+                        missing.add(identity);
+                    }
+                }
+            }
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("READ_MANY_ITEMS found {} of {} item(s)", items.size(), identities.size());
+            return new CosmosReadManyResult<>(items, missing, requestCharge);
+        } catch (CosmosException e) {
+            statusCode = e.getStatusCode();
+            String errorMessage = "Unexpectedly encountered error calling CosmosDB";
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+            throw new AppException(500, errorMessage, e.getMessage(), e);
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
+            final String dependencyData = String.format("items=%d missing=%d", identities.size(), missing.size());
+            final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
+                    .type(COSMOS_STORE)
+                    .name("READ_MANY_ITEMS")
+                    .data(dependencyData)
+                    .target(dependencyTarget)
+                    .timeTakenInMs(timeTaken)
+                    .requestCharge(requestCharge)
+                    .resultCode(statusCode)
+                    .success(statusCode == HttpStatus.SC_OK)
+                    .build();
+            dependencyLogger.logDependency(options);
+        }
+    }
+
+    /**
+     * Splits identities into readMany chunks in which every id occurs once, so found items can be matched to
+     * identities by id alone.
+     *
+     * @param identities Id and partition key of each item to read
+     * @return chunks of distinct identities with distinct ids, of at most {@value #READ_MANY_CHUNK_SIZE} each
+     */
+    static List<List<CosmosItemIdentity>> toReadManyChunks(final List<CosmosItemIdentity> identities) {
+        List<List<CosmosItemIdentity>> chunks = new ArrayList<>();
+        List<Set<String>> chunkIds = new ArrayList<>();
+        int firstOpenChunk = 0;
+        for (CosmosItemIdentity identity : new LinkedHashSet<>(identities)) {
+            int chunk = firstOpenChunk;
+            while (chunk < chunks.size()
+                    && (chunks.get(chunk).size() >= READ_MANY_CHUNK_SIZE || chunkIds.get(chunk).contains(identity.getId()))) {
+                chunk++;
+            }
+            if (chunk == chunks.size()) {
+                chunks.add(new ArrayList<>());
+                chunkIds.add(new HashSet<>());
+            }
+            chunks.get(chunk).add(identity);
+            chunkIds.get(chunk).add(identity.getId());
+            while (firstOpenChunk < chunks.size() && chunks.get(firstOpenChunk).size() >= READ_MANY_CHUNK_SIZE) {
+                firstOpenChunk++;
+            }
+        }
+        return chunks;
+    }
+
     /**
      * @param dataPartitionId Data partition id
      * @param cosmosDBName    Database name
@@ -151,7 +357,7 @@ public class CosmosStore {
             final String id,
             final String partitionKey) {
         CosmosContainer container = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
-        deleteItemInternal(cosmosDBName, collection, container, id, partitionKey);
+        deleteItemInternal(dataPartitionId, cosmosDBName, collection, container, id, partitionKey, new CosmosItemRequestOptions());
     }
 
     /**
@@ -167,7 +373,7 @@ public class CosmosStore {
             final String id,
             final String partitionKey) {
         CosmosContainer container = getSystemCosmosContainer(cosmosDBName, collection);
-        deleteItemInternal(cosmosDBName, collection, container, id, partitionKey);
+        deleteItemInternal(null, cosmosDBName, collection, container, id, partitionKey, new CosmosItemRequestOptions());
     }
 
     /**
@@ -185,7 +391,27 @@ public class CosmosStore {
             final String partitionKey,
             final T item) {
         CosmosContainer cosmosContainer = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
-        upsertItemInternal(cosmosDBName, collection, cosmosContainer, partitionKey, item);
+        upsertItemInternal(dataPartitionId, cosmosDBName, collection, cosmosContainer, partitionKey, item, newWriteRequestOptions(CosmosWriteMode.DEFAULT));
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param partitionKey    Partition key of item
+     * @param item            Data object to store
+     * @param writeMode       Whether the response carries the written document
+     * @param <T>             Type of item
+     */
+    public <T> void upsertItem(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String partitionKey,
+            final T item,
+            final CosmosWriteMode writeMode) {
+        CosmosContainer cosmosContainer = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
+        upsertItemInternal(dataPartitionId, cosmosDBName, collection, cosmosContainer, partitionKey, item, newWriteRequestOptions(writeMode));
     }
 
     /**
@@ -201,7 +427,7 @@ public class CosmosStore {
             final String partitionKey,
             final T item) {
         CosmosContainer cosmosContainer = getSystemCosmosContainer(cosmosDBName, collection);
-        upsertItemInternal(cosmosDBName, collection, cosmosContainer, partitionKey, item);
+        upsertItemInternal(null, cosmosDBName, collection, cosmosContainer, partitionKey, item, newWriteRequestOptions(CosmosWriteMode.DEFAULT));
     }
 
     /**
@@ -220,33 +446,177 @@ public class CosmosStore {
             final String id,
             final String partitionKey,
             final T item) {
+        replaceItemInternal(dataPartitionId, cosmosDBName, collection, id, partitionKey, item, newWriteRequestOptions(CosmosWriteMode.DEFAULT));
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param item            Data object to store
+     * @param writeMode       Whether the response carries the written document
+     * @param <T>             Type of item
+     */
+    public <T> void replaceItem(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey,
+            final T item,
+            final CosmosWriteMode writeMode) {
+        replaceItemInternal(dataPartitionId, cosmosDBName, collection, id, partitionKey, item, newWriteRequestOptions(writeMode));
+    }
+
+    /**
+     * Upserts an item only if it still has the given ETag, i.e. nobody else changed it since it was read.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param partitionKey    Partition key of item
+     * @param item            Data object to store
+     * @param eTag            ETag of the version the update is based on
+     * @param <T>             Type of item
+     * @return ETag of the new version
+     * @throws CosmosPreconditionFailedException if the item was modified concurrently
+     */
+    public <T> String upsertItemIfMatch(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String partitionKey,
+            final T item,
+            final String eTag) {
+        CosmosContainer cosmosContainer = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
+        return upsertItemInternal(dataPartitionId, cosmosDBName, collection, cosmosContainer, partitionKey, item, newWriteRequestOptions(CosmosWriteMode.DEFAULT).setIfMatchETag(eTag));
+    }
+
+    /**
+     * Replaces an item only if it still has the given ETag, i.e. nobody else changed it since it was read.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param item            Data object to store
+     * @param eTag            ETag of the version the update is based on
+     * @param <T>             Type of item
+     * @return ETag of the new version
+     * @throws CosmosPreconditionFailedException if the item was modified concurrently
+     */
+    public <T> String replaceItemIfMatch(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey,
+            final T item,
+            final String eTag) {
+        return replaceItemInternal(dataPartitionId, cosmosDBName, collection, id, partitionKey, item, newWriteRequestOptions(CosmosWriteMode.DEFAULT).setIfMatchETag(eTag));
+    }
+
+    /**
+     * Deletes an item only if it still has the given ETag, i.e. nobody else changed it since it was read.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param eTag            ETag of the version the deletion is based on
+     * @throws CosmosPreconditionFailedException if the item was modified concurrently
+     */
+    public void deleteItemIfMatch(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey,
+            final String eTag) {
+        CosmosContainer container = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
+        deleteItemInternal(dataPartitionId, cosmosDBName, collection, container, id, partitionKey, new CosmosItemRequestOptions().setIfMatchETag(eTag));
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param patchOperations Partial updates to apply to the item
+     */
+    public void patchItem(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey,
+            final CosmosPatchOperations patchOperations) {
+        patchItem(dataPartitionId, cosmosDBName, collection, id, partitionKey, patchOperations, null);
+    }
+
+    /**
+     * Applies partial updates to an item, sending only the changed paths instead of the full document.
+     * When a filter predicate is given (e.g. "from c where c.version = 3") the patch is only applied if the
+     * current item matches it; otherwise the call fails with 412.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param patchOperations Partial updates to apply to the item
+     * @param filterPredicate Condition the item must match for the patch to apply, null for an unconditional patch
+     */
+    public void patchItem(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey,
+            final CosmosPatchOperations patchOperations,
+            final String filterPredicate) {
         final long start = System.currentTimeMillis();
         int statusCode = HttpStatus.SC_OK;
         double requestCharge = 0.0;
         try {
             CosmosContainer cosmosContainer = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
             PartitionKey key = new PartitionKey(partitionKey);
-            CosmosItemRequestOptions options = new CosmosItemRequestOptions();
-            CosmosItemResponse<T> response = cosmosContainer.replaceItem(item, id, key, options);
+            CosmosPatchItemRequestOptions options = new CosmosPatchItemRequestOptions();
+            if (!Strings.isNullOrEmpty(filterPredicate)) {
+                options.setFilterPredicate(filterPredicate);
+            }
+            CosmosItemResponse<Object> response = cosmosContainer.patchItem(id, key, patchOperations, options, Object.class);
             requestCharge = response.getRequestCharge();
-            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("REPLACE_ITEM with id=%s and partition_key=%s", id, partitionKey));
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("PATCH_ITEM with id=%s and partition_key=%s", id, partitionKey));
         } catch (NotFoundException e) {
-            statusCode = e.getStatusCode();
+            statusCode = HttpStatus.SC_NOT_FOUND;
             String errorMessage = "Item was unexpectedly not found";
             CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
             throw new AppException(404, errorMessage, e.getMessage(), e);
         } catch (CosmosException e) {
             statusCode = e.getStatusCode();
-            String errorMessage = "Unexpectedly failed to replace item into CosmosDB";
+            if (statusCode == HttpStatus.SC_PRECONDITION_FAILED) {
+                throw handlePreconditionFailed(id, partitionKey, e);
+            }
+            if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS) {
+                throw new RequestRateTooLargeException();
+            }
+            String errorMessage = "Unexpectedly failed to patch item in CosmosDB";
             CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
             throw new AppException(500, errorMessage, e.getMessage(), e);
         } finally {
+            invalidateQueryResults(dataPartitionId, cosmosDBName, collection);
             final long timeTaken = System.currentTimeMillis() - start;
             final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
             final String dependencyData = String.format("id=%s partition_key=%s", id, partitionKey);
             final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
                     .type(COSMOS_STORE)
-                    .name("REPLACE_ITEM")
+                    .name("PATCH_ITEM")
                     .data(dependencyData)
                     .target(dependencyTarget)
                     .timeTakenInMs(timeTaken)
@@ -273,7 +643,27 @@ public class CosmosStore {
             final String partitionKey,
             final T item) {
         CosmosContainer cosmosContainer = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
-        createItemInternal(cosmosDBName, collection, cosmosContainer, partitionKey, item);
+        createItemInternal(dataPartitionId, cosmosDBName, collection, cosmosContainer, partitionKey, item, newWriteRequestOptions(CosmosWriteMode.DEFAULT));
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param partitionKey    Partition key of item
+     * @param item            Data object to store
+     * @param writeMode       Whether the response carries the written document
+     * @param <T>             Type of item
+     */
+    public <T> void createItem(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String partitionKey,
+            final T item,
+            final CosmosWriteMode writeMode) {
+        CosmosContainer cosmosContainer = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
+        createItemInternal(dataPartitionId, cosmosDBName, collection, cosmosContainer, partitionKey, item, newWriteRequestOptions(writeMode));
     }
 
     /**
@@ -289,27 +679,119 @@ public class CosmosStore {
             final String partitionKey,
             final T item) {
         CosmosContainer cosmosContainer = getSystemCosmosContainer(cosmosDBName, collection);
-        createItemInternal(cosmosDBName, collection, cosmosContainer, partitionKey, item);
+        createItemInternal(null, cosmosDBName, collection, cosmosContainer, partitionKey, item, newWriteRequestOptions(CosmosWriteMode.DEFAULT));
     }
 
-    // Find All and Queries
-
     /**
-     * @param dataPartitionId dataPartitionId
+     * Executes several operations on items sharing a partition key as one atomic, single round trip transaction.
+     * Either every operation is applied or none is. Usage:
+     * <pre>
+     * {@code
+     *      cosmosStore.executeBatch("dataPartitionId", "cosmosDb", "collection", "partition-key", batch -> {
+     *          batch.createItemOperation(newVersion);
+     *          batch.replaceItemOperation(metadata.getId(), metadata);
+     *          batch.deleteItemOperation(staleVersionId);
+     *      });
+     * }
+     * </pre>
+     * If the transaction is rolled back, the operation that caused it is reported in the thrown {@link AppException}
+     * with its own status code (404, 409, 413 or 500), or in a {@link CosmosPreconditionFailedException} if its ETag
+     * no longer matched; a throttled transaction raises {@link RequestRateTooLargeException}.
+     *
+     * @param dataPartitionId Data partition id
      * @param cosmosDBName    Database name
      * @param collection      Collection name
-     * @param clazz           Class type of response
-     * @param <T>             Type
-     * @return List<T> List of items found
+     * @param partitionKey    Partition key shared by all items of the batch
+     * @param batchBuilder    Adds the operations to the batch
+     * @return The batch response, holding one result per operation in the order they were added
      */
-    public <T> List<T> findAllItems(
+    public CosmosBatchResponse executeBatch(
             final String dataPartitionId,
             final String cosmosDBName,
             final String collection,
-            final Class<T> clazz) {
-        CosmosQueryRequestOptions options = new CosmosQueryRequestOptions();
-        return queryItems(dataPartitionId, cosmosDBName, collection, new SqlQuerySpec("SELECT * FROM c"), options, clazz);
-    }
+            final String partitionKey,
+            final Consumer<CosmosBatch> batchBuilder) {
+        CosmosContainer container = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
+        CosmosBatch batch = CosmosBatch.createCosmosBatch(new PartitionKey(partitionKey));
+        batchBuilder.accept(batch);
+
+        final long start = System.currentTimeMillis();
+        double requestCharge = 0.0;
+        int statusCode = HttpStatus.SC_OK;
+        try {
+            CosmosBatchResponse response = container.executeCosmosBatch(batch);
+            requestCharge = response.getRequestCharge();
+            statusCode = response.getStatusCode();
+            if (response.isSuccessStatusCode()) {
+                CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("EXECUTE_BATCH with partition_key=%s", partitionKey));
+                return response;
+            }
+            if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS) {
+                CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(String.format("Transactional batch with partition_key=%s was throttled", partitionKey));
+                throw new RequestRateTooLargeException();
+            }
+            List<CosmosBatchOperationResult> results = response.getResults();
+            for (int i = 0; i < results.size(); i++) {
+                CosmosBatchOperationResult result = results.get(i);
+                // operations rolled back because another one failed report 424 Failed Dependency
+                if (!result.isSuccessStatusCode() && result.getStatusCode() != HttpStatus.SC_FAILED_DEPENDENCY) {
+                    String errorMessage = String.format("Batch operation %d (%s of id=%s) failed with status %d", i,
+                            result.getOperation().getOperationType(), result.getOperation().getId(), result.getStatusCode());
+                    CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage);
+                    if (result.getStatusCode() == HttpStatus.SC_PRECONDITION_FAILED) {
+                        throw new CosmosPreconditionFailedException(errorMessage, null);
+                    }
+                    throw new AppException(getBatchFailureStatus(result.getStatusCode()), "Transactional batch failed", errorMessage);
+                }
+            }
+            String errorMessage = String.format("Transactional batch failed with status %d: %s", statusCode, response.getErrorMessage());
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage);
+            throw new AppException(getBatchFailureStatus(statusCode), "Transactional batch failed", errorMessage);
+        } catch (CosmosException e) {
+            statusCode = e.getStatusCode();
+            if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS) {
+                throw new RequestRateTooLargeException();
+            }
+            String errorMessage = "Unexpectedly failed to execute transactional batch in CosmosDB";
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+            throw new AppException(500, errorMessage, e.getMessage(), e);
+        } finally {
+            invalidateQueryResults(dataPartitionId, cosmosDBName, collection);
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
+            final String dependencyData = String.format("partition_key=%s operations=%d", partitionKey, batch.getOperations().size());
+            final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
+                    .type(COSMOS_STORE)
+                    .name("EXECUTE_BATCH")
+                    .data(dependencyData)
+                    .target(dependencyTarget)
+                    .timeTakenInMs(timeTaken)
+                    .requestCharge(requestCharge)
+                    .resultCode(statusCode)
+                    .success(statusCode == HttpStatus.SC_OK)
+                    .build();
+            dependencyLogger.logDependency(options);
+        }
+    }
+
+    // Find All and Queries
+
+    /**
+     * @param dataPartitionId dataPartitionId
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param clazz           Class type of response
+     * @param <T>             Type
+     * @return List<T> List of items found
+     */
+    public <T> List<T> findAllItems(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final Class<T> clazz) {
+        CosmosQueryRequestOptions options = new CosmosQueryRequestOptions();
+        return queryItems(dataPartitionId, cosmosDBName, collection, new SqlQuerySpec("SELECT * FROM c"), options, clazz);
+    }
 
     /**
      * @param dataPartitionId Data partition id
@@ -329,6 +811,13 @@ public class CosmosStore {
             final CosmosQueryRequestOptions options,
             final Class<T> clazz) {
         CosmosContainer cosmosContainer = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
+        if (queryResultCache.isEnabled(collection)) {
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Querying {} through the query result cache", collection);
+            return queryResultCache.getOrLoad(getDependencyTarget(dataPartitionId, cosmosDBName, collection),
+                    () -> getCosmosContainer(dataPartitionId, cosmosDBName, collection),
+                    getResultCacheKey(dataPartitionId, cosmosDBName, collection, query, options, clazz), clazz,
+                    () -> queryItemsInternal(cosmosDBName, collection, cosmosContainer, query, options, clazz));
+        }
         return queryItemsInternal(cosmosDBName, collection, cosmosContainer, query, options, clazz);
     }
 
@@ -348,9 +837,151 @@ public class CosmosStore {
             final CosmosQueryRequestOptions options,
             final Class<T> clazz) {
         CosmosContainer cosmosContainer = getSystemCosmosContainer(cosmosDBName, collection);
+        if (queryResultCache.isEnabled(collection)) {
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Querying {} through the query result cache", collection);
+            return queryResultCache.getOrLoad(DependencyLogger.getCosmosDependencyTarget(cosmosDBName, collection),
+                    () -> getSystemCosmosContainer(cosmosDBName, collection),
+                    getResultCacheKey(SYSTEM_CACHE_PARTITION, cosmosDBName, collection, query, options, clazz), clazz,
+                    () -> queryItemsInternal(cosmosDBName, collection, cosmosContainer, query, options, clazz));
+        }
         return queryItemsInternal(cosmosDBName, collection, cosmosContainer, query, options, clazz);
     }
 
+    /**
+     * Streaming variant of {@link #findAllItems(String, String, String, Class)}.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param clazz           Class type of response
+     * @param <T>             Type
+     * @return Stream<T> Lazily populated stream of the items in the container; must be closed by the caller
+     */
+    public <T> Stream<T> findAllItemsStream(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final Class<T> clazz) {
+        CosmosQueryRequestOptions options = new CosmosQueryRequestOptions();
+        return queryItemsStream(dataPartitionId, cosmosDBName, collection, new SqlQuerySpec("SELECT * FROM c"), options, clazz);
+    }
+
+    /**
+     * Streaming variant of {@link #queryItems(String, String, String, SqlQuerySpec, CosmosQueryRequestOptions, Class)}.
+     * Result pages are fetched only as the stream is consumed, so the whole result set is never held in memory.
+     * The dependency is logged with the accumulated request charge when the stream is closed.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param query           {@link SqlQuerySpec} to execute
+     * @param options         Options
+     * @param clazz           Class type of response
+     * @param <T>             Type
+     * @return Stream<T> Lazily populated stream of items found; must be closed by the caller
+     */
+    public <T> Stream<T> queryItemsStream(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final SqlQuerySpec query,
+            final CosmosQueryRequestOptions options,
+            final Class<T> clazz) {
+        CosmosContainer cosmosContainer = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
+        return queryItemsStreamInternal(cosmosDBName, collection, cosmosContainer, query, options, clazz);
+    }
+
+    /**
+     * Streaming variant of {@link #queryItems(String, String, SqlQuerySpec, CosmosQueryRequestOptions, Class)}.
+     *
+     * @param cosmosDBName Database name
+     * @param collection   Collection name
+     * @param query        {@link SqlQuerySpec} to execute
+     * @param options      Options
+     * @param clazz        Class type of response
+     * @param <T>          Type
+     * @return Stream<T> Lazily populated stream of items found; must be closed by the caller
+     */
+    public <T> Stream<T> queryItemsStream(
+            final String cosmosDBName,
+            final String collection,
+            final SqlQuerySpec query,
+            final CosmosQueryRequestOptions options,
+            final Class<T> clazz) {
+        CosmosContainer cosmosContainer = getSystemCosmosContainer(cosmosDBName, collection);
+        return queryItemsStreamInternal(cosmosDBName, collection, cosmosContainer, query, options, clazz);
+    }
+
+    /**
+     * Cross-partition query that fans out over the container's partition key ranges concurrently.
+     * Parallelism and buffered item count come from {@link CosmosQueryFanOutConfiguration} for the given query class.
+     * Each range is reported as a QUERY_ITEMS_FANOUT_RANGE dependency with its own latency and request charge.
+     * Queries whose results cannot simply be concatenated across ranges (ORDER BY, GROUP BY, TOP, OFFSET,
+     * DISTINCT or aggregates) are executed as a single SDK-parallelised query instead.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param query           {@link SqlQuerySpec} to execute
+     * @param queryClass      Name of the query class used to look up fan-out settings, may be null for defaults
+     * @param clazz           Class type of response
+     * @param <T>             Type
+     * @return List<T> List of items found
+     */
+    public <T> List<T> queryItemsFanOut(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final SqlQuerySpec query,
+            final String queryClass,
+            final Class<T> clazz) {
+        final int maxDegreeOfParallelism = queryFanOutConfiguration.getMaxDegreeOfParallelism(queryClass);
+        final int maxBufferedItemCount = queryFanOutConfiguration.getMaxBufferedItemCount(queryClass);
+
+        if (NON_CONCATENABLE_QUERY.matcher(query.getQueryText()).find()) {
+            CosmosQueryRequestOptions options = new CosmosQueryRequestOptions()
+                    .setMaxDegreeOfParallelism(maxDegreeOfParallelism)
+                    .setMaxBufferedItemCount(maxBufferedItemCount);
+            return queryItems(dataPartitionId, cosmosDBName, collection, query, options, clazz);
+        }
+
+        final long start = System.currentTimeMillis();
+        int statusCode = HttpStatus.SC_OK;
+        final double[] requestCharge = {0.0};
+        List<T> results = new ArrayList<>();
+        try {
+            CosmosAsyncContainer container = cosmosClientFactory.getAsyncContainer(dataPartitionId, cosmosDBName, collection);
+            List<FeedRange> feedRanges = container.getFeedRanges().block();
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Fanning out query over {} range(s) with parallelism {}", feedRanges.size(), maxDegreeOfParallelism);
+            Flux.fromIterable(feedRanges)
+                    .flatMapSequential(range -> queryFeedRange(dataPartitionId, cosmosDBName, collection, container, query, range, maxBufferedItemCount, requestCharge, clazz), maxDegreeOfParallelism)
+                    .toIterable()
+                    .forEach(results::addAll);
+            return results;
+        } catch (CosmosException e) {
+            statusCode = e.getStatusCode();
+            String errorMessage = "Unexpectedly failed to query items from CosmosDB";
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+            throw new AppException(500, errorMessage, e.getMessage(), e);
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
+            final String dependencyData = String.format("query=%s", query.getQueryText());
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Done. Retrieved {} results", results.size());
+            final DependencyLoggingOptions loggingOptions = DependencyLoggingOptions.builder()
+                    .type(COSMOS_STORE)
+                    .name("QUERY_ITEMS_FANOUT")
+                    .data(dependencyData)
+                    .target(dependencyTarget)
+                    .timeTakenInMs(timeTaken)
+                    .requestCharge(requestCharge[0])
+                    .resultCode(statusCode)
+                    .success(statusCode == HttpStatus.SC_OK)
+                    .build();
+            dependencyLogger.logDependency(loggingOptions);
+        }
+    }
+
     /**
      * @param dataPartitionId   Data partition id
      * @param cosmosDBName      Database
@@ -403,7 +1034,7 @@ public class CosmosStore {
      * @param continuationToken Continuation token
      * @param queryOptions      Query options
      * @param <T>               Type
-     * @return Page<T> Page of itemns found
+     * @return Page<T> Page of items found, numbered 0
      */
     public <T> Page<T> queryItemsPage(
             final String dataPartitionId,
@@ -414,63 +1045,63 @@ public class CosmosStore {
             final int pageSize,
             final String continuationToken,
             final CosmosQueryRequestOptions queryOptions) {
+        return queryItemsPage(dataPartitionId, cosmosDBName, collection, query, clazz, pageSize, continuationToken, queryOptions, 0);
+    }
 
-        int currentPageNumber = 1;
-        int iterationNumber = 1;
-        int documentNumber = 0;
-        double requestCharge = 0.0;
+    /**
+     * Reads the page the continuation token points to. The page holds exactly pageSize items except the last one,
+     * read from as many feed pages as needed, and its total lets {@link Page#hasNext()} tell whether more pages follow.
+     *
+     * @param dataPartitionId   Data partition id
+     * @param cosmosDBName      Database name
+     * @param collection        Collection name
+     * @param query             {@link SqlQuerySpec} to execute
+     * @param clazz             Class type
+     * @param pageSize          Page size
+     * @param continuationToken Continuation token
+     * @param queryOptions      Query options
+     * @param pageNumber        zero based number of the page the continuation token points to
+     * @param <T>               Type
+     * @return Page<T> Page of items found
+     */
+    public <T> Page<T> queryItemsPage(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final SqlQuerySpec query,
+            final Class<T> clazz,
+            final int pageSize,
+            final String continuationToken,
+            final CosmosQueryRequestOptions queryOptions,
+            final int pageNumber) {
 
-        String internalcontinuationToken = continuationToken;
-        List<T> results = new ArrayList<>();
         CosmosContainer container = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
 
         CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Receiving a set of query response pages.");
-        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Continuation Token: " + internalcontinuationToken + "\n");
+        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Continuation Token: " + continuationToken + "\n");
 
         final long start = System.currentTimeMillis();
-        Iterable<FeedResponse<T>> feedResponseIterator =
-                container.queryItems(query, queryOptions, clazz).iterableByPage(internalcontinuationToken, pageSize);
-
-        Iterator<FeedResponse<T>> iterator = feedResponseIterator.iterator();
-        if (iterator.hasNext()) {
-            FeedResponse<T> page = feedResponseIterator.iterator().next();
-            requestCharge = page.getRequestCharge();
-            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("Current page number: %d", currentPageNumber));
-            // Access all of the documents in this result page
-            for (T item : page.getResults()) {
-                documentNumber++;
-                results.add(item);
-            }
 
-            // Page count so far
-            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("Total documents received so far: %d", documentNumber));
-
-            // Along with page results, get a continuation token
-            // which enables the client to "pick up where it left off"
-            // in accessing query response pages.
-            internalcontinuationToken = page.getContinuationToken();
-            currentPageNumber++;
-            iterationNumber++;
-        }
+        PageReadResult<T> page = readPage(container, query, queryOptions, clazz, continuationToken, pageSize);
 
         final long timeTaken = System.currentTimeMillis() - start;
         final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
-        final String dependencyData = String.format("query=%s", query.getQueryText());
-        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Done. Retrieved {} results", results.size());
+        final String dependencyData = String.format("query=%s sub_pages=%d", query.getQueryText(), page.subPages);
+        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Done. Retrieved {} results", page.results.size());
         final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
                 .type(COSMOS_STORE)
                 .name("QUERY_ITEMS_PAGE")
                 .data(dependencyData)
                 .target(dependencyTarget)
                 .timeTakenInMs(timeTaken)
-                .requestCharge(requestCharge)
+                .requestCharge(page.requestCharge)
                 .resultCode(HttpStatus.SC_OK)
                 .success(true)
                 .build();
         dependencyLogger.logDependency(options);
 
-        CosmosStorePageRequest pageRequest = CosmosStorePageRequest.of(currentPageNumber, pageSize, internalcontinuationToken);
-        return new PageImpl(results, pageRequest, documentNumber);
+        CosmosStorePageRequest pageRequest = CosmosStorePageRequest.of(pageNumber, pageSize, page.continuation);
+        return new PageImpl<>(page.results, pageRequest, getPageTotal(pageNumber, pageSize, page));
     }
 
     /**
@@ -482,7 +1113,7 @@ public class CosmosStore {
      * @param pageSize          Page size
      * @param continuationToken Continuation token
      * @param <T>               Type
-     * @return Page<T> Page of itemns found
+     * @return Page<T> Page of items found, numbered 0
      */
     public <T> Page<T> queryItemsPageAsync(
             final String dataPartitionId,
@@ -492,50 +1123,64 @@ public class CosmosStore {
             final Class<T> clazz,
             final int pageSize,
             final String continuationToken) {
+        return queryItemsPageAsync(dataPartitionId, cosmosDBName, collection, query, clazz, pageSize, continuationToken, 0);
+    }
 
-        int currentPageNumber = 1;
-        int documentNumber = 0;
-        double requestCharge = 0.0;
+    /**
+     * Reads the page the continuation token points to through the async client. The page holds exactly pageSize items
+     * except the last one, and its total lets {@link Page#hasNext()} tell whether more pages follow.
+     *
+     * @param dataPartitionId   Data partition id
+     * @param cosmosDBName      Database name
+     * @param collection        Collection name
+     * @param query             {@link SqlQuerySpec} to execute
+     * @param clazz             Class type
+     * @param pageSize          Page size
+     * @param continuationToken Continuation token
+     * @param pageNumber        zero based number of the page the continuation token points to
+     * @param <T>               Type
+     * @return Page<T> Page of items found
+     */
+    public <T> Page<T> queryItemsPageAsync(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final SqlQuerySpec query,
+            final Class<T> clazz,
+            final int pageSize,
+            final String continuationToken,
+            final int pageNumber) {
 
-        String internalContinuationToken = continuationToken;
-        CosmosAsyncContainer cosmosAsyncContainer = cosmosClientFactory.getAsyncClient(dataPartitionId).getDatabase(cosmosDBName).getContainer(collection);
+        CosmosAsyncContainer cosmosAsyncContainer = cosmosClientFactory.getAsyncContainer(dataPartitionId, cosmosDBName, collection);
 
         CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Receiving a set of query response pages.");
-        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Continuation Token: " + internalContinuationToken + "\n");
+        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Continuation Token: " + continuationToken + "\n");
 
         CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
         queryOptions.setMaxBufferedItemCount(pageSize);
 
         final long start = System.currentTimeMillis();
 
-        CosmosPagedFlux<T> cosmosPagedFlux = cosmosAsyncContainer.queryItems(query, queryOptions, clazz);
-        FeedResponse<T> page = cosmosPagedFlux.byPage(pageSize).blockFirst();
-        List<T> results = new ArrayList<>();
-
-        if (page != null) {
-            results.addAll(page.getResults());
-            internalContinuationToken = page.getContinuationToken();
-            requestCharge = page.getRequestCharge();
-        }
+        PageReadResult<T> page = readPageAsync(cosmosAsyncContainer.queryItems(query, queryOptions, clazz), continuationToken, pageSize);
 
         final long timeTaken = System.currentTimeMillis() - start;
         final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
-        final String dependencyData = String.format("query=%s", query.getQueryText());
-        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Done. Retrieved {} results", results.size());
+        final String dependencyData = String.format("query=%s sub_pages=%d", query.getQueryText(), page.subPages);
+        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Done. Retrieved {} results", page.results.size());
         final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
                 .type(COSMOS_STORE)
                 .name("QUERY_ITEMS_PAGE_ASYNC")
                 .data(dependencyData)
                 .target(dependencyTarget)
                 .timeTakenInMs(timeTaken)
-                .requestCharge(requestCharge)
+                .requestCharge(page.requestCharge)
                 .resultCode(HttpStatus.SC_OK)
                 .success(true)
                 .build();
         dependencyLogger.logDependency(options);
 
-        CosmosStorePageRequest pageRequest = CosmosStorePageRequest.of(currentPageNumber, pageSize, internalContinuationToken);
-        return new PageImpl<>(results, pageRequest, documentNumber);
+        CosmosStorePageRequest pageRequest = CosmosStorePageRequest.of(pageNumber, pageSize, page.continuation);
+        return new PageImpl<>(page.results, pageRequest, getPageTotal(pageNumber, pageSize, page));
     }
 
     /**
@@ -548,7 +1193,7 @@ public class CosmosStore {
      * @param pageSize          Page size
      * @param continuationToken Continuation token
      * @param <T>               Type
-     * @return Page<T> Page of items found
+     * @return Page<T> Page of items found, numbered 0
      */
     public <T> Page<T> queryItemsPage(
             final String dataPartitionId,
@@ -559,67 +1204,299 @@ public class CosmosStore {
             final Class<T> clazz,
             final int pageSize,
             final String continuationToken) {
+        return queryItemsPage(dataPartitionId, cosmosDBName, collection, query, partitionKey, clazz, pageSize, continuationToken, 0);
+    }
 
-        int currentPageNumber = 1;
-        int currentPageSize = pageSize;
-        int documentNumber = 0;
-        double requestCharge = 0.0;
+    /**
+     * Reads the page the continuation token points to. The page holds exactly pageSize items except the last one,
+     * read from as many feed pages as needed, and its total lets {@link Page#hasNext()} tell whether more pages follow.
+     *
+     * @param dataPartitionId   Data partition id
+     * @param cosmosDBName      Database name
+     * @param collection        Collection name
+     * @param query             {@link SqlQuerySpec} to execute
+     * @param partitionKey      Partition key of item
+     * @param clazz             Class type
+     * @param pageSize          Page size
+     * @param continuationToken Continuation token
+     * @param pageNumber        zero based number of the page the continuation token points to
+     * @param <T>               Type
+     * @return Page<T> Page of items found
+     */
+    public <T> Page<T> queryItemsPage(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final SqlQuerySpec query,
+            final String partitionKey,
+            final Class<T> clazz,
+            final int pageSize,
+            final String continuationToken,
+            final int pageNumber) {
 
-        String internalContinuationToken = continuationToken;
-        List<T> results = new ArrayList<>();
         CosmosContainer container = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
 
         CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Receiving a set of query response pages.");
-        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Continuation Token: " + internalContinuationToken + "\n");
+        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Continuation Token: " + continuationToken + "\n");
 
         CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
         queryOptions.setPartitionKey(new PartitionKey(partitionKey));
         final long start = System.currentTimeMillis();
 
-        do {
-            Iterable<FeedResponse<T>> feedResponseIterator =
-                    container.queryItems(query, queryOptions, clazz).iterableByPage(internalContinuationToken, currentPageSize);
+        PageReadResult<T> page = readPage(container, query, queryOptions, clazz, continuationToken, pageSize);
 
-            for (FeedResponse<T> page : feedResponseIterator) {
-                requestCharge += page.getRequestCharge();
-                CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("Current page number: %d", currentPageNumber));
-                // Access all the documents in this result page
-                for (T item : page.getResults()) {
-                    documentNumber++;
-                    results.add(item);
-                }
+        final long timeTaken = System.currentTimeMillis() - start;
+        final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
+        final String dependencyData = String.format("query=%s sub_pages=%d", query.getQueryText(), page.subPages);
+        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Done. Retrieved {} results", page.results.size());
+        final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
+                .type(COSMOS_STORE)
+                .name("QUERY_ITEMS_PAGE")
+                .data(dependencyData)
+                .target(dependencyTarget)
+                .timeTakenInMs(timeTaken)
+                .requestCharge(page.requestCharge)
+                .resultCode(HttpStatus.SC_OK)
+                .success(true)
+                .build();
+        dependencyLogger.logDependency(options);
 
-                // Page count so far
-                CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("Total documents received so far: %d", documentNumber));
+        CosmosStorePageRequest pageRequest = CosmosStorePageRequest.of(pageNumber, pageSize, page.continuation);
+        return new PageImpl<>(page.results, pageRequest, getPageTotal(pageNumber, pageSize, page));
+    }
 
-                // Along with page results, get a continuation token
-                // which enables the client to "pick up where it left off"
-                // in accessing query response pages.
-                internalContinuationToken = page.getContinuationToken();
-                currentPageNumber++;
-                break;
+    /**
+     * Cursor based paging. Unlike the continuation token based methods, the returned page carries its real zero based
+     * page number, a total that lets {@link Page#hasNext()} tell whether more pages follow, and as request continuation
+     * an opaque cursor to pass back for the next page, null after the last page. Pages hold exactly pageSize items
+     * except the last one.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param query           {@link SqlQuerySpec} to execute
+     * @param clazz           Class type
+     * @param pageSize        Page size
+     * @param cursor          Cursor returned with the previous page, null or empty for the first page
+     * @param <T>             Type
+     * @return Page<T> Page of items found
+     * @throws AppException with status 400 if the cursor is malformed or belongs to another query
+     */
+    public <T> Page<T> queryItemsPageByCursor(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final SqlQuerySpec query,
+            final Class<T> clazz,
+            final int pageSize,
+            final String cursor) {
+        return queryItemsPageByCursor(dataPartitionId, cosmosDBName, collection, query, null, clazz, pageSize, cursor);
+    }
+
+    /**
+     * Cursor based paging as {@link #queryItemsPageByCursor(String, String, String, SqlQuerySpec, Class, int, String)}, with
+     * the page total taken from a count query, e.g. {@code SELECT VALUE COUNT(1) FROM c WHERE c.kind = @kind}. The count is
+     * cached per query for the configured time, so it is approximate.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param query           {@link SqlQuerySpec} to execute
+     * @param countQuery      {@link SqlQuerySpec} counting the items the query returns, null to skip the total count
+     * @param clazz           Class type
+     * @param pageSize        Page size
+     * @param cursor          Cursor returned with the previous page, null or empty for the first page
+     * @param <T>             Type
+     * @return Page<T> Page of items found
+     * @throws AppException with status 400 if the cursor is malformed or belongs to another query
+     */
+    public <T> Page<T> queryItemsPageByCursor(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final SqlQuerySpec query,
+            final SqlQuerySpec countQuery,
+            final Class<T> clazz,
+            final int pageSize,
+            final String cursor) {
+        final int queryFingerprint = getQueryKey(dataPartitionId, cosmosDBName, collection, query).hashCode();
+        int pageNumber = 0;
+        String continuation = null;
+        if (!Strings.isNullOrEmpty(cursor)) {
+            CosmosQueryCursor decodedCursor = CosmosQueryCursor.decode(cursor);
+            if (decodedCursor.getQueryFingerprint() != queryFingerprint) {
+                CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn("Rejected cursor issued for another query on {}",
+                        getDependencyTarget(dataPartitionId, cosmosDBName, collection));
+                throw CosmosQueryCursor.invalidCursor(null);
+            }
+            pageNumber = decodedCursor.getPageNumber();
+            continuation = decodedCursor.getContinuation();
+        }
+
+        CosmosContainer container = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
+        CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
+        if (pagingConfiguration.getContinuationTokenLimitInKb() > 0) {
+            queryOptions.setResponseContinuationTokenLimitInKb(pagingConfiguration.getContinuationTokenLimitInKb());
+        }
+
+        final long start = System.currentTimeMillis();
+        int statusCode = HttpStatus.SC_OK;
+        PageReadResult<T> page = null;
+        try {
+            page = readPage(container, query, queryOptions, clazz, continuation, pageSize);
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Retrieved {} results for page {}", page.results.size(), pageNumber);
+        } catch (CosmosException e) {
+            statusCode = e.getStatusCode();
+            String errorMessage = "Unexpectedly encountered error calling CosmosDB";
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+            throw new AppException(500, errorMessage, e.getMessage(), e);
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
+            final String dependencyData = String.format("query=%s page=%d sub_pages=%d", query.getQueryText(), pageNumber,
+                    page == null ? 0 : page.subPages);
+            final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
+                    .type(COSMOS_STORE)
+                    .name("QUERY_ITEMS_PAGE")
+                    .data(dependencyData)
+                    .target(dependencyTarget)
+                    .timeTakenInMs(timeTaken)
+                    .requestCharge(page == null ? 0.0 : page.requestCharge)
+                    .resultCode(statusCode)
+                    .success(statusCode == HttpStatus.SC_OK)
+                    .build();
+            dependencyLogger.logDependency(options);
+        }
+
+        String nextCursor = page.continuation == null ? null
+                : new CosmosQueryCursor(pageNumber + 1, page.continuation, queryFingerprint).encode(pagingConfiguration.getCursorCompressionThreshold());
+        long total = getPageTotal(pageNumber, pageSize, page);
+        if (countQuery != null) {
+            total = Math.max(total, getApproximateTotalCount(dataPartitionId, cosmosDBName, collection, container, countQuery));
+        }
+        return new PageImpl<>(page.results, CosmosStorePageRequest.of(pageNumber, pageSize, nextCursor), total);
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param item            Data object to store
+     * @param requestOptions  Request options
+     * @param <T>             Type of item
+     * @return ETag of the replaced item
+     */
+    private <T> String replaceItemInternal(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey,
+            final T item,
+            final CosmosItemRequestOptions requestOptions) {
+        final long start = System.currentTimeMillis();
+        int statusCode = HttpStatus.SC_OK;
+        double requestCharge = 0.0;
+        try {
+            CosmosContainer cosmosContainer = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
+            PartitionKey key = new PartitionKey(partitionKey);
+            CosmosItemResponse<T> response = cosmosContainer.replaceItem(item, id, key, requestOptions);
+            requestCharge = response.getRequestCharge();
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("REPLACE_ITEM with id=%s and partition_key=%s", id, partitionKey));
+            return response.getETag();
+        } catch (NotFoundException e) {
+            statusCode = e.getStatusCode();
+            String errorMessage = "Item was unexpectedly not found";
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+            throw new AppException(404, errorMessage, e.getMessage(), e);
+        } catch (CosmosException e) {
+            statusCode = e.getStatusCode();
+            if (statusCode == HttpStatus.SC_PRECONDITION_FAILED) {
+                throw handlePreconditionFailed(id, partitionKey, e);
+            }
+            String errorMessage = "Unexpectedly failed to replace item into CosmosDB";
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+            throw new AppException(500, errorMessage, e.getMessage(), e);
+        } finally {
+            invalidateQueryResults(dataPartitionId, cosmosDBName, collection);
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
+            final String dependencyData = String.format("id=%s partition_key=%s", id, partitionKey) + getWriteModeData(requestOptions);
+            final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
+                    .type(COSMOS_STORE)
+                    .name("REPLACE_ITEM")
+                    .data(dependencyData)
+                    .target(dependencyTarget)
+                    .timeTakenInMs(timeTaken)
+                    .requestCharge(requestCharge)
+                    .resultCode(statusCode)
+                    .success(statusCode == HttpStatus.SC_OK)
+                    .build();
+            dependencyLogger.logDependency(options);
+        }
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param requestOptions  Request options
+     * @param clazz           Class to serialize results into
+     * @param <T>             Type to return
+     * @return The item and its ETag, empty if the item was not modified
+     */
+    private <T> Optional<CosmosVersionedItem<T>> findVersionedItemInternal(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey,
+            final CosmosItemRequestOptions requestOptions,
+            final Class<T> clazz) {
+        CosmosContainer container = getCosmosContainer(dataPartitionId, cosmosDBName, collection);
+        final long start = System.currentTimeMillis();
+        double requestCharge = 0.0;
+        int statusCode = HttpStatus.SC_OK;
+        try {
+            CosmosItemResponse<T> cosmosItemResponse = container.readItem(id, new PartitionKey(partitionKey), requestOptions, clazz);
+            requestCharge = cosmosItemResponse.getRequestCharge();
+            if (cosmosItemResponse.getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("READ_ITEM with id=%s and partition_key=%s not modified", id, partitionKey));
+                return Optional.empty();
             }
-            currentPageSize = currentPageSize - results.size();
-        } while (!Strings.isNullOrEmpty(internalContinuationToken) && currentPageSize > 0);
-
-        final long timeTaken = System.currentTimeMillis() - start;
-        final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
-        final String dependencyData = String.format("query=%s", query.getQueryText());
-        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Done. Retrieved {} results", results.size());
-        final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
-                .type(COSMOS_STORE)
-                .name("QUERY_ITEMS_PAGE")
-                .data(dependencyData)
-                .target(dependencyTarget)
-                .timeTakenInMs(timeTaken)
-                .requestCharge(requestCharge)
-                .resultCode(HttpStatus.SC_OK)
-                .success(true)
-                .build();
-        dependencyLogger.logDependency(options);
-
-        CosmosStorePageRequest pageRequest = CosmosStorePageRequest.of(currentPageNumber, pageSize, internalContinuationToken);
-        return new PageImpl(results, pageRequest, documentNumber);
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("READ_ITEM with id=%s and partition_key=%s", id, partitionKey));
+            return Optional.of(new CosmosVersionedItem<>(cosmosItemResponse.getItem(), cosmosItemResponse.getETag()));
+        } catch (NotFoundException e) {
+            statusCode = HttpStatus.SC_NOT_FOUND;
+            throw e;
+        } catch (CosmosException e) {
+            statusCode = e.getStatusCode();
+            if (statusCode == HttpStatus.SC_NOT_MODIFIED) {
+                return Optional.empty();
+            }
+            String errorMessage = "Unexpectedly encountered error calling CosmosDB";
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+            throw new AppException(500, errorMessage, e.getMessage(), e);
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
+            final String dependencyData = String.format("id=%s partition_key=%s", id, partitionKey);
+            final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
+                    .type(COSMOS_STORE)
+                    .name("READ_ITEM")
+                    .data(dependencyData)
+                    .target(dependencyTarget)
+                    .timeTakenInMs(timeTaken)
+                    .requestCharge(requestCharge)
+                    .resultCode(statusCode)
+                    .success(statusCode == HttpStatus.SC_OK || statusCode == HttpStatus.SC_NOT_MODIFIED)
+                    .build();
+            dependencyLogger.logDependency(options);
+        }
     }
 
     /**
@@ -678,26 +1555,29 @@ public class CosmosStore {
     }
 
     /**
-     * @param cosmosDBName Database name
-     * @param collection   Collection name
-     * @param container    Cosmos container
-     * @param id           ID of item
-     * @param partitionKey Partition key of item
-     * @param <T>          Type of item
+     * @param dataPartitionId Data partition id, null for the system container
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param container       Cosmos container
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param requestOptions  Request options
+     * @param <T>             Type of item
      */
     private <T> void deleteItemInternal(
+            final String dataPartitionId,
             final String cosmosDBName,
             final String collection,
             final CosmosContainer container,
             final String id,
-            final String partitionKey) {
+            final String partitionKey,
+            final CosmosItemRequestOptions requestOptions) {
         final long start = System.currentTimeMillis();
         int statusCode = HttpStatus.SC_OK;
         double requestCharge = 0.0;
         try {
             PartitionKey key = new PartitionKey(partitionKey);
-            CosmosItemRequestOptions options = new CosmosItemRequestOptions();
-            CosmosItemResponse<Object> response = container.deleteItem(id, key, options);
+            CosmosItemResponse<Object> response = container.deleteItem(id, key, requestOptions);
             requestCharge = response.getRequestCharge();
             CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("DELETE_ITEM with id=%s and partition_key=%s", id, partitionKey));
         } catch (NotFoundException e) {
@@ -707,10 +1587,14 @@ public class CosmosStore {
             throw new AppException(404, errorMessage, e.getMessage(), e);
         } catch (CosmosException e) {
             statusCode = e.getStatusCode();
+            if (statusCode == HttpStatus.SC_PRECONDITION_FAILED) {
+                throw handlePreconditionFailed(id, partitionKey, e);
+            }
             String errorMessage = "Unexpectedly failed to delete item from CosmosDB";
             CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
             throw new AppException(500, errorMessage, e.getMessage(), e);
         } finally {
+            invalidateQueryResults(dataPartitionId, cosmosDBName, collection);
             final long timeTaken = System.currentTimeMillis() - start;
             final String dependencyTarget = DependencyLogger.getCosmosDependencyTarget(cosmosDBName, collection);
             final String dependencyData = String.format("id=%s partition_key=%s", id, partitionKey);
@@ -729,31 +1613,38 @@ public class CosmosStore {
     }
 
     /**
-     * @param cosmosDBName Database name
-     * @param collection   Collection name
-     * @param container    Cosmos container.
-     * @param partitionKey Partition key of item
-     * @param item         Data object to store
-     * @param <T>          Type of item
+     * @param dataPartitionId Data partition id, null for the system container
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param container       Cosmos container.
+     * @param partitionKey    Partition key of item
+     * @param item            Data object to store
+     * @param requestOptions  Request options
+     * @param <T>             Type of item
+     * @return ETag of the upserted item
      */
-    private <T> void upsertItemInternal(
+    private <T> String upsertItemInternal(
+            final String dataPartitionId,
             final String cosmosDBName,
             final String collection,
             final CosmosContainer container,
             final String partitionKey,
-            final T item) {
+            final T item,
+            final CosmosItemRequestOptions requestOptions) {
         final long start = System.currentTimeMillis();
         int statusCode = HttpStatus.SC_OK;
         double requestCharge = 0.0;
         try {
             PartitionKey key = new PartitionKey(partitionKey);
-            CosmosItemRequestOptions options = new CosmosItemRequestOptions();
-            CosmosItemResponse<T> response = container.upsertItem(item, key, options);
+            CosmosItemResponse<T> response = container.upsertItem(item, key, requestOptions);
             requestCharge = response.getRequestCharge();
             CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("UPSERT_ITEM with partition_key=%s", partitionKey));
+            return response.getETag();
         } catch (CosmosException e) {
             statusCode = e.getStatusCode();
-            if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS) {
+            if (statusCode == HttpStatus.SC_PRECONDITION_FAILED) {
+                throw handlePreconditionFailed(null, partitionKey, e);
+            } else if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS) {
                 throw new RequestRateTooLargeException();
             } else {
                 String errorMessage = "Unexpectedly failed to put item into CosmosDB";
@@ -761,9 +1652,10 @@ public class CosmosStore {
                 throw new AppException(500, errorMessage, e.getMessage(), e);
             }
         } finally {
+            invalidateQueryResults(dataPartitionId, cosmosDBName, collection);
             final long timeTaken = System.currentTimeMillis() - start;
             final String dependencyTarget = DependencyLogger.getCosmosDependencyTarget(cosmosDBName, collection);
-            final String dependencyData = String.format("partition_key=%s", partitionKey);
+            final String dependencyData = String.format("partition_key=%s", partitionKey) + getWriteModeData(requestOptions);
             final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
                     .type(COSMOS_STORE)
                     .name("UPSERT_ITEM")
@@ -779,26 +1671,29 @@ public class CosmosStore {
     }
 
     /**
-     * @param cosmosDBName Database name
-     * @param collection   Collection name
-     * @param container    Cosmos container
-     * @param partitionKey Partition key of item
-     * @param item         Data object to store
-     * @param <T>          Type of item
+     * @param dataPartitionId Data partition id, null for the system container
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param container       Cosmos container
+     * @param partitionKey    Partition key of item
+     * @param item            Data object to store
+     * @param requestOptions  Request options
+     * @param <T>             Type of item
      */
     private <T> void createItemInternal(
+            final String dataPartitionId,
             final String cosmosDBName,
             final String collection,
             final CosmosContainer container,
             final String partitionKey,
-            final T item) {
+            final T item,
+            final CosmosItemRequestOptions requestOptions) {
         final long start = System.currentTimeMillis();
         int statusCode = HttpStatus.SC_OK;
         double requestCharge = 0.0;
         try {
             PartitionKey key = new PartitionKey(partitionKey);
-            CosmosItemRequestOptions options = new CosmosItemRequestOptions();
-            CosmosItemResponse<T> response = container.createItem(item, key, options);
+            CosmosItemResponse<T> response = container.createItem(item, key, requestOptions);
             requestCharge = response.getRequestCharge();
             CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug(String.format("CREATE_ITEM with partition_key=%s", partitionKey));
         } catch (ConflictException e) {
@@ -812,9 +1707,10 @@ public class CosmosStore {
             CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
             throw new AppException(500, errorMessage, e.getMessage(), e);
         } finally {
+            invalidateQueryResults(dataPartitionId, cosmosDBName, collection);
             final long timeTaken = System.currentTimeMillis() - start;
             final String dependencyTarget = DependencyLogger.getCosmosDependencyTarget(cosmosDBName, collection);
-            final String dependencyData = String.format("partition_key=%s", partitionKey);
+            final String dependencyData = String.format("partition_key=%s", partitionKey) + getWriteModeData(requestOptions);
             final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
                     .type(COSMOS_STORE)
                     .name("CREATE_ITEM")
@@ -874,6 +1770,105 @@ public class CosmosStore {
         return results;
     }
 
+    /**
+     * @param cosmosDBName Database name
+     * @param collection   Collection name
+     * @param container    Cosmos container
+     * @param query        {@link SqlQuerySpec} to execute
+     * @param options      Options
+     * @param clazz        Class type of response
+     * @param <T>          Type
+     * @return Stream<T> Lazily populated stream of items found
+     */
+    private <T> Stream<T> queryItemsStreamInternal(
+            final String cosmosDBName,
+            final String collection,
+            final CosmosContainer container,
+            final SqlQuerySpec query,
+            final CosmosQueryRequestOptions options,
+            final Class<T> clazz) {
+        final long start = System.currentTimeMillis();
+        CosmosPagedIterable<T> paginatedResponse = container.queryItems(query, options, clazz);
+        CosmosQueryResultIterator<T> iterator = new CosmosQueryResultIterator<>(paginatedResponse.iterableByPage(PREFERRED_PAGE_SIZE).iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    final long timeTaken = System.currentTimeMillis() - start;
+                    final String dependencyTarget = DependencyLogger.getCosmosDependencyTarget(cosmosDBName, collection);
+                    final String dependencyData = String.format("query=%s", query.getQueryText());
+                    CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).debug("Stream closed. Retrieved {} results in {} page(s)", iterator.getItemCount(), iterator.getPageCount());
+                    final DependencyLoggingOptions loggingOptions = DependencyLoggingOptions.builder()
+                            .type(COSMOS_STORE)
+                            .name("QUERY_ITEMS_STREAM")
+                            .data(dependencyData)
+                            .target(dependencyTarget)
+                            .timeTakenInMs(timeTaken)
+                            .requestCharge(iterator.getRequestCharge())
+                            .resultCode(iterator.getStatusCode())
+                            .success(iterator.getStatusCode() == HttpStatus.SC_OK)
+                            .build();
+                    dependencyLogger.logDependency(loggingOptions);
+                });
+    }
+
+    /**
+     * Drains a single partition key range of a fan-out query and reports its latency and request charge.
+     *
+     * @param dataPartitionId      Data partition id
+     * @param cosmosDBName         Database name
+     * @param collection           Collection name
+     * @param container            Cosmos async container
+     * @param query                {@link SqlQuerySpec} to execute
+     * @param range                Feed range to query
+     * @param maxBufferedItemCount Max number of items buffered for the range
+     * @param totalRequestCharge   Accumulator for the request charge across all ranges
+     * @param clazz                Class type of response
+     * @param <T>                  Type
+     * @return Mono<List<T>> Items found in the range
+     */
+    private <T> Mono<List<T>> queryFeedRange(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final CosmosAsyncContainer container,
+            final SqlQuerySpec query,
+            final FeedRange range,
+            final int maxBufferedItemCount,
+            final double[] totalRequestCharge,
+            final Class<T> clazz) {
+        return Mono.defer(() -> {
+            final long start = System.currentTimeMillis();
+            final double[] requestCharge = {0.0};
+            final int[] statusCode = {HttpStatus.SC_OK};
+            CosmosQueryRequestOptions options = new CosmosQueryRequestOptions()
+                    .setFeedRange(range)
+                    .setMaxBufferedItemCount(maxBufferedItemCount);
+            return container.queryItems(query, options, clazz).byPage(PREFERRED_PAGE_SIZE)
+                    .doOnNext(page -> requestCharge[0] += page.getRequestCharge())
+                    .concatMapIterable(FeedResponse::getResults)
+                    .collectList()
+                    .doOnError(e -> statusCode[0] = e instanceof CosmosException ? ((CosmosException) e).getStatusCode() : HttpStatus.SC_INTERNAL_SERVER_ERROR)
+                    .doFinally(signal -> {
+                        synchronized (totalRequestCharge) {
+                            totalRequestCharge[0] += requestCharge[0];
+                        }
+                        final long timeTaken = System.currentTimeMillis() - start;
+                        final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
+                        final String dependencyData = String.format("range=%s query=%s", range, query.getQueryText());
+                        final DependencyLoggingOptions loggingOptions = DependencyLoggingOptions.builder()
+                                .type(COSMOS_STORE)
+                                .name("QUERY_ITEMS_FANOUT_RANGE")
+                                .data(dependencyData)
+                                .target(dependencyTarget)
+                                .timeTakenInMs(timeTaken)
+                                .requestCharge(requestCharge[0])
+                                .resultCode(statusCode[0])
+                                .success(statusCode[0] == HttpStatus.SC_OK)
+                                .build();
+                        dependencyLogger.logDependency(loggingOptions);
+                    });
+        });
+    }
+
     /**
      * @param dataPartitionId Data partition id
      * @param cosmosDBName    Database name
@@ -885,9 +1880,7 @@ public class CosmosStore {
             final String cosmosDBName,
             final String collection) {
         try {
-            return cosmosClientFactory.getClient(dataPartitionId)
-                    .getDatabase(cosmosDBName)
-                    .getContainer(collection);
+            return cosmosClientFactory.getContainer(dataPartitionId, cosmosDBName, collection);
         } catch (AppException ae) {
             throw this.handleCosmosStoreException(ae.getError().getCode(), "Error creating creating Cosmos Client", ae);
         } catch (Exception e) {
@@ -904,9 +1897,7 @@ public class CosmosStore {
             final String cosmosDBName,
             final String collection) {
         try {
-            return cosmosClientFactory.getSystemClient()
-                    .getDatabase(cosmosDBName)
-                    .getContainer(collection);
+            return cosmosClientFactory.getSystemContainer(cosmosDBName, collection);
         } catch (AppException ae) {
             throw this.handleCosmosStoreException(ae.getError().getCode(), "Error creating creating Cosmos Client", ae);
         } catch (Exception e) {
@@ -926,6 +1917,269 @@ public class CosmosStore {
         return String.format("%s:%s/%s", partitionId, databaseName, collection);
     }
 
+    /**
+     * Drops the cached query results of the collection after a write through this store. This runs whether the write
+     * succeeded or not, since a failed request may still have been applied.
+     *
+     * @param dataPartitionId Data partition id, null for the system container
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     */
+    private void invalidateQueryResults(final String dataPartitionId, final String cosmosDBName, final String collection) {
+        if (queryResultCache.isEnabled(collection)) {
+            queryResultCache.invalidate(dataPartitionId == null
+                    ? DependencyLogger.getCosmosDependencyTarget(cosmosDBName, collection)
+                    : getDependencyTarget(dataPartitionId, cosmosDBName, collection));
+        }
+    }
+
+    /**
+     * Reads one logical page of exactly pageSize items, fewer only on the last page. The query returns feed pages of
+     * at most the requested size that may hold fewer, e.g. when a request hits its RU or time budget. Empty feed pages
+     * are skipped on the same iterator, after a short one the query is reopened at its continuation for only the
+     * missing items, so the page never overshoots.
+     *
+     * @param container         Cosmos container
+     * @param query             {@link SqlQuerySpec} to execute
+     * @param queryOptions      Query options
+     * @param clazz             Class type
+     * @param continuationToken Continuation token to start at, null or empty for the first page
+     * @param pageSize          Page size
+     * @param <T>               Type
+     * @return the items of the page, the continuation token of the next one and the request charge of all sub-pages
+     */
+    private static <T> PageReadResult<T> readPage(
+            final CosmosContainer container,
+            final SqlQuerySpec query,
+            final CosmosQueryRequestOptions queryOptions,
+            final Class<T> clazz,
+            final String continuationToken,
+            final int pageSize) {
+        PageReadResult<T> page = new PageReadResult<>();
+        int requested = pageSize;
+        Iterator<FeedResponse<T>> subPages = container.queryItems(query, queryOptions, clazz)
+                .iterableByPage(continuationToken, requested).iterator();
+        while (subPages.hasNext()) {
+            FeedResponse<T> subPage = subPages.next();
+            page.subPages++;
+            page.requestCharge += subPage.getRequestCharge();
+            page.results.addAll(subPage.getResults());
+            page.continuation = Strings.emptyToNull(subPage.getContinuationToken());
+            final int missing = pageSize - page.results.size();
+            if (page.continuation == null || missing <= 0) {
+                break;
+            }
+            if (missing < requested) {
+                requested = missing;
+                subPages = container.queryItems(query, queryOptions, clazz)
+                        .iterableByPage(page.continuation, requested).iterator();
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Async counterpart of {@link #readPage}. Every feed page asks for only the items still missing, so the page never
+     * overshoots.
+     *
+     * @param query             the query to read
+     * @param continuationToken Continuation token to start at, null or empty for the first page
+     * @param pageSize          Page size
+     * @param <T>               Type
+     * @return the items of the page, the continuation token of the next one and the request charge of all sub-pages
+     */
+    private static <T> PageReadResult<T> readPageAsync(
+            final CosmosPagedFlux<T> query,
+            final String continuationToken,
+            final int pageSize) {
+        PageReadResult<T> page = new PageReadResult<>();
+        page.continuation = Strings.emptyToNull(continuationToken);
+        do {
+            final int missing = pageSize - page.results.size();
+            FeedResponse<T> subPage = (page.continuation == null ? query.byPage(missing) : query.byPage(page.continuation, missing))
+                    .blockFirst();
+            if (subPage == null) {
+                page.continuation = null;
+                break;
+            }
+            page.subPages++;
+            page.requestCharge += subPage.getRequestCharge();
+            page.results.addAll(subPage.getResults());
+            page.continuation = Strings.emptyToNull(subPage.getContinuationToken());
+        } while (page.continuation != null && page.results.size() < pageSize);
+        return page;
+    }
+
+    /**
+     * @param pageNumber  zero based number of the page
+     * @param pageSize    Page size
+     * @param page        the page read
+     * @return the items seen so far, plus one while another page follows, so {@link Page#hasNext()} holds without a count
+     */
+    private static long getPageTotal(final int pageNumber, final int pageSize, final PageReadResult<?> page) {
+        return (long) pageNumber * pageSize + page.results.size() + (page.continuation == null ? 0 : 1);
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param container       Cosmos container
+     * @param countQuery      {@link SqlQuerySpec} returning the count
+     * @return the count, reused from the cache while it is fresh
+     */
+    private long getApproximateTotalCount(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final CosmosContainer container,
+            final SqlQuerySpec countQuery) {
+        final String key = getQueryKey(dataPartitionId, cosmosDBName, collection, countQuery);
+        final long now = System.currentTimeMillis();
+        CachedCount cached;
+        synchronized (totalCounts) {
+            cached = totalCounts.get(key);
+        }
+        if (cached != null && cached.expiresAt > now) {
+            return cached.count;
+        }
+
+        final long start = System.currentTimeMillis();
+        int statusCode = HttpStatus.SC_OK;
+        double requestCharge = 0.0;
+        long count = 0;
+        try {
+            // cross partition counts may come back as one partial count per page
+            for (FeedResponse<Long> page : container.queryItems(countQuery, new CosmosQueryRequestOptions(), Long.class).iterableByPage()) {
+                requestCharge += page.getRequestCharge();
+                for (Long partialCount : page.getResults()) {
+                    count += partialCount == null ? 0 : partialCount;
+                }
+            }
+        } catch (CosmosException e) {
+            statusCode = e.getStatusCode();
+            String errorMessage = "Unexpectedly encountered error calling CosmosDB";
+            CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+            throw new AppException(500, errorMessage, e.getMessage(), e);
+        } finally {
+            final long timeTaken = System.currentTimeMillis() - start;
+            final String dependencyTarget = getDependencyTarget(dataPartitionId, cosmosDBName, collection);
+            final String dependencyData = String.format("query=%s", countQuery.getQueryText());
+            final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
+                    .type(COSMOS_STORE)
+                    .name("COUNT_ITEMS")
+                    .data(dependencyData)
+                    .target(dependencyTarget)
+                    .timeTakenInMs(timeTaken)
+                    .requestCharge(requestCharge)
+                    .resultCode(statusCode)
+                    .success(statusCode == HttpStatus.SC_OK)
+                    .build();
+            dependencyLogger.logDependency(options);
+        }
+
+        synchronized (totalCounts) {
+            totalCounts.put(key, new CachedCount(count, now + pagingConfiguration.getTotalCountTtl().toMillis()));
+            if (totalCounts.size() > pagingConfiguration.getTotalCountCacheSize()) {
+                totalCounts.values().removeIf(entry -> entry.expiresAt <= now);
+            }
+            while (totalCounts.size() > pagingConfiguration.getTotalCountCacheSize()) {
+                totalCounts.remove(totalCounts.keySet().iterator().next());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param query           {@link SqlQuerySpec}
+     * @param options         Options
+     * @param clazz           Class type of response
+     * @return key of the query result in the query result cache
+     */
+    private static String getResultCacheKey(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final SqlQuerySpec query,
+            final CosmosQueryRequestOptions options,
+            final Class<?> clazz) {
+        return getQueryKey(dataPartitionId, cosmosDBName, collection, query)
+                + "|pk=" + (options == null ? null : options.getPartitionKey())
+                + "|range=" + (options == null ? null : options.getFeedRange())
+                + "|" + clazz.getName();
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param query           {@link SqlQuerySpec}
+     * @return key identifying the query and its parameters on the collection
+     */
+    private static String getQueryKey(final String dataPartitionId, final String cosmosDBName, final String collection, final SqlQuerySpec query) {
+        StringBuilder key = new StringBuilder(dataPartitionId).append(':').append(cosmosDBName).append('/').append(collection)
+                .append('|').append(query.getQueryText());
+        for (SqlParameter parameter : query.getParameters()) {
+            key.append('|').append(parameter.getName()).append('=').append(parameter.getValue(Object.class));
+        }
+        return key.toString();
+    }
+
+    /**
+     * @param writeMode requested write mode, {@link CosmosWriteMode#DEFAULT} for the configured one
+     * @return request options for a create, upsert or replace
+     */
+    private CosmosItemRequestOptions newWriteRequestOptions(final CosmosWriteMode writeMode) {
+        boolean contentResponseOnWriteEnabled;
+        if (writeMode == CosmosWriteMode.CONTENT_RESPONSE_ON) {
+            contentResponseOnWriteEnabled = true;
+        } else if (writeMode == CosmosWriteMode.CONTENT_RESPONSE_OFF) {
+            contentResponseOnWriteEnabled = false;
+        } else {
+            contentResponseOnWriteEnabled = writeConfiguration.isContentResponseOnWriteEnabled();
+        }
+        return new CosmosItemRequestOptions().setContentResponseOnWriteEnabled(contentResponseOnWriteEnabled);
+    }
+
+    /**
+     * @param requestOptions request options of a write
+     * @return write mode suffix of the dependency data
+     */
+    private static String getWriteModeData(final CosmosItemRequestOptions requestOptions) {
+        return String.format(" content_response_on_write=%b", Boolean.TRUE.equals(requestOptions.isContentResponseOnWriteEnabled()));
+    }
+
+    /**
+     * @param statusCode Status code of a failed batch operation
+     * @return Status code of the AppException reporting it
+     */
+    private static int getBatchFailureStatus(final int statusCode) {
+        switch (statusCode) {
+            case HttpStatus.SC_NOT_FOUND:
+            case HttpStatus.SC_CONFLICT:
+            case HttpStatus.SC_PRECONDITION_FAILED:
+            case HttpStatus.SC_REQUEST_TOO_LONG:
+                return statusCode;
+            default:
+                return HttpStatus.SC_INTERNAL_SERVER_ERROR;
+        }
+    }
+
+    /**
+     * @param id           ID of item, null if unknown
+     * @param partitionKey Partition key of item
+     * @param e            Original exception
+     * @return Exception reporting the failed precondition
+     */
+    private CosmosPreconditionFailedException handlePreconditionFailed(final String id, final String partitionKey, final CosmosException e) {
+        String errorMessage = String.format("Item with id=%s and partition_key=%s was modified concurrently", id, partitionKey);
+        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+        return new CosmosPreconditionFailedException(errorMessage, e);
+    }
+
     /**
      * Logs and returns instance of AppException.
      *
@@ -938,4 +2192,33 @@ public class CosmosStore {
         CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
         return new AppException(status, errorMessage, e.getMessage(), e);
     }
+
+    /**
+     * A total count and the time it expires.
+     */
+    private static final class CachedCount {
+        private final long count;
+        private final long expiresAt;
+
+        /**
+         * @param count     the count
+         * @param expiresAt time in ms the count expires
+         */
+        CachedCount(final long count, final long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Items, continuation token and request charge of a logical page read by {@link #readPage}.
+     *
+     * @param <T> Type of the items
+     */
+    private static final class PageReadResult<T> {
+        private final List<T> results = new ArrayList<>();
+        private String continuation;
+        private double requestCharge;
+        private int subPages;
+    }
 }
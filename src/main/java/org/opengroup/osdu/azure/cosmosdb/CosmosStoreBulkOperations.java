@@ -1,10 +1,11 @@
 package org.opengroup.osdu.azure.cosmosdb;
 
-import com.azure.cosmos.CosmosClient;
+import com.azure.cosmos.CosmosAsyncContainer;
 import com.azure.cosmos.CosmosContainer;
 import com.azure.cosmos.CosmosException;
 import com.azure.cosmos.models.CosmosBulkExecutionOptions;
 import com.azure.cosmos.models.CosmosBulkItemResponse;
+import com.azure.cosmos.models.CosmosBulkOperationResponse;
 import com.azure.cosmos.models.CosmosBulkOperations;
 import com.azure.cosmos.models.CosmosItemOperation;
 import com.azure.cosmos.models.CosmosPatchOperations;
@@ -18,6 +19,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.ArrayList;
@@ -25,6 +28,10 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.opengroup.osdu.azure.logging.DependencyType.COSMOS_STORE;
 
@@ -36,6 +43,10 @@ import static org.opengroup.osdu.azure.logging.DependencyType.COSMOS_STORE;
 public class CosmosStoreBulkOperations {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CosmosStoreBulkOperations.class.getName());
+    private static final long REDRIVE_BASE_DELAY_MS = 100;
+    private static final long REDRIVE_MAX_DELAY_MS = 30000;
+    // REDRIVE_BASE_DELAY_MS << 9 already exceeds REDRIVE_MAX_DELAY_MS, larger shifts would overflow
+    private static final int REDRIVE_MAX_BACKOFF_SHIFT = 9;
 
     @Autowired
     private DependencyLogger dependencyLogger;
@@ -43,6 +54,9 @@ public class CosmosStoreBulkOperations {
     @Autowired
     private ICosmosClientFactory cosmosClientFactory;
 
+    @Autowired
+    private CosmosBulkThroughputController throughputController;
+
     /**
      * Bulk upserts item into cosmos collection using CosmosClient.
      * Partition Keys must be provided in the same order as records.
@@ -67,7 +81,8 @@ public class CosmosStoreBulkOperations {
         for (int i = 0; i < docs.size(); i++) {
             cosmosItemOperations.add(CosmosBulkOperations.getUpsertItemOperation(docs.get(i), new PartitionKey(partitionKeys.get(i))));
         }
-        performBulkOperation(dataPartitionId, cosmosDBName, collectionName, cosmosItemOperations, partitionKeys, maxConcurrencyPerPartitionRange, "upsert");
+        performBulkOperation(dataPartitionId, cosmosDBName, collectionName, cosmosItemOperations, partitionKeys, maxConcurrencyPerPartitionRange, "upsert",
+                new CosmosBulkResult(), response -> { });
     }
 
 
@@ -96,7 +111,8 @@ public class CosmosStoreBulkOperations {
             cosmosItemOperations.add(CosmosBulkOperations.getPatchItemOperation(docId, new PartitionKey(partitionKeyForDoc.get(docId)), cosmosPatchOperationsPerDoc.get(docId)));
         }
 
-        performBulkOperation(dataPartitionId, cosmosDBName, collectionName, cosmosItemOperations, new ArrayList(partitionKeyForDoc.values()), maxConcurrencyPerPartitionRange, "patch");
+        performBulkOperation(dataPartitionId, cosmosDBName, collectionName, cosmosItemOperations, new ArrayList(partitionKeyForDoc.values()), maxConcurrencyPerPartitionRange, "patch",
+                new CosmosBulkResult(), response -> { });
     }
 
 
@@ -122,7 +138,310 @@ public class CosmosStoreBulkOperations {
         cosmosPatchOperationsPerDoc.forEach((docId, operations) ->
                 operations.forEach(operation -> cosmosItemOperations.add(CosmosBulkOperations.getPatchItemOperation(docId, new PartitionKey(partitionKeyForDoc.get(docId)), operation))));
 
-        performBulkOperation(dataPartitionId, cosmosDBName, collectionName, cosmosItemOperations, new ArrayList<>(partitionKeyForDoc.values()), maxConcurrencyPerPartitionRange, "patch");
+        performBulkOperation(dataPartitionId, cosmosDBName, collectionName, cosmosItemOperations, new ArrayList<>(partitionKeyForDoc.values()), maxConcurrencyPerPartitionRange, "patch",
+                new CosmosBulkResult(), response -> { });
+    }
+
+    /**
+     * Bulk deletes items from cosmos collection using CosmosClient. Items that do not exist are skipped, so a purge
+     * that was interrupted can simply be run again.
+     *
+     * @param dataPartitionId                 name of data partition.
+     * @param cosmosDBName                    name of Cosmos db.
+     * @param collectionName                  name of collection in Cosmos.
+     * @param partitionKeyForDoc              Partition keys corresponding to the id of each document to delete
+     * @param maxConcurrencyPerPartitionRange concurrency per partition (1-5)
+     */
+    public final void bulkDeleteWithCosmosClient(final String dataPartitionId,
+                                                 final String cosmosDBName,
+                                                 final String collectionName,
+                                                 final Map<String, String> partitionKeyForDoc,
+                                                 final int maxConcurrencyPerPartitionRange) {
+        List<CosmosItemOperation> cosmosItemOperations = new ArrayList<>();
+        partitionKeyForDoc.forEach((docId, partitionKey) ->
+                cosmosItemOperations.add(CosmosBulkOperations.getDeleteItemOperation(docId, new PartitionKey(partitionKey))));
+
+        performBulkOperation(dataPartitionId, cosmosDBName, collectionName, cosmosItemOperations, new ArrayList<>(partitionKeyForDoc.values()), maxConcurrencyPerPartitionRange, "delete",
+                new CosmosBulkResult(true), response -> { });
+    }
+
+    /**
+     * Bulk reads items from cosmos collection using CosmosClient. Items that do not exist are left out of the result.
+     *
+     * @param dataPartitionId                 name of data partition.
+     * @param cosmosDBName                    name of Cosmos db.
+     * @param collectionName                  name of collection in Cosmos.
+     * @param partitionKeyForDoc              Partition keys corresponding to the id of each document to read
+     * @param clazz                           Class type of the documents
+     * @param maxConcurrencyPerPartitionRange concurrency per partition (1-5)
+     * @param <T>                             Type of object being bulk read.
+     * @return the documents found, in no particular order
+     */
+    public final <T> List<T> bulkReadWithCosmosClient(final String dataPartitionId,
+                                                      final String cosmosDBName,
+                                                      final String collectionName,
+                                                      final Map<String, String> partitionKeyForDoc,
+                                                      final Class<T> clazz,
+                                                      final int maxConcurrencyPerPartitionRange) {
+        List<CosmosItemOperation> cosmosItemOperations = new ArrayList<>();
+        partitionKeyForDoc.forEach((docId, partitionKey) ->
+                cosmosItemOperations.add(CosmosBulkOperations.getReadItemOperation(docId, new PartitionKey(partitionKey))));
+
+        List<T> items = new ArrayList<>();
+        performBulkOperation(dataPartitionId, cosmosDBName, collectionName, cosmosItemOperations, new ArrayList<>(partitionKeyForDoc.values()), maxConcurrencyPerPartitionRange, "read",
+                new CosmosBulkResult(true), response -> {
+                    if (response.getResponse() != null && response.getResponse().isSuccessStatusCode()) {
+                        items.add(response.getResponse().getItem(clazz));
+                    }
+                });
+        return items;
+    }
+
+    /**
+     * Executes the given operations and reports the outcome of each one instead of failing on the first error.
+     * See {@link #executeBulkOperations(String, String, String, List, int, int, Consumer)}.
+     *
+     * @param dataPartitionId                 name of data partition.
+     * @param cosmosDBName                    name of Cosmos db.
+     * @param collectionName                  name of collection in Cosmos.
+     * @param cosmosItemOperations            operations to execute
+     * @param maxConcurrencyPerPartitionRange concurrency per partition (1-5)
+     * @param maxRedriveAttempts              number of times throttled operations are resubmitted, 0 to disable
+     * @return the succeeded, failed and still throttled operations
+     */
+    public final CosmosBulkResult executeBulkOperations(final String dataPartitionId,
+                                                        final String cosmosDBName,
+                                                        final String collectionName,
+                                                        final List<CosmosItemOperation> cosmosItemOperations,
+                                                        final int maxConcurrencyPerPartitionRange,
+                                                        final int maxRedriveAttempts) {
+        return executeBulkOperations(dataPartitionId, cosmosDBName, collectionName, cosmosItemOperations, maxConcurrencyPerPartitionRange, maxRedriveAttempts, result -> { });
+    }
+
+    /**
+     * Executes the given operations and reports the outcome of each one instead of failing on the first error.
+     * Operations throttled with 429 are resubmitted on their own, up to maxRedriveAttempts times. Before each
+     * re-drive the executor waits for the longest retry-after hint returned by Cosmos, or an exponentially growing
+     * delay if that is longer, and halves the micro batch concurrency. Each attempt is logged as a BULK_ITEMS
+     * dependency and passed to the progress listener.
+     *
+     * @param dataPartitionId                 name of data partition.
+     * @param cosmosDBName                    name of Cosmos db.
+     * @param collectionName                  name of collection in Cosmos.
+     * @param cosmosItemOperations            operations to execute
+     * @param maxConcurrencyPerPartitionRange concurrency per partition (1-5)
+     * @param maxRedriveAttempts              number of times throttled operations are resubmitted, 0 to disable
+     * @param progressListener                called with the cumulative result after every attempt
+     * @return the succeeded, failed and still throttled operations
+     */
+    public final CosmosBulkResult executeBulkOperations(final String dataPartitionId,
+                                                        final String cosmosDBName,
+                                                        final String collectionName,
+                                                        final List<CosmosItemOperation> cosmosItemOperations,
+                                                        final int maxConcurrencyPerPartitionRange,
+                                                        final int maxRedriveAttempts,
+                                                        final Consumer<CosmosBulkResult> progressListener) {
+        CosmosContainer container;
+        try {
+            container = cosmosClientFactory.getContainer(dataPartitionId, cosmosDBName, collectionName);
+        } catch (Exception e) {
+            LOGGER.error("Failed to get container for bulk operations. Exception: ", e);
+            int status = (e instanceof AppException) ? ((AppException) e).getError().getCode() : 500;
+            throw new AppException(status, "Unexpectedly failed to execute bulk operations", e.getMessage(), e);
+        }
+
+        CosmosBulkResult result = new CosmosBulkResult();
+        List<CosmosItemOperation> pending = cosmosItemOperations;
+        int concurrency = maxConcurrencyPerPartitionRange;
+        try {
+            while (true) {
+                CosmosBulkExecutionOptions cosmosBulkExecutionOptions = new CosmosBulkExecutionOptions();
+                cosmosBulkExecutionOptions.setMaxMicroBatchConcurrency(concurrency);
+                throughputController.applyTo(container, cosmosBulkExecutionOptions);
+
+                final long start = System.currentTimeMillis();
+                final double requestChargeBefore = result.getRequestCharge();
+                int status = HttpStatus.SC_INTERNAL_SERVER_ERROR;
+                try {
+                    collectBulkResponses(dataPartitionId, cosmosDBName, collectionName, container, pending, cosmosBulkExecutionOptions, result, response -> { });
+                    status = result.getStatusCode();
+                } catch (CosmosException e) {
+                    status = e.getStatusCode();
+                    LOGGER.error("Failed to execute bulk operations. Exception: ", e);
+                    throw new AppException(status, "Unexpectedly failed to execute bulk operations", e.getMessage(), e);
+                } catch (Exception e) {
+                    LOGGER.error("Failed to execute bulk operations. Exception: ", e);
+                    status = (e instanceof AppException) ? ((AppException) e).getError().getCode() : 500;
+                    throw new AppException(status, "Unexpectedly failed to execute bulk operations", e.getMessage(), e);
+                } finally {
+                    final long timeTaken = System.currentTimeMillis() - start;
+                    final String dependencyTarget = DependencyLogger.getCosmosDependencyTarget(cosmosDBName, collectionName);
+                    final String dependencyData = String.format("operations=%d attempt=%d", pending.size(), result.getRedriveAttempts());
+                    final DependencyLoggingOptions loggingOptions = DependencyLoggingOptions.builder()
+                            .type(COSMOS_STORE)
+                            .name("BULK_ITEMS")
+                            .data(dependencyData)
+                            .target(dependencyTarget)
+                            .timeTakenInMs(timeTaken)
+                            .requestCharge(result.getRequestCharge() - requestChargeBefore)
+                            .resultCode(status)
+                            .success(status == HttpStatus.SC_OK)
+                            .build();
+                    dependencyLogger.logDependency(loggingOptions);
+                }
+
+                LOGGER.info("Bulk operations progress: {} succeeded, {} failed, {} throttled after {} re-drive(s)",
+                        result.getSucceeded().size(), result.getFailed().size(), result.getThrottled().size(), result.getRedriveAttempts());
+                progressListener.accept(result);
+
+                if (result.getThrottled().isEmpty() || result.getRedriveAttempts() >= maxRedriveAttempts) {
+                    return result;
+                }
+                long backoffMs = Math.max(result.getRetryAfter().toMillis(), Math.min(REDRIVE_BASE_DELAY_MS << Math.min(result.getRedriveAttempts(), REDRIVE_MAX_BACKOFF_SHIFT), REDRIVE_MAX_DELAY_MS));
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOGGER.warn("Interrupted while waiting to re-drive {} throttled operation(s)", result.getThrottled().size());
+                    return result;
+                }
+                concurrency = Math.max(1, concurrency / 2);
+                pending = result.startRedrive();
+            }
+        } finally {
+            throughputController.flush(dataPartitionId, cosmosDBName, collectionName);
+        }
+    }
+
+    /**
+     * Streaming variant of {@link #bulkInsertWithCosmosClient} for inputs too large to hold in memory.
+     * Documents are pulled from the iterator as the bulk executor makes progress and sent in windows of
+     * at most windowSize documents; each window is logged as one UPSERT_ITEMS dependency.
+     *
+     * @param dataPartitionId                 name of data partition.
+     * @param cosmosDBName                    name of Cosmos db.
+     * @param collectionName                  name of collection in Cosmos.
+     * @param docs                            iterator over JSON serializable documents.
+     * @param partitionKeyFunction            function returning the partition key of a document
+     * @param windowSize                      maximum number of documents held in a window
+     * @param maxConcurrencyPerPartitionRange concurrency per partition (1-5)
+     * @param <T>                             Type of object being bulk inserted.
+     * @return Flux of the per-item responses, emitted as the operations complete
+     */
+    public final <T> Flux<CosmosBulkOperationResponse<Object>> bulkUpsertStream(final String dataPartitionId,
+                                                                               final String cosmosDBName,
+                                                                               final String collectionName,
+                                                                               final Iterator<T> docs,
+                                                                               final Function<T, String> partitionKeyFunction,
+                                                                               final int windowSize,
+                                                                               final int maxConcurrencyPerPartitionRange) {
+        return bulkUpsertStream(dataPartitionId, cosmosDBName, collectionName, Flux.fromIterable(() -> docs), partitionKeyFunction, windowSize, maxConcurrencyPerPartitionRange);
+    }
+
+    /**
+     * Streaming variant of {@link #bulkInsertWithCosmosClient} for inputs too large to hold in memory.
+     * Documents are requested from the source as the bulk executor makes progress and sent in windows of
+     * at most windowSize documents, so only a couple of windows are buffered at any time. Each window is
+     * logged as one UPSERT_ITEMS dependency. Failed operations are emitted like successful ones and do not
+     * terminate the Flux; only failures to reach the container are signalled as errors.
+     *
+     * @param dataPartitionId                 name of data partition.
+     * @param cosmosDBName                    name of Cosmos db.
+     * @param collectionName                  name of collection in Cosmos.
+     * @param docs                            source of JSON serializable documents.
+     * @param partitionKeyFunction            function returning the partition key of a document
+     * @param windowSize                      maximum number of documents held in a window
+     * @param maxConcurrencyPerPartitionRange concurrency per partition (1-5)
+     * @param <T>                             Type of object being bulk inserted.
+     * @return Flux of the per-item responses, emitted as the operations complete
+     */
+    public final <T> Flux<CosmosBulkOperationResponse<Object>> bulkUpsertStream(final String dataPartitionId,
+                                                                               final String cosmosDBName,
+                                                                               final String collectionName,
+                                                                               final Flux<T> docs,
+                                                                               final Function<T, String> partitionKeyFunction,
+                                                                               final int windowSize,
+                                                                               final int maxConcurrencyPerPartitionRange) {
+        CosmosBulkExecutionOptions cosmosBulkExecutionOptions = new CosmosBulkExecutionOptions();
+        cosmosBulkExecutionOptions.setMaxMicroBatchConcurrency(maxConcurrencyPerPartitionRange);
+
+        return Mono.fromCallable(() -> cosmosClientFactory.getAsyncContainer(dataPartitionId, cosmosDBName, collectionName))
+                .doOnNext(container -> throughputController.applyTo(container, cosmosBulkExecutionOptions))
+                .flatMapMany(container -> docs
+                        .buffer(windowSize)
+                        .concatMap(window -> {
+                            List<CosmosItemOperation> cosmosItemOperations = new ArrayList<>(window.size());
+                            Set<String> partitionKeys = new HashSet<>();
+                            for (T doc : window) {
+                                String partitionKey = partitionKeyFunction.apply(doc);
+                                partitionKeys.add(partitionKey);
+                                cosmosItemOperations.add(CosmosBulkOperations.getUpsertItemOperation(doc, new PartitionKey(partitionKey)));
+                            }
+                            return executeBulkWindow(dataPartitionId, cosmosDBName, collectionName, container, cosmosItemOperations, partitionKeys, cosmosBulkExecutionOptions, "upsert");
+                        }, 1))
+                .onErrorMap(e -> toAppException("Unexpectedly failed to bulk upsert documents", e))
+                .doFinally(signal -> throughputController.flush(dataPartitionId, cosmosDBName, collectionName));
+    }
+
+    /**
+     * Executes one window of a streaming bulk operation and logs it as a single dependency once all of
+     * its operations have completed.
+     *
+     * @param dataPartitionId            name of data partition.
+     * @param cosmosDBName               name of Cosmos db.
+     * @param collectionName             name of collection in Cosmos.
+     * @param container                  Cosmos async container
+     * @param cosmosItemOperations       operations of the window
+     * @param partitionKeys              partition keys of the window
+     * @param cosmosBulkExecutionOptions bulk execution options
+     * @param operation                  operation to be performed (i.e. upsert, patch, etc)
+     * @return Flux of the per-item responses of the window
+     */
+    private Flux<CosmosBulkOperationResponse<Object>> executeBulkWindow(final String dataPartitionId,
+                                                                        final String cosmosDBName,
+                                                                        final String collectionName,
+                                                                        final CosmosAsyncContainer container,
+                                                                        final List<CosmosItemOperation> cosmosItemOperations,
+                                                                        final Set<String> partitionKeys,
+                                                                        final CosmosBulkExecutionOptions cosmosBulkExecutionOptions,
+                                                                        final String operation) {
+        return Flux.defer(() -> {
+            final long start = System.currentTimeMillis();
+            final double[] requestCharge = {0.0};
+            SortedSet<Integer> errorStatusCodes = new TreeSet<>();
+            return container.<Object>executeBulkOperations(Flux.fromIterable(cosmosItemOperations), cosmosBulkExecutionOptions)
+                    .doOnNext(cosmosBulkOperationResponse -> {
+                        CosmosBulkItemResponse cosmosBulkItemResponse = cosmosBulkOperationResponse.getResponse();
+                        if (cosmosBulkItemResponse != null) {
+                            requestCharge[0] += cosmosBulkItemResponse.getRequestCharge();
+                            throughputController.recordCharge(dataPartitionId, cosmosDBName, collectionName, cosmosBulkItemResponse.getRequestCharge());
+                        }
+                        if (cosmosBulkItemResponse == null || !cosmosBulkItemResponse.isSuccessStatusCode()) {
+                            int statusCode = cosmosBulkItemResponse != null ? cosmosBulkItemResponse.getStatusCode() : 500;
+                            LOGGER.error("The operation for Item : [{}] Failed. Response code : {}.", cosmosBulkOperationResponse.getOperation().getId(), statusCode);
+                            errorStatusCodes.add(statusCode);
+                        }
+                    })
+                    .doOnError(e -> errorStatusCodes.add(e instanceof CosmosException ? ((CosmosException) e).getStatusCode() : 500))
+                    .doFinally(signal -> {
+                        int status = (errorStatusCodes.isEmpty() ? HttpStatus.SC_OK : (errorStatusCodes.contains(HttpStatus.SC_TOO_MANY_REQUESTS) ? HttpStatus.SC_TOO_MANY_REQUESTS : errorStatusCodes.last()));
+                        final long timeTaken = System.currentTimeMillis() - start;
+                        final String dependencyTarget = DependencyLogger.getCosmosDependencyTarget(cosmosDBName, collectionName);
+                        final String dependencyData = String.format("partition_key=%s", partitionKeys);
+                        final String operationItems = operation + "_items";
+                        final DependencyLoggingOptions loggingOptions = DependencyLoggingOptions.builder()
+                                .type(COSMOS_STORE)
+                                .name(operationItems.toUpperCase())
+                                .data(dependencyData)
+                                .target(dependencyTarget)
+                                .timeTakenInMs(timeTaken)
+                                .requestCharge(requestCharge[0])
+                                .resultCode(status)
+                                .success(status == HttpStatus.SC_OK)
+                                .build();
+                        dependencyLogger.logDependency(loggingOptions);
+                    });
+        });
     }
 
     /**
@@ -137,6 +456,8 @@ public class CosmosStoreBulkOperations {
      * @param partitionKeys                   List of partition keys corresponding to "docs" provided
      * @param maxConcurrencyPerPartitionRange concurrency per partition (1-5)
      * @param operation                       operation to be performed (i.e. upsert, patch, etc)
+     * @param result                          result the responses are added to
+     * @param responseListener                called with every response
      */
     private void performBulkOperation(final String dataPartitionId,
                                       final String cosmosDBName,
@@ -144,61 +465,22 @@ public class CosmosStoreBulkOperations {
                                       final List<CosmosItemOperation> cosmosItemOperations,
                                       final List<String> partitionKeys,
                                       final int maxConcurrencyPerPartitionRange,
-                                      final String operation) {
+                                      final String operation,
+                                      final CosmosBulkResult result,
+                                      final Consumer<CosmosBulkOperationResponse<?>> responseListener) {
         final long start = System.currentTimeMillis();
-        final double[] requestCharge = {0.0};
-        SortedSet<Integer> errorStatusCodes = new TreeSet<>();
 
         try {
-            CosmosClient cosmosClient = cosmosClientFactory.getClient(dataPartitionId);
-            CosmosContainer container = cosmosClient.getDatabase(cosmosDBName).getContainer(collectionName);
+            CosmosContainer container = cosmosClientFactory.getContainer(dataPartitionId, cosmosDBName, collectionName);
 
             CosmosBulkExecutionOptions cosmosBulkExecutionOptions = new CosmosBulkExecutionOptions();
             cosmosBulkExecutionOptions.setMaxMicroBatchConcurrency(maxConcurrencyPerPartitionRange);
+            throughputController.applyTo(container, cosmosBulkExecutionOptions);
 
-            container.executeBulkOperations(cosmosItemOperations, cosmosBulkExecutionOptions).forEach(cosmosBulkOperationResponse -> {
-                if (cosmosBulkOperationResponse == null) {
-                    errorStatusCodes.add(500);
-                    LOGGER.error("Invalid response : null");
-                } else {
-                    LOGGER.debug("Item response : {}", cosmosBulkOperationResponse);
-                    CosmosBulkItemResponse cosmosBulkItemResponse = cosmosBulkOperationResponse.getResponse();
-                    CosmosItemOperation cosmosItemOperation = cosmosBulkOperationResponse.getOperation();
-                    Exception exception = cosmosBulkOperationResponse.getException();
-
-                    if (cosmosBulkOperationResponse.getResponse() != null && cosmosBulkOperationResponse.getResponse().isSuccessStatusCode()) {
-                        LOGGER.debug("ItemId : [{}], Status Code: {}, Request Charge: {}", cosmosItemOperation.getId(), cosmosBulkItemResponse.getStatusCode(), cosmosBulkItemResponse.getRequestCharge());
-                    } else {
-                        Integer statusCode = 500;
-                        if (cosmosBulkItemResponse != null) {
-                            statusCode = cosmosBulkItemResponse.getStatusCode();
-                            requestCharge[0] += cosmosBulkItemResponse.getRequestCharge();
-                        }
+            collectBulkResponses(dataPartitionId, cosmosDBName, collectionName, container, cosmosItemOperations, cosmosBulkExecutionOptions, result, responseListener);
 
-                        // log the failure response
-                        LOGGER.error(
-                                "The operation for Item : [{}] Failed. Response code : {}. , Request Charge: {}, Exception : {}",
-                                cosmosItemOperation.getId(),
-                                statusCode,
-                                requestCharge[0],
-                                exception != null ? exception.toString() : "exception is null");
-                        errorStatusCodes.add(statusCode);
-
-                        if (exception != null) {
-                            if ((exception instanceof CosmosException) && ((CosmosException) exception).getStatusCode() == HttpStatus.SC_TOO_MANY_REQUESTS) {
-                                throw new AppException(HttpStatus.SC_TOO_MANY_REQUESTS, "Too Many Requests", "CosmosDB request limit reached!", exception);
-                            }
-                        } else {
-                            if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS) {
-                                throw new AppException(HttpStatus.SC_TOO_MANY_REQUESTS, "Too Many Requests", "CosmosDB request limit reached!!");
-                            }
-                        }
-                    }
-                }
-            });
-
-            if (!errorStatusCodes.isEmpty()) {
-                int status = (errorStatusCodes.contains(HttpStatus.SC_TOO_MANY_REQUESTS) ? HttpStatus.SC_TOO_MANY_REQUESTS : errorStatusCodes.last());
+            if (!result.isSuccess()) {
+                int status = result.getStatusCode();
                 LOGGER.error("Failed to " + operation + " documents in CosmosDB.");
 
                 if (status == HttpStatus.SC_TOO_MANY_REQUESTS) {
@@ -213,7 +495,8 @@ public class CosmosStoreBulkOperations {
             String errorMessage = "Unexpectedly failed to bulk " + operation + " documents";
             throw new AppException(status, errorMessage, e.getMessage(), e);
         } finally {
-            int status = (errorStatusCodes.isEmpty() ? HttpStatus.SC_OK : (errorStatusCodes.contains(HttpStatus.SC_TOO_MANY_REQUESTS) ? HttpStatus.SC_TOO_MANY_REQUESTS : errorStatusCodes.last()));
+            throughputController.flush(dataPartitionId, cosmosDBName, collectionName);
+            int status = result.getStatusCode();
             final long timeTaken = System.currentTimeMillis() - start;
             final String dependencyTarget = DependencyLogger.getCosmosDependencyTarget(cosmosDBName, collectionName);
             final String dependencyData = String.format("partition_key=%s", new HashSet<>(partitionKeys));
@@ -224,11 +507,75 @@ public class CosmosStoreBulkOperations {
                     .data(dependencyData)
                     .target(dependencyTarget)
                     .timeTakenInMs(timeTaken)
-                    .requestCharge(requestCharge[0])
+                    .requestCharge(result.getRequestCharge())
                     .resultCode(status)
                     .success(status == HttpStatus.SC_OK)
                     .build();
             dependencyLogger.logDependency(loggingOptions);
         }
     }
+
+    /**
+     * Executes the operations and records every response in the result. Failures, including 429s,
+     * do not interrupt the execution so that the outcome of all in-flight operations is kept.
+     *
+     * @param dataPartitionId            name of data partition.
+     * @param cosmosDBName               name of Cosmos db.
+     * @param collectionName             name of collection in Cosmos.
+     * @param container                  Cosmos container
+     * @param cosmosItemOperations       operations to execute
+     * @param cosmosBulkExecutionOptions bulk execution options
+     * @param result                     result the responses are added to
+     * @param responseListener           called with every response
+     */
+    private void collectBulkResponses(final String dataPartitionId,
+                                      final String cosmosDBName,
+                                      final String collectionName,
+                                      final CosmosContainer container,
+                                      final List<CosmosItemOperation> cosmosItemOperations,
+                                      final CosmosBulkExecutionOptions cosmosBulkExecutionOptions,
+                                      final CosmosBulkResult result,
+                                      final Consumer<CosmosBulkOperationResponse<?>> responseListener) {
+        container.executeBulkOperations(cosmosItemOperations, cosmosBulkExecutionOptions).forEach(cosmosBulkOperationResponse -> {
+            if (cosmosBulkOperationResponse == null) {
+                LOGGER.error("Invalid response : null");
+            } else if (cosmosBulkOperationResponse.getResponse() != null && cosmosBulkOperationResponse.getResponse().isSuccessStatusCode()) {
+                LOGGER.debug("ItemId : [{}], Status Code: {}, Request Charge: {}", cosmosBulkOperationResponse.getOperation().getId(),
+                        cosmosBulkOperationResponse.getResponse().getStatusCode(), cosmosBulkOperationResponse.getResponse().getRequestCharge());
+            } else if (result.isNotFoundSuccess(cosmosBulkOperationResponse)) {
+                LOGGER.debug("ItemId : [{}] was not found, which counts as success", cosmosBulkOperationResponse.getOperation().getId());
+            } else {
+                Exception exception = cosmosBulkOperationResponse.getException();
+                LOGGER.error(
+                        "The operation for Item : [{}] Failed. Response code : {}. , Request Charge: {}, Exception : {}",
+                        cosmosBulkOperationResponse.getOperation().getId(),
+                        cosmosBulkOperationResponse.getResponse() != null ? cosmosBulkOperationResponse.getResponse().getStatusCode() : 500,
+                        cosmosBulkOperationResponse.getResponse() != null ? cosmosBulkOperationResponse.getResponse().getRequestCharge() : 0.0,
+                        exception != null ? exception.toString() : "exception is null");
+            }
+            if (cosmosBulkOperationResponse != null && cosmosBulkOperationResponse.getResponse() != null) {
+                throughputController.recordCharge(dataPartitionId, cosmosDBName, collectionName, cosmosBulkOperationResponse.getResponse().getRequestCharge());
+            }
+            result.add(cosmosBulkOperationResponse);
+            if (cosmosBulkOperationResponse != null) {
+                responseListener.accept(cosmosBulkOperationResponse);
+            }
+        });
+    }
+
+    /**
+     * Maps an error signalled by a bulk Flux to an AppException, keeping the status of AppExceptions and CosmosExceptions.
+     *
+     * @param errorMessage error message
+     * @param e            error signalled
+     * @return the AppException, unchanged if the error already is one
+     */
+    private static AppException toAppException(final String errorMessage, final Throwable e) {
+        if (e instanceof AppException) {
+            return (AppException) e;
+        }
+        LOGGER.error(errorMessage, e);
+        int status = e instanceof CosmosException ? ((CosmosException) e).getStatusCode() : HttpStatus.SC_INTERNAL_SERVER_ERROR;
+        return new AppException(status, errorMessage, e.getMessage(), e instanceof Exception ? (Exception) e : new IllegalStateException(e));
+    }
 }
@@ -0,0 +1,36 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An item read from Cosmos together with its ETag, to be passed back to the conditional writes of {@link CosmosStore}.
+ *
+ * @param <T> Type of the item
+ */
+@Getter
+@AllArgsConstructor
+public class CosmosVersionedItem<T> {
+    /**
+     * the item.
+     */
+    private final T item;
+    /**
+     * the ETag of the item version that was read.
+     */
+    private final String eTag;
+}
@@ -0,0 +1,34 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+/**
+ * Whether Cosmos returns the written document in the response of a create, upsert or replace done by {@link CosmosStore}.
+ * CosmosStore only reads the request charge and ETag of a write, so the body is usually not needed.
+ */
+public enum CosmosWriteMode {
+    /**
+     * Use the mode configured in {@link org.opengroup.osdu.azure.di.CosmosWriteConfiguration}.
+     */
+    DEFAULT,
+    /**
+     * Return the written document.
+     */
+    CONTENT_RESPONSE_ON,
+    /**
+     * Return only headers, which saves the bandwidth and deserialization of the document.
+     */
+    CONTENT_RESPONSE_OFF
+}
@@ -1,7 +1,11 @@
 package org.opengroup.osdu.azure.cosmosdb;
 
 import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
 import com.azure.cosmos.CosmosClient;
+import com.azure.cosmos.CosmosContainer;
+
+import java.util.function.Consumer;
 
 /**
  *  Interface for Cosmos Client Factory to return appropriate cosmos client.
@@ -26,4 +30,70 @@ public interface ICosmosClientFactory {
      */
     CosmosClient getSystemClient();
 
+    /**
+     * @param dataPartitionId Data Partition Id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @return Cosmos container handle
+     */
+    default CosmosContainer getContainer(String dataPartitionId, String cosmosDBName, String collection) {
+        return getClient(dataPartitionId).getDatabase(cosmosDBName).getContainer(collection);
+    }
+
+    /**
+     * @param dataPartitionId Data Partition Id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @return Cosmos async container handle
+     */
+    default CosmosAsyncContainer getAsyncContainer(String dataPartitionId, String cosmosDBName, String collection) {
+        return getAsyncClient(dataPartitionId).getDatabase(cosmosDBName).getContainer(collection);
+    }
+
+    /**
+     * @param cosmosDBName Database name
+     * @param collection   Collection name
+     * @return Cosmos container handle for system resources
+     */
+    default CosmosContainer getSystemContainer(String cosmosDBName, String collection) {
+        return getSystemClient().getDatabase(cosmosDBName).getContainer(collection);
+    }
+
+    /**
+     * Hook to rebuild the clients of a data partition when its partition info changed, e.g. after a key rotation.
+     *
+     * @param dataPartitionId Data Partition Id
+     * @return true if the clients will be rebuilt on next use
+     */
+    default boolean refreshClients(String dataPartitionId) {
+        return false;
+    }
+
+    /**
+     * Keeps the clients of a data partition from being evicted as idle or least recently used, e.g. while a
+     * long-lived handle such as a change feed processor runs on them. Pins are counted, each needs its own unpin.
+     *
+     * @param dataPartitionId Data Partition Id
+     */
+    default void pinClients(String dataPartitionId) {
+    }
+
+    /**
+     * Releases a pin taken with {@link #pinClients(String)}.
+     *
+     * @param dataPartitionId Data Partition Id
+     */
+    default void unpinClients(String dataPartitionId) {
+    }
+
+    /**
+     * Registers a listener called with the data partition id once its clients were evicted, including pinned clients
+     * rebuilt by {@link #refreshClients(String)}, so holders of long-lived handles can rebuild them through the factory
+     * before the evicted clients are closed.
+     *
+     * @param listener called with the data partition id
+     */
+    default void addEvictionListener(Consumer<String> listener) {
+    }
+
 }
@@ -0,0 +1,347 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.implementation.ConflictException;
+import com.azure.cosmos.implementation.NotFoundException;
+import com.azure.cosmos.implementation.RequestRateTooLargeException;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosItemResponse;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import org.apache.http.HttpStatus;
+import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
+import org.opengroup.osdu.azure.logging.DependencyLogger;
+import org.opengroup.osdu.azure.logging.DependencyLoggingOptions;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+
+import static org.opengroup.osdu.azure.logging.DependencyType.COSMOS_STORE;
+
+/**
+ * Non-blocking counterpart of {@link CosmosStore} built on CosmosAsyncClient.
+ * Nothing is sent to Cosmos until the returned publisher is subscribed to. Dependency logging and
+ * the mapping of Cosmos failures to {@link AppException} follow the same rules as {@link CosmosStore}.
+ * Usage Examples:
+ * <pre>
+ * {@code
+ *      @Inject
+ *      private ReactiveCosmosStore reactiveCosmosStore;
+ *
+ *      Mono<MyObject> findItemExample() {
+ *          return reactiveCosmosStore.findItem("dataPartitionId", "cosmosDb", "collection", "id", "partition-key", MyObject.class);
+ *      }
+ *
+ *      Flux<MyObject> queryItemsExample() {
+ *          return reactiveCosmosStore.queryItems("dataPartitionId", "cosmosDb", "collection", query, new CosmosQueryRequestOptions(), MyObject.class);
+ *      }
+ * }
+ * </pre>
+ */
+@Component
+@Lazy
+public class ReactiveCosmosStore {
+
+    private static final String LOGGER_NAME = ReactiveCosmosStore.class.getName();
+    private static final int PREFERRED_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ICosmosClientFactory cosmosClientFactory;
+    @Autowired
+    private DependencyLogger dependencyLogger;
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param clazz           Class to serialize results into
+     * @param <T>             Type to return
+     * @return Mono emitting the item, or completing empty if it does not exist
+     */
+    public <T> Mono<T> findItem(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey,
+            final Class<T> clazz) {
+        final String dependencyData = String.format("id=%s partition_key=%s", id, partitionKey);
+        return getCosmosContainer(dataPartitionId, cosmosDBName, collection)
+                .flatMap(container -> withDependencyLogging(
+                        container.readItem(id, new PartitionKey(partitionKey), new CosmosItemRequestOptions(), clazz),
+                        "READ_ITEM", cosmosDBName, collection, dependencyData))
+                .flatMap(response -> Mono.justOrEmpty(response.getItem()))
+                .onErrorResume(NotFoundException.class, e -> {
+                    CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(String.format("Unable to find item with id=%s and partition_key=%s", id, partitionKey), e);
+                    return Mono.empty();
+                })
+                .onErrorMap(CosmosException.class, e -> handleCosmosStoreException(500, "Unexpectedly encountered error calling CosmosDB", e));
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @return Mono completing when the item has been deleted
+     */
+    public Mono<Void> deleteItem(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey) {
+        final String dependencyData = String.format("id=%s partition_key=%s", id, partitionKey);
+        return getCosmosContainer(dataPartitionId, cosmosDBName, collection)
+                .flatMap(container -> withDependencyLogging(
+                        container.deleteItem(id, new PartitionKey(partitionKey), new CosmosItemRequestOptions()),
+                        "DELETE_ITEM", cosmosDBName, collection, dependencyData))
+                .onErrorMap(NotFoundException.class, e -> handleCosmosStoreException(404, "Item was unexpectedly not found", e))
+                .onErrorMap(CosmosException.class, e -> handleCosmosStoreException(500, "Unexpectedly failed to delete item from CosmosDB", e))
+                .then();
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param partitionKey    Partition key of item
+     * @param item            Data object to store
+     * @param <T>             Type of item
+     * @return Mono completing when the item has been upserted
+     */
+    public <T> Mono<Void> upsertItem(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String partitionKey,
+            final T item) {
+        final String dependencyData = String.format("partition_key=%s", partitionKey);
+        return getCosmosContainer(dataPartitionId, cosmosDBName, collection)
+                .flatMap(container -> withDependencyLogging(
+                        container.upsertItem(item, new PartitionKey(partitionKey), new CosmosItemRequestOptions()),
+                        "UPSERT_ITEM", cosmosDBName, collection, dependencyData))
+                .onErrorMap(CosmosException.class, e -> e.getStatusCode() == HttpStatus.SC_TOO_MANY_REQUESTS
+                        ? new RequestRateTooLargeException()
+                        : handleCosmosStoreException(500, "Unexpectedly failed to put item into CosmosDB", e))
+                .then();
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param partitionKey    Partition key of item
+     * @param item            Data object to store
+     * @param <T>             Type of item
+     * @return Mono completing when the item has been created
+     */
+    public <T> Mono<Void> createItem(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String partitionKey,
+            final T item) {
+        final String dependencyData = String.format("partition_key=%s", partitionKey);
+        return getCosmosContainer(dataPartitionId, cosmosDBName, collection)
+                .flatMap(container -> withDependencyLogging(
+                        container.createItem(item, new PartitionKey(partitionKey), new CosmosItemRequestOptions()),
+                        "CREATE_ITEM", cosmosDBName, collection, dependencyData))
+                .onErrorMap(ConflictException.class, e -> handleCosmosStoreException(409, "Resource with specified id or name already exists.", e))
+                .onErrorMap(CosmosException.class, e -> handleCosmosStoreException(500, "Unexpectedly failed to insert item into CosmosDB", e))
+                .then();
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param id              ID of item
+     * @param partitionKey    Partition key of item
+     * @param item            Data object to store
+     * @param <T>             Type of item
+     * @return Mono completing when the item has been replaced
+     */
+    public <T> Mono<Void> replaceItem(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final String id,
+            final String partitionKey,
+            final T item) {
+        final String dependencyData = String.format("id=%s partition_key=%s", id, partitionKey);
+        return getCosmosContainer(dataPartitionId, cosmosDBName, collection)
+                .flatMap(container -> withDependencyLogging(
+                        container.replaceItem(item, id, new PartitionKey(partitionKey), new CosmosItemRequestOptions()),
+                        "REPLACE_ITEM", cosmosDBName, collection, dependencyData))
+                .onErrorMap(NotFoundException.class, e -> handleCosmosStoreException(404, "Item was unexpectedly not found", e))
+                .onErrorMap(CosmosException.class, e -> handleCosmosStoreException(500, "Unexpectedly failed to replace item into CosmosDB", e))
+                .then();
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param clazz           Class type of response
+     * @param <T>             Type
+     * @return Flux<T> Items in the container
+     */
+    public <T> Flux<T> findAllItems(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final Class<T> clazz) {
+        return queryItems(dataPartitionId, cosmosDBName, collection, new SqlQuerySpec("SELECT * FROM c"), new CosmosQueryRequestOptions(), clazz);
+    }
+
+    /**
+     * Pages are requested as downstream demand requires them. The dependency is logged with the
+     * accumulated request charge when the Flux terminates or is cancelled.
+     *
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @param query           {@link SqlQuerySpec} to execute
+     * @param options         Options
+     * @param clazz           Class type of response
+     * @param <T>             Type
+     * @return Flux<T> Items found
+     */
+    public <T> Flux<T> queryItems(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection,
+            final SqlQuerySpec query,
+            final CosmosQueryRequestOptions options,
+            final Class<T> clazz) {
+        return getCosmosContainer(dataPartitionId, cosmosDBName, collection)
+                .flatMapMany(container -> Flux.defer(() -> {
+                    final long start = System.currentTimeMillis();
+                    final double[] requestCharge = {0.0};
+                    final int[] statusCode = {HttpStatus.SC_OK};
+                    return container.queryItems(query, options, clazz).byPage(PREFERRED_PAGE_SIZE)
+                            .doOnNext(page -> requestCharge[0] += page.getRequestCharge())
+                            .concatMapIterable(FeedResponse::getResults)
+                            .doOnError(CosmosException.class, e -> statusCode[0] = e.getStatusCode())
+                            .doFinally(signal -> logDependency("QUERY_ITEMS", cosmosDBName, collection,
+                                    String.format("query=%s", query.getQueryText()), start, requestCharge[0], statusCode[0]));
+                }))
+                .onErrorMap(CosmosException.class, e -> handleCosmosStoreException(500, "Unexpectedly failed to query items from CosmosDB", e));
+    }
+
+    /**
+     * Logs the dependency of a point operation once it completes, successfully or not.
+     *
+     * @param call           Cosmos call to observe
+     * @param name           Dependency name
+     * @param cosmosDBName   Database name
+     * @param collection     Collection name
+     * @param dependencyData Dependency data
+     * @param <R>            Type of the response item
+     * @return Mono emitting the response of the call
+     */
+    private <R> Mono<CosmosItemResponse<R>> withDependencyLogging(
+            final Mono<CosmosItemResponse<R>> call,
+            final String name,
+            final String cosmosDBName,
+            final String collection,
+            final String dependencyData) {
+        return Mono.defer(() -> {
+            final long start = System.currentTimeMillis();
+            return call
+                    .doOnSuccess(response -> logDependency(name, cosmosDBName, collection, dependencyData, start,
+                            response == null ? 0.0 : response.getRequestCharge(), HttpStatus.SC_OK))
+                    .doOnError(e -> logDependency(name, cosmosDBName, collection, dependencyData, start, 0.0,
+                            e instanceof CosmosException ? ((CosmosException) e).getStatusCode() : HttpStatus.SC_INTERNAL_SERVER_ERROR));
+        });
+    }
+
+    /**
+     * @param name           Dependency name
+     * @param cosmosDBName   Database name
+     * @param collection     Collection name
+     * @param dependencyData Dependency data
+     * @param start          Start of the call in epoch milliseconds
+     * @param requestCharge  Request charge
+     * @param statusCode     Result code
+     */
+    private void logDependency(
+            final String name,
+            final String cosmosDBName,
+            final String collection,
+            final String dependencyData,
+            final long start,
+            final double requestCharge,
+            final int statusCode) {
+        final long timeTaken = System.currentTimeMillis() - start;
+        final String dependencyTarget = DependencyLogger.getCosmosDependencyTarget(cosmosDBName, collection);
+        final DependencyLoggingOptions options = DependencyLoggingOptions.builder()
+                .type(COSMOS_STORE)
+                .name(name)
+                .data(dependencyData)
+                .target(dependencyTarget)
+                .timeTakenInMs(timeTaken)
+                .requestCharge(requestCharge)
+                .resultCode(statusCode)
+                .success(statusCode == HttpStatus.SC_OK)
+                .build();
+        dependencyLogger.logDependency(options);
+    }
+
+    /**
+     * @param dataPartitionId Data partition id
+     * @param cosmosDBName    Database name
+     * @param collection      Collection name
+     * @return Mono emitting the Cosmos async container
+     */
+    private Mono<CosmosAsyncContainer> getCosmosContainer(
+            final String dataPartitionId,
+            final String cosmosDBName,
+            final String collection) {
+        return Mono.fromCallable(() -> Objects.requireNonNull(
+                        cosmosClientFactory.getAsyncContainer(dataPartitionId, cosmosDBName, collection), "Cosmos container unavailable"))
+                .onErrorMap(e -> e instanceof AppException
+                        ? handleCosmosStoreException(((AppException) e).getError().getCode(), "Error creating creating Cosmos Client", (AppException) e)
+                        : handleCosmosStoreException(500, "Error creating creating Cosmos Client",
+                                e instanceof Exception ? (Exception) e : new IllegalStateException(e)));
+    }
+
+    /**
+     * Logs and returns instance of AppException.
+     *
+     * @param status       Response status code
+     * @param errorMessage Error message
+     * @param e            Original exception
+     * @return Instance of AppException
+     */
+    private AppException handleCosmosStoreException(final int status, final String errorMessage, final Exception e) {
+        CoreLoggerFactory.getInstance().getLogger(LOGGER_NAME).warn(errorMessage, e);
+        return new AppException(status, errorMessage, e.getMessage(), e);
+    }
+}
@@ -12,19 +12,60 @@ import org.springframework.context.annotation.Lazy;
 @Getter
 @Lazy
 public class CosmosBulkExecutorConfiguration {
+    private static final int LEGACY_DOCUMENT_CLIENT_MAX_POOL_SIZE = 100;
+    private static final int LEGACY_BULK_EXECUTOR_MAX_RUS = 4000;
+
+    /**
+     * DOCUMENT_CLIENT_MAX_POOL_SIZE, read once, null if not set.
+     */
+    private static final Integer DOCUMENT_CLIENT_MAX_POOL_SIZE = readInteger("DOCUMENT_CLIENT_MAX_POOL_SIZE");
+
+    /**
+     * BULK_EXECUTOR_MAX_RUS, read once, null if not set.
+     */
+    private static final Integer BULK_EXECUTOR_MAX_RUS = readInteger("BULK_EXECUTOR_MAX_RUS");
+
     /**
-     * @return the connection pool size for the http client used by document client. Use SDK default if not set.
+     * @return the connection pool size for the http client used by document client, DOCUMENT_CLIENT_MAX_POOL_SIZE or
+     * the legacy default of 100 if not set.
      */
     @Bean
     public int documentClientMaxPoolSize() {
-        return Integer.parseInt(System.getenv().getOrDefault("DOCUMENT_CLIENT_MAX_POOL_SIZE", "100"));
+        return DOCUMENT_CLIENT_MAX_POOL_SIZE == null ? LEGACY_DOCUMENT_CLIENT_MAX_POOL_SIZE : DOCUMENT_CLIENT_MAX_POOL_SIZE;
     }
 
     /**
-     * @return the amount of RUs allocated to bulk executor.
+     * Default of {@link CosmosConnectionConfiguration#getGatewayMaxConnectionPoolSize()}.
+     *
+     * @return DOCUMENT_CLIENT_MAX_POOL_SIZE, null (SDK default) if not set
+     */
+    static Integer getDocumentClientMaxPoolSizeSetting() {
+        return DOCUMENT_CLIENT_MAX_POOL_SIZE;
+    }
+
+    /**
+     * @return the amount of RUs allocated to bulk executor, BULK_EXECUTOR_MAX_RUS or the legacy default of 4000 if not set.
      */
     @Bean
     public Integer bulkExecutorMaxRUs() {
-        return Integer.parseInt(System.getenv().getOrDefault("BULK_EXECUTOR_MAX_RUS", "4000"));
+        return BULK_EXECUTOR_MAX_RUS == null ? LEGACY_BULK_EXECUTOR_MAX_RUS : BULK_EXECUTOR_MAX_RUS;
+    }
+
+    /**
+     * Same setting as {@link #bulkExecutorMaxRUs()}, but the client side limit is only enforced when it is set.
+     *
+     * @return the RU/s budget of bulk operations enforced client side, 0 (disabled) unless BULK_EXECUTOR_MAX_RUS is set.
+     */
+    public int bulkThroughputControlMaxRUs() {
+        return BULK_EXECUTOR_MAX_RUS == null ? 0 : BULK_EXECUTOR_MAX_RUS;
+    }
+
+    /**
+     * @param name name of the environment variable
+     * @return its value, null if it is not set or empty
+     */
+    static Integer readInteger(final String name) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? null : Integer.valueOf(value);
     }
 }
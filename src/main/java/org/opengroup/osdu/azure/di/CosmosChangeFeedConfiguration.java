@@ -0,0 +1,76 @@
+//  Copyright © Microsoft Corporation
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+
+package org.opengroup.osdu.azure.di;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the change feed processors started through CosmosChangeFeedConsumer, e.g.
+ * <pre>
+ * azure.cosmos.change-feed.max-item-count=500
+ * azure.cosmos.change-feed.max-parallelism=4
+ * </pre>
+ * Lease intervals left unset keep the SDK defaults.
+ */
+@Configuration
+@ConfigurationProperties("azure.cosmos.change-feed")
+@Getter
+@Setter
+public class CosmosChangeFeedConfiguration {
+
+    /**
+     * Name under which this instance owns leases, the HOSTNAME environment variable or a random id if unset.
+     */
+    private String hostName;
+
+    /**
+     * Max changes handed to the handler at once.
+     */
+    private int maxItemCount = 100;
+
+    /**
+     * Delay between polls of a partition once its changes are drained.
+     */
+    private Duration feedPollDelay = Duration.ofSeconds(5);
+
+    /**
+     * Whether a processor without leases starts at the beginning of the change feed rather than now.
+     */
+    private boolean startFromBeginning = false;
+
+    /**
+     * Max number of partitions whose changes are handled concurrently on this instance, 0 for the SDK scheduler.
+     */
+    private int maxParallelism = 0;
+
+    /**
+     * Max number of leases this instance owns, 0 for no limit.
+     */
+    private int maxLeasesPerHost = 0;
+
+    /**
+     * Whether the lease container is created if it does not exist.
+     */
+    private boolean createLeaseContainer = true;
+
+    private Duration leaseRenewInterval;
+    private Duration leaseAcquireInterval;
+    private Duration leaseExpirationInterval;
+}
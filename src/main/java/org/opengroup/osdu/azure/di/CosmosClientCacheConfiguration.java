@@ -0,0 +1,51 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.di;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Bounds on the Cosmos clients cached per data partition, e.g.
+ * <pre>
+ * azure.cosmos.client-cache.max-partitions=50
+ * azure.cosmos.client-cache.idle-timeout=30m
+ * </pre>
+ */
+@Configuration
+@ConfigurationProperties("azure.cosmos.client-cache")
+@Getter
+@Setter
+public class CosmosClientCacheConfiguration {
+
+    /**
+     * Max number of data partitions with cached clients. The least recently used partition is evicted beyond it, 0 for no limit.
+     */
+    private int maxPartitions = 0;
+
+    /**
+     * Time after which the clients of an unused data partition are evicted, unset to keep them forever.
+     */
+    private Duration idleTimeout;
+
+    /**
+     * Time an evicted client stays open, so requests still running on it can complete.
+     */
+    private Duration closeDelay = Duration.ofMinutes(1);
+}
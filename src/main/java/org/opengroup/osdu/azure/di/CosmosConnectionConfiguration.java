@@ -0,0 +1,246 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.di;
+
+import com.azure.cosmos.ConnectionMode;
+import com.azure.cosmos.DirectConnectionConfig;
+import com.azure.cosmos.GatewayConnectionConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Connection settings of the Cosmos clients created per data partition.
+ * Unset values keep the SDK defaults; individual data partitions can override them, e.g.
+ * <pre>
+ * azure.cosmos.connection.mode=DIRECT
+ * azure.cosmos.connection.max-connections-per-endpoint=130
+ * azure.cosmos.connection.idle-endpoint-timeout=1h
+ * azure.cosmos.connection.preferred-regions=West Europe,North Europe
+ * azure.cosmos.connection.partitions.opendes.mode=GATEWAY
+ * </pre>
+ */
+@Configuration
+@ConfigurationProperties("azure.cosmos.connection")
+@Getter
+@Setter
+public class CosmosConnectionConfiguration {
+
+    /**
+     * Connection mode, DIRECT (TCP to the replicas) or GATEWAY (HTTPS through the gateway).
+     */
+    private ConnectionMode mode = ConnectionMode.DIRECT;
+
+    /**
+     * Direct mode: max number of connections per backend endpoint.
+     */
+    private Integer maxConnectionsPerEndpoint;
+
+    /**
+     * Direct mode: max number of concurrent requests per connection.
+     */
+    private Integer maxRequestsPerConnection;
+
+    /**
+     * Direct mode: timeout to establish a connection.
+     */
+    private Duration connectTimeout;
+
+    /**
+     * Direct mode: timeout of a single network request.
+     */
+    private Duration networkRequestTimeout;
+
+    /**
+     * Direct mode: time after which an endpoint without requests has its connections closed.
+     */
+    private Duration idleEndpointTimeout;
+
+    /**
+     * Time after which an idle connection is closed, for both the direct and the gateway connections.
+     */
+    private Duration idleConnectionTimeout;
+
+    /**
+     * Size of the gateway connection pool. Defaults to DOCUMENT_CLIENT_MAX_POOL_SIZE if set, else to the SDK default.
+     */
+    private Integer gatewayMaxConnectionPoolSize = CosmosBulkExecutorConfiguration.getDocumentClientMaxPoolSizeSetting();
+
+    /**
+     * Regions to route requests to, in order of preference.
+     */
+    private List<String> preferredRegions = new ArrayList<>();
+
+    /**
+     * Opt-in: whether the async client of a data partition runs on the transport of its sync client, i.e. on the same
+     * connections, event loop threads and gateway http client, instead of opening its own. The SDK does not expose the
+     * async client a sync client is built on, so this depends on SDK internals read reflectively; if they cannot be
+     * read, a warning is logged and a separate async client is built.
+     */
+    private boolean transportSharedBetweenSyncAndAsyncClients = false;
+
+    /**
+     * Whether all Cosmos clients, of every data partition, share one transport. The shared transport is set up with
+     * the direct settings of the first client built, so it cannot be combined with per partition direct overrides.
+     */
+    private boolean connectionSharingAcrossClientsEnabled = false;
+
+    /**
+     * Per data partition overrides, keyed by data partition id.
+     */
+    private Map<String, Partition> partitions = new HashMap<>();
+
+    /**
+     * Refuses to share one transport across all clients while a data partition overrides direct settings,
+     * which the shared transport would silently ignore.
+     */
+    @PostConstruct
+    public void validate() {
+        if (!connectionSharingAcrossClientsEnabled) {
+            return;
+        }
+        List<String> overridden = partitions.keySet().stream()
+                .filter(this::hasDirectConnectionOverrides)
+                .sorted()
+                .collect(Collectors.toList());
+        if (!overridden.isEmpty()) {
+            throw new IllegalStateException(String.format(
+                    "azure.cosmos.connection.connection-sharing-across-clients-enabled cannot be combined with the direct overrides of data partitions %s",
+                    overridden));
+        }
+    }
+
+    /**
+     * @param dataPartitionId data partition id, null for the system client
+     * @return connection mode of the data partition
+     */
+    public ConnectionMode getMode(final String dataPartitionId) {
+        return resolve(dataPartitionId, Partition::getMode, mode);
+    }
+
+    /**
+     * @param dataPartitionId data partition id, null for the system client
+     * @return direct connection settings of the data partition
+     */
+    public DirectConnectionConfig getDirectConnectionConfig(final String dataPartitionId) {
+        DirectConnectionConfig config = DirectConnectionConfig.getDefaultConfig();
+        Integer maxConnections = resolve(dataPartitionId, Partition::getMaxConnectionsPerEndpoint, maxConnectionsPerEndpoint);
+        if (maxConnections != null) {
+            config.setMaxConnectionsPerEndpoint(maxConnections);
+        }
+        Integer maxRequests = resolve(dataPartitionId, Partition::getMaxRequestsPerConnection, maxRequestsPerConnection);
+        if (maxRequests != null) {
+            config.setMaxRequestsPerConnection(maxRequests);
+        }
+        Duration connect = resolve(dataPartitionId, Partition::getConnectTimeout, connectTimeout);
+        if (connect != null) {
+            config.setConnectTimeout(connect);
+        }
+        Duration networkRequest = resolve(dataPartitionId, Partition::getNetworkRequestTimeout, networkRequestTimeout);
+        if (networkRequest != null) {
+            config.setNetworkRequestTimeout(networkRequest);
+        }
+        Duration idleEndpoint = resolve(dataPartitionId, Partition::getIdleEndpointTimeout, idleEndpointTimeout);
+        if (idleEndpoint != null) {
+            config.setIdleEndpointTimeout(idleEndpoint);
+        }
+        Duration idleConnection = resolve(dataPartitionId, Partition::getIdleConnectionTimeout, idleConnectionTimeout);
+        if (idleConnection != null) {
+            config.setIdleConnectionTimeout(idleConnection);
+        }
+        return config;
+    }
+
+    /**
+     * @param dataPartitionId data partition id, null for the system client
+     * @return gateway connection settings of the data partition
+     */
+    public GatewayConnectionConfig getGatewayConnectionConfig(final String dataPartitionId) {
+        GatewayConnectionConfig config = GatewayConnectionConfig.getDefaultConfig();
+        Integer poolSize = resolve(dataPartitionId, Partition::getGatewayMaxConnectionPoolSize, gatewayMaxConnectionPoolSize);
+        if (poolSize != null) {
+            config.setMaxConnectionPoolSize(poolSize);
+        }
+        Duration idleConnection = resolve(dataPartitionId, Partition::getIdleConnectionTimeout, idleConnectionTimeout);
+        if (idleConnection != null) {
+            config.setIdleConnectionTimeout(idleConnection);
+        }
+        return config;
+    }
+
+    /**
+     * @param dataPartitionId data partition id, null for the system client
+     * @return true if the data partition overrides any direct mode setting
+     */
+    public boolean hasDirectConnectionOverrides(final String dataPartitionId) {
+        Partition partition = dataPartitionId == null ? null : partitions.get(dataPartitionId);
+        return partition != null && (partition.getMaxConnectionsPerEndpoint() != null
+                || partition.getMaxRequestsPerConnection() != null
+                || partition.getConnectTimeout() != null
+                || partition.getNetworkRequestTimeout() != null
+                || partition.getIdleEndpointTimeout() != null
+                || partition.getIdleConnectionTimeout() != null);
+    }
+
+    /**
+     * @param dataPartitionId data partition id, null for the system client
+     * @return preferred regions of the data partition, empty to let the SDK choose
+     */
+    public List<String> getPreferredRegions(final String dataPartitionId) {
+        return resolve(dataPartitionId, Partition::getPreferredRegions, preferredRegions);
+    }
+
+    /**
+     * @param dataPartitionId data partition id, may be null
+     * @param setting         reads the setting from the partition overrides
+     * @param defaultValue    value used when the partition does not override the setting
+     * @param <V>             type of the setting
+     * @return setting of the data partition
+     */
+    private <V> V resolve(final String dataPartitionId, final Function<Partition, V> setting, final V defaultValue) {
+        Partition partition = dataPartitionId == null ? null : partitions.get(dataPartitionId);
+        if (partition == null || setting.apply(partition) == null) {
+            return defaultValue;
+        }
+        return setting.apply(partition);
+    }
+
+    /**
+     * Connection settings of a single data partition. Unset values fall back to the defaults.
+     */
+    @Getter
+    @Setter
+    public static class Partition {
+        private ConnectionMode mode;
+        private Integer maxConnectionsPerEndpoint;
+        private Integer maxRequestsPerConnection;
+        private Duration connectTimeout;
+        private Duration networkRequestTimeout;
+        private Duration idleEndpointTimeout;
+        private Duration idleConnectionTimeout;
+        private Integer gatewayMaxConnectionPoolSize;
+        private List<String> preferredRegions;
+    }
+}
@@ -0,0 +1,56 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.di;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for cursor based paging in CosmosStore, e.g.
+ * <pre>
+ * azure.cosmos.paging.continuation-token-limit-in-kb=2
+ * azure.cosmos.paging.total-count-ttl=10m
+ * </pre>
+ */
+@Configuration
+@ConfigurationProperties("azure.cosmos.paging")
+@Getter
+@Setter
+public class CosmosPagingConfiguration {
+
+    /**
+     * Max size of the Cosmos continuation token carried in a cursor, 0 for the SDK default.
+     */
+    private int continuationTokenLimitInKb = 0;
+
+    /**
+     * Continuation tokens longer than this many bytes are compressed in the cursor.
+     */
+    private int cursorCompressionThreshold = 512;
+
+    /**
+     * Time an approximate total count is reused before the count query runs again.
+     */
+    private Duration totalCountTtl = Duration.ofMinutes(5);
+
+    /**
+     * Max number of cached total counts.
+     */
+    private int totalCountCacheSize = 1000;
+}
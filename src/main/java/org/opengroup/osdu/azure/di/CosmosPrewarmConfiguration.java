@@ -0,0 +1,54 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.di;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cosmos containers to open connections to when the application starts, e.g.
+ * <pre>
+ * azure.cosmos.prewarm.containers[0].data-partition-id=opendes
+ * azure.cosmos.prewarm.containers[0].database=osdu-db
+ * azure.cosmos.prewarm.containers[0].collection=StorageRecord
+ * </pre>
+ */
+@Configuration
+@ConfigurationProperties("azure.cosmos.prewarm")
+@Getter
+@Setter
+public class CosmosPrewarmConfiguration {
+
+    /**
+     * Containers to prewarm, none by default.
+     */
+    private List<Container> containers = new ArrayList<>();
+
+    /**
+     * A container to prewarm.
+     */
+    @Getter
+    @Setter
+    public static class Container {
+        private String dataPartitionId;
+        private String database;
+        private String collection;
+    }
+}
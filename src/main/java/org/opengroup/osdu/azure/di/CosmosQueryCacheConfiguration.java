@@ -0,0 +1,66 @@
+//  Copyright © Microsoft Corporation
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+
+package org.opengroup.osdu.azure.di;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opt-in cache of the results of CosmosStore.queryItems for read-mostly collections, e.g.
+ * <pre>
+ * azure.cosmos.query-cache.collections=SchemaInfo,LegalTag
+ * azure.cosmos.query-cache.ttl=5m
+ * </pre>
+ */
+@Configuration
+@ConfigurationProperties("azure.cosmos.query-cache")
+@Getter
+@Setter
+public class CosmosQueryCacheConfiguration {
+
+    /**
+     * Names of the collections whose query results are cached, none by default.
+     */
+    private List<String> collections = new ArrayList<>();
+
+    /**
+     * Time a cached result is served before the query runs again.
+     */
+    private Duration ttl = Duration.ofMinutes(1);
+
+    /**
+     * Max cached results per container, the least recently used one is evicted beyond it.
+     */
+    private int maxEntries = 1000;
+
+    /**
+     * Interval at which the change feed of a cached container is polled for changes that invalidate its results.
+     */
+    private Duration changeFeedPollInterval = Duration.ofSeconds(5);
+
+    /**
+     * @param collection collection name
+     * @return true if query results of the collection are cached
+     */
+    public boolean isEnabled(final String collection) {
+        return collections.contains(collection) && ttl.compareTo(Duration.ZERO) > 0 && maxEntries > 0;
+    }
+}
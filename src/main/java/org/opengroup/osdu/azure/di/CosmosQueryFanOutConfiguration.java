@@ -0,0 +1,88 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.di;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for cross-partition fan-out queries in CosmosStore.
+ * Defaults apply to every query class; individual query classes can override them, e.g.
+ * <pre>
+ * azure.cosmos.query.fanout.max-degree-of-parallelism=10
+ * azure.cosmos.query.fanout.query-classes.indexer-scan.max-degree-of-parallelism=32
+ * azure.cosmos.query.fanout.query-classes.indexer-scan.max-buffered-item-count=5000
+ * </pre>
+ */
+@Configuration
+@ConfigurationProperties("azure.cosmos.query.fanout")
+@Getter
+@Setter
+public class CosmosQueryFanOutConfiguration {
+
+    /**
+     * Number of partition key ranges queried concurrently.
+     */
+    private int maxDegreeOfParallelism = 10;
+
+    /**
+     * Number of items buffered client side per range while results are being consumed.
+     */
+    private int maxBufferedItemCount = 1000;
+
+    /**
+     * Per query class overrides, keyed by query class name.
+     */
+    private Map<String, QueryClass> queryClasses = new HashMap<>();
+
+    /**
+     * @param queryClass name of the query class, may be null
+     * @return max degree of parallelism configured for the query class, or the default
+     */
+    public int getMaxDegreeOfParallelism(final String queryClass) {
+        QueryClass settings = queryClass == null ? null : queryClasses.get(queryClass);
+        if (settings == null || settings.getMaxDegreeOfParallelism() == null) {
+            return maxDegreeOfParallelism;
+        }
+        return settings.getMaxDegreeOfParallelism();
+    }
+
+    /**
+     * @param queryClass name of the query class, may be null
+     * @return max buffered item count configured for the query class, or the default
+     */
+    public int getMaxBufferedItemCount(final String queryClass) {
+        QueryClass settings = queryClass == null ? null : queryClasses.get(queryClass);
+        if (settings == null || settings.getMaxBufferedItemCount() == null) {
+            return maxBufferedItemCount;
+        }
+        return settings.getMaxBufferedItemCount();
+    }
+
+    /**
+     * Fan-out settings of a single query class. Unset values fall back to the defaults.
+     */
+    @Getter
+    @Setter
+    public static class QueryClass {
+        private Integer maxDegreeOfParallelism;
+        private Integer maxBufferedItemCount;
+    }
+}
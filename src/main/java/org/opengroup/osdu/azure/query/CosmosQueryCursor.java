@@ -0,0 +1,163 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.http.HttpStatus;
+import org.opengroup.osdu.core.common.model.http.AppException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Opaque cursor handed to clients of cursor based paging instead of the raw Cosmos continuation token.
+ * It carries the zero based number of the next page and a 32 bit fingerprint of the query it belongs to, so page
+ * numbers are real and a cursor passed with another query by mistake is rejected. The fingerprint is a plain hash, not
+ * a signature: it catches accidental reuse but does not stop a client from crafting a cursor that matches another
+ * query. Continuation tokens longer than the compression threshold are deflated. The cursor is URL safe base64.
+ */
+@Getter
+@AllArgsConstructor
+public final class CosmosQueryCursor {
+    private static final byte VERSION = 1;
+    private static final byte FLAG_DEFLATED = 1;
+    private static final int HEADER_SIZE = 10;
+    private static final int MAX_INFLATED_SIZE = 1024 * 1024;
+
+    /**
+     * zero based number of the page the cursor points to.
+     */
+    private final int pageNumber;
+    /**
+     * Cosmos continuation token of the page.
+     */
+    private final String continuation;
+    /**
+     * fingerprint of the query the cursor belongs to.
+     */
+    private final int queryFingerprint;
+
+    /**
+     * @param compressionThreshold continuation tokens longer than this many bytes are deflated
+     * @return the encoded cursor
+     */
+    public String encode(final int compressionThreshold) {
+        byte[] token = continuation.getBytes(StandardCharsets.UTF_8);
+        byte flags = 0;
+        if (token.length > compressionThreshold) {
+            byte[] deflated = deflate(token);
+            if (deflated.length < token.length) {
+                token = deflated;
+                flags = FLAG_DEFLATED;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + token.length)
+                .put(VERSION)
+                .put(flags)
+                .putInt(pageNumber)
+                .putInt(queryFingerprint)
+                .put(token);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @param cursor encoded cursor
+     * @return the decoded cursor
+     * @throws AppException with status 400 if the cursor is malformed or has a negative page number
+     */
+    public static CosmosQueryCursor decode(final String cursor) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor));
+            if (buffer.remaining() < HEADER_SIZE || buffer.get() != VERSION) {
+                throw invalidCursor(null);
+            }
+            byte flags = buffer.get();
+            int pageNumber = buffer.getInt();
+            if (pageNumber < 0) {
+                throw invalidCursor(null);
+            }
+            int queryFingerprint = buffer.getInt();
+            byte[] token = new byte[buffer.remaining()];
+            buffer.get(token);
+            if (flags == FLAG_DEFLATED) {
+                token = inflate(token);
+            }
+            return new CosmosQueryCursor(pageNumber, new String(token, StandardCharsets.UTF_8), queryFingerprint);
+        } catch (IllegalArgumentException | DataFormatException e) {
+            throw invalidCursor(e);
+        }
+    }
+
+    /**
+     * @param e cause, may be null
+     * @return exception reporting an invalid cursor
+     */
+    public static AppException invalidCursor(final Exception e) {
+        return new AppException(HttpStatus.SC_BAD_REQUEST, "Invalid cursor", "The cursor is malformed or belongs to another query", e);
+    }
+
+    /**
+     * @param data bytes to deflate
+     * @return deflated bytes
+     */
+    private static byte[] deflate(final byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+            byte[] chunk = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @param data deflated bytes
+     * @return inflated bytes
+     * @throws DataFormatException if the data is not deflated
+     */
+    private static byte[] inflate(final byte[] data) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] chunk = new byte[1024];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(chunk);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated cursor");
+                }
+                out.write(chunk, 0, length);
+                if (out.size() > MAX_INFLATED_SIZE) {
+                    throw new DataFormatException("Cursor too large");
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.blobstorage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BlobSeekableByteChannelTest {
+
+    private static final byte[] BLOB = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+    private final List<Long> reads = new ArrayList<>();
+    private final BlobSeekableByteChannel.RangeReader rangeReader = (offset, length) -> {
+        reads.add(offset);
+        return Arrays.copyOfRange(BLOB, (int) offset, (int) offset + length);
+    };
+
+    @Test
+    void read_readsWholeBlocks_andServesSmallReadsFromThem() throws Exception {
+        BlobSeekableByteChannel channel = new BlobSeekableByteChannel(rangeReader, BLOB.length, 8, 2);
+
+        assertEquals("01", read(channel, 2));
+        assertEquals("234567", read(channel, 6));
+        assertEquals("89abc", read(channel, 5));
+
+        assertEquals(Arrays.asList(0L, 8L), reads);
+    }
+
+    @Test
+    void read_seeksToTrailer_andReturnsEndOfStream() throws Exception {
+        BlobSeekableByteChannel channel = new BlobSeekableByteChannel(rangeReader, BLOB.length, 8, 2);
+
+        channel.position(BLOB.length - 4);
+        assertEquals("ghij", read(channel, 10));
+        assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+
+        assertEquals(Arrays.asList(16L), reads);
+    }
+
+    @Test
+    void read_evictsLeastRecentlyUsedBlock() throws Exception {
+        BlobSeekableByteChannel channel = new BlobSeekableByteChannel(rangeReader, BLOB.length, 8, 2);
+
+        read(channel.position(0), 1);
+        read(channel.position(8), 1);
+        read(channel.position(0), 1);
+        read(channel.position(16), 1);
+        read(channel.position(8), 1);
+
+        assertEquals(Arrays.asList(0L, 8L, 16L, 8L), reads);
+    }
+
+    @Test
+    void channel_isReadOnly_andUnusableOnceClosed() throws Exception {
+        BlobSeekableByteChannel channel = new BlobSeekableByteChannel(rangeReader, BLOB.length, 8, 2);
+
+        assertThrows(NonWritableChannelException.class, () -> channel.write(ByteBuffer.allocate(1)));
+        assertThrows(NonWritableChannelException.class, () -> channel.truncate(1));
+
+        channel.close();
+        assertThrows(ClosedChannelException.class, () -> channel.read(ByteBuffer.allocate(1)));
+    }
+
+    private String read(final SeekableByteChannel channel, final int length) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        int read = channel.read(buffer);
+        return new String(buffer.array(), 0, read, StandardCharsets.UTF_8);
+    }
+}
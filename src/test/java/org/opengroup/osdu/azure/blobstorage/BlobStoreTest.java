@@ -15,13 +15,19 @@
 package org.opengroup.osdu.azure.blobstorage;
 
 import com.azure.core.http.rest.PagedIterable;
+import com.azure.core.http.rest.Response;
+import com.azure.core.util.BinaryData;
 import com.azure.core.util.polling.LongRunningOperationStatus;
 import com.azure.core.util.polling.PollResponse;
 import com.azure.core.util.polling.SyncPoller;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.batch.BlobBatch;
+import com.azure.storage.blob.batch.BlobBatchClient;
 import com.azure.storage.blob.models.*;
+import com.azure.storage.blob.options.BlobDownloadToFileOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
 import com.azure.storage.blob.sas.BlobContainerSasPermission;
 import com.azure.storage.blob.sas.BlobSasPermission;
 import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
@@ -40,14 +46,27 @@ import org.mockito.quality.Strictness;
 import org.opengroup.osdu.azure.logging.CoreLogger;
 import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
 import org.opengroup.osdu.azure.logging.DependencyLogger;
+import org.opengroup.osdu.azure.logging.DependencyPayload;
 import org.opengroup.osdu.core.common.logging.ILogger;
 import org.opengroup.osdu.core.common.model.http.AppException;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -603,6 +622,235 @@ public class BlobStoreTest {
         }
     }
 
+    @Test
+    public void readBytesFromStorageContainer_Success_ReturnsDownloadedBuffer() {
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+        doReturn(BinaryData.fromBytes(bytes)).when(blockBlobClient).downloadContent();
+
+        byte[] content = blobStore.readBytesFromStorageContainer(PARTITION_ID, FILE_PATH, STORAGE_CONTAINER_NAME);
+
+        assertSame(bytes, content);
+        assertEquals(CONTENT, StandardCharsets.UTF_8.decode(blobStore.readByteBufferFromStorageContainer(FILE_PATH, STORAGE_CONTAINER_NAME)).toString());
+        verify(blockBlobClient, never()).download(any());
+    }
+
+    @Test
+    public void readBinaryDataFromStorageContainer_BlobNotFound() {
+        BlobStorageException exception = mockStorageException(BlobErrorCode.BLOB_NOT_FOUND);
+        doThrow(exception).when(blockBlobClient).downloadContent();
+
+        AppException ex = assertThrows(AppException.class,
+                () -> blobStore.readBinaryDataFromStorageContainer(PARTITION_ID, FILE_PATH, STORAGE_CONTAINER_NAME));
+
+        assertEquals(404, ex.getError().getCode());
+    }
+
+    @Test
+    public void writeBytesToStorageContainer_Success_UploadsBufferAsIs() {
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+        ArgumentCaptor<BinaryData> uploaded = ArgumentCaptor.forClass(BinaryData.class);
+        doReturn(blockBlobItem).when(blockBlobClient).upload(uploaded.capture(), eq(true));
+
+        blobStore.writeBytesToStorageContainer(PARTITION_ID, FILE_PATH, bytes, STORAGE_CONTAINER_NAME);
+        blobStore.writeByteBufferToStorageContainer(FILE_PATH, ByteBuffer.wrap(bytes), STORAGE_CONTAINER_NAME);
+
+        assertSame(bytes, uploaded.getAllValues().get(0).toBytes());
+        assertEquals(Long.valueOf(bytes.length), uploaded.getAllValues().get(1).getLength());
+        verify(blockBlobClient, never()).upload(any(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    public void writeBinaryDataToStorageContainer_InternalError() {
+        BlobStorageException exception = mockStorageException(BlobErrorCode.INTERNAL_ERROR);
+        doThrow(exception).when(blockBlobClient).upload(any(BinaryData.class), eq(true));
+
+        AppException ex = assertThrows(AppException.class,
+                () -> blobStore.writeBinaryDataToStorageContainer(FILE_PATH, BinaryData.fromString(CONTENT), STORAGE_CONTAINER_NAME));
+
+        assertEquals(500, ex.getError().getCode());
+    }
+
+    @Test
+    public void uploadFromStream_Success_LogsBytesTransferred() throws Exception {
+        ParallelTransferOptions transferOptions = new ParallelTransferOptions().setBlockSizeLong(4L).setMaxConcurrency(2);
+        ArgumentCaptor<BlobParallelUploadOptions> uploadOptions = ArgumentCaptor.forClass(BlobParallelUploadOptions.class);
+        doAnswer(invocation -> {
+            BlobParallelUploadOptions options = invocation.getArgument(0);
+            while (options.getDataStream().read(new byte[3]) > 0) {
+                // drain as the SDK would
+            }
+            return null;
+        }).when(blobClient).uploadWithResponse(uploadOptions.capture(), any(), any());
+
+        blobStore.uploadFromStream(PARTITION_ID, FILE_PATH, new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)), transferOptions, STORAGE_CONTAINER_NAME);
+
+        assertSame(transferOptions, uploadOptions.getValue().getParallelTransferOptions());
+        ArgumentCaptor<DependencyPayload> payload = ArgumentCaptor.forClass(DependencyPayload.class);
+        verify(dependencyLogger).logDependencyWithPayload(payload.capture());
+        assertEquals("UPLOAD_TO_STORAGE_CONTAINER", payload.getValue().getName());
+        assertTrue(payload.getValue().getData().startsWith("containerName/filePath bytes=11 mb_per_sec="));
+        assertTrue(payload.getValue().isSuccess());
+    }
+
+    @Test
+    public void downloadToFile_Success_OverwritesWithTransferOptions() {
+        Path destination = Paths.get("target", "download.json");
+        ArgumentCaptor<BlobDownloadToFileOptions> downloadOptions = ArgumentCaptor.forClass(BlobDownloadToFileOptions.class);
+        Response<BlobProperties> response = mock(Response.class);
+        doReturn(blobProperties).when(response).getValue();
+        doReturn(11L).when(blobProperties).getBlobSize();
+        doReturn(response).when(blobClient).downloadToFileWithResponse(downloadOptions.capture(), any(), any());
+
+        blobStore.downloadToFile(PARTITION_ID, FILE_PATH, destination, new ParallelTransferOptions().setBlockSizeLong(8L).setMaxConcurrency(4), STORAGE_CONTAINER_NAME);
+
+        assertEquals(destination.toString(), downloadOptions.getValue().getFilePath());
+        assertEquals(Long.valueOf(8L), downloadOptions.getValue().getParallelTransferOptions().getBlockSizeLong());
+        assertEquals(Integer.valueOf(4), downloadOptions.getValue().getParallelTransferOptions().getMaxConcurrency());
+        assertTrue(downloadOptions.getValue().getOpenOptions().contains(StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    @Test
+    public void readRange_DownloadsOnlyRequestedRange() {
+        ArgumentCaptor<BlobRange> range = ArgumentCaptor.forClass(BlobRange.class);
+        BlobDownloadResponse response = mock(BlobDownloadResponse.class);
+        doReturn(206).when(response).getStatusCode();
+        doAnswer(invocation -> {
+            invocation.<ByteArrayOutputStream>getArgument(0).write(CONTENT.getBytes(StandardCharsets.UTF_8), 6, 5);
+            return response;
+        }).when(blockBlobClient).downloadStreamWithResponse(any(), range.capture(), any(), any(), anyBoolean(), any(), any());
+
+        byte[] content = blobStore.readRange(PARTITION_ID, FILE_PATH, STORAGE_CONTAINER_NAME, 6, 5);
+
+        assertEquals("world", new String(content, StandardCharsets.UTF_8));
+        assertEquals(6, range.getValue().getOffset());
+        assertEquals(Long.valueOf(5), range.getValue().getCount());
+    }
+
+    @Test
+    public void readRange_Throws400_IfOffsetIsNegative() {
+        AppException ex = assertThrows(AppException.class,
+                () -> blobStore.readRange(PARTITION_ID, FILE_PATH, STORAGE_CONTAINER_NAME, -1, 5));
+
+        assertEquals(400, ex.getError().getCode());
+        verify(blockBlobClient, never()).downloadStreamWithResponse(any(), any(), any(), any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    public void readRange_Throws400_IfLengthIsNotPositive() {
+        AppException empty = assertThrows(AppException.class,
+                () -> blobStore.readRange(PARTITION_ID, FILE_PATH, STORAGE_CONTAINER_NAME, 6, 0));
+        AppException negative = assertThrows(AppException.class,
+                () -> blobStore.readRange(PARTITION_ID, FILE_PATH, STORAGE_CONTAINER_NAME, 6, -5));
+
+        assertEquals(400, empty.getError().getCode());
+        assertEquals(400, negative.getError().getCode());
+        verify(blockBlobClient, never()).downloadStreamWithResponse(any(), any(), any(), any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    public void openSeekableByteChannel_ReadsSameVersionOfBlob() throws Exception {
+        doReturn(11L).when(blobProperties).getBlobSize();
+        doReturn("etag").when(blobProperties).getETag();
+        ArgumentCaptor<BlobRequestConditions> conditions = ArgumentCaptor.forClass(BlobRequestConditions.class);
+        BlobStorageException exception = mockStorageException(BlobErrorCode.CONDITION_NOT_MET);
+        doReturn(412).when(exception).getStatusCode();
+        doThrow(exception).when(blockBlobClient).downloadStreamWithResponse(any(), any(), any(), conditions.capture(), anyBoolean(), any(), any());
+
+        SeekableByteChannel channel = blobStore.openSeekableByteChannel(PARTITION_ID, FILE_PATH, STORAGE_CONTAINER_NAME);
+
+        assertEquals(11, channel.size());
+        AppException ex = assertThrows(AppException.class, () -> channel.read(ByteBuffer.allocate(4)));
+        assertEquals(412, ex.getError().getCode());
+        assertEquals("etag", conditions.getValue().getIfMatch());
+    }
+
+    @Test
+    public void downloadToStream_BlobNotFound() {
+        BlobStorageException exception = mockStorageException(BlobErrorCode.BLOB_NOT_FOUND);
+        doThrow(exception).when(blobClient).downloadStreamWithResponse(any(), any(), any(), any(), anyBoolean(), any(), any());
+
+        AppException ex = assertThrows(AppException.class,
+                () -> blobStore.downloadToStream(PARTITION_ID, FILE_PATH, new ByteArrayOutputStream(), STORAGE_CONTAINER_NAME));
+
+        assertEquals(404, ex.getError().getCode());
+    }
+
+    @Test
+    public void batchDeleteFromStorageContainer_ChunksRequests_AndReportsPerBlob() {
+        BlobStore sut = spy(blobStore);
+        BlobBatchClient blobBatchClient = mock(BlobBatchClient.class);
+        BlobBatch blobBatch = mock(BlobBatch.class);
+        doReturn(blobBatchClient).when(sut).getBlobBatchClient(blobContainerClient);
+        doReturn(blobBatch).when(blobBatchClient).getBlobBatch();
+        Response<Void> deleted = mockResponse(202);
+        Response<Void> notFound = mockResponse(404);
+        Response<Void> failed = mockResponse(500);
+        doReturn(deleted).when(blobBatch).deleteBlob(eq(STORAGE_CONTAINER_NAME), anyString());
+        doReturn(notFound).when(blobBatch).deleteBlob(STORAGE_CONTAINER_NAME, "missing");
+        doReturn(failed).when(blobBatch).deleteBlob(STORAGE_CONTAINER_NAME, "locked");
+        List<String> filePaths = new ArrayList<>(Arrays.asList("missing", "locked", "locked"));
+        for (int i = 0; i < 298; i++) {
+            filePaths.add("file" + i);
+        }
+
+        BlobBatchResult result = sut.batchDeleteFromStorageContainer(PARTITION_ID, filePaths, STORAGE_CONTAINER_NAME);
+
+        verify(blobBatchClient, times(2)).submitBatchWithResponse(eq(blobBatch), eq(false), any(), any());
+        assertEquals(2, result.getBatches());
+        assertEquals(299, result.getSucceeded().size());
+        assertEquals(Collections.singletonMap("locked", 500), result.getFailed());
+        assertEquals(500, result.getStatusCode());
+        ArgumentCaptor<DependencyPayload> payload = ArgumentCaptor.forClass(DependencyPayload.class);
+        verify(dependencyLogger).logDependencyWithPayload(payload.capture());
+        assertEquals("BATCH_DELETE_FROM_STORAGE_CONTAINER", payload.getValue().getName());
+        assertEquals("containerName blobs=300 batches=2 failed=1", payload.getValue().getData());
+        assertFalse(payload.getValue().isSuccess());
+    }
+
+    @Test
+    public void batchSetAccessTier_ReportsAllBlobsFailed_IfBatchIsRejected() {
+        BlobStore sut = spy(blobStore);
+        BlobBatchClient blobBatchClient = mock(BlobBatchClient.class);
+        doReturn(blobBatchClient).when(sut).getBlobBatchClient(blobContainerClient);
+        doReturn(mock(BlobBatch.class)).when(blobBatchClient).getBlobBatch();
+        BlobStorageException exception = mockStorageException(BlobErrorCode.AUTHORIZATION_FAILURE);
+        doReturn(403).when(exception).getStatusCode();
+        doThrow(exception).when(blobBatchClient).submitBatchWithResponse(any(), anyBoolean(), any(), any());
+
+        BlobBatchResult result = sut.batchSetAccessTier(PARTITION_ID, Arrays.asList("a", "b"), STORAGE_CONTAINER_NAME, AccessTier.COOL);
+
+        assertTrue(result.getSucceeded().isEmpty());
+        assertEquals(Arrays.asList(403, 403), new ArrayList<>(result.getFailed().values()));
+        assertFalse(result.isSuccess());
+    }
+
+    @Test
+    public void batchDeleteFromStorageContainer_Throws500_IfBatchFailsUnexpectedly() {
+        BlobStore sut = spy(blobStore);
+        BlobBatchClient blobBatchClient = mock(BlobBatchClient.class);
+        doReturn(blobBatchClient).when(sut).getBlobBatchClient(blobContainerClient);
+        doReturn(mock(BlobBatch.class)).when(blobBatchClient).getBlobBatch();
+        doThrow(new IllegalStateException("Timeout on blocking read")).when(blobBatchClient).submitBatchWithResponse(any(), anyBoolean(), any(), any());
+
+        AppException ex = assertThrows(AppException.class,
+                () -> sut.batchDeleteFromStorageContainer(PARTITION_ID, Arrays.asList("a", "b"), STORAGE_CONTAINER_NAME));
+
+        assertEquals(500, ex.getError().getCode());
+    }
+
+    @Test
+    public void batchCheckIfBlobsExist_ReturnsExistencePerBlobInOrder() {
+        BlobClient missingBlobClient = mock(BlobClient.class);
+        doReturn(true).when(blobClient).exists();
+        doReturn(false).when(missingBlobClient).exists();
+        doReturn(missingBlobClient).when(blobContainerClient).getBlobClient("missing");
+
+        Map<String, Boolean> existing = blobStore.batchCheckIfBlobsExist(PARTITION_ID, Arrays.asList("missing", FILE_PATH), STORAGE_CONTAINER_NAME, 2);
+
+        assertEquals(Arrays.asList("missing", FILE_PATH), new ArrayList<>(existing.keySet()));
+        assertEquals(Arrays.asList(false, true), new ArrayList<>(existing.values()));
+    }
+
     @Test
     public void createBlobContainer_ServerBusyError() {
         BlobStorageException exception = mockStorageException(BlobErrorCode.SERVER_BUSY);
@@ -952,6 +1200,12 @@ public class BlobStoreTest {
         assertNotNull(blobInputStream);
     }
 
+    private Response<Void> mockResponse(int statusCode) {
+        Response<Void> response = mock(Response.class);
+        doReturn(statusCode).when(response).getStatusCode();
+        return response;
+    }
+
     private BlobStorageException mockStorageException(BlobErrorCode errorCode) {
         BlobStorageException mockException = mock(BlobStorageException.class);
         lenient().when(mockException.getErrorCode()).thenReturn(errorCode);
@@ -0,0 +1,235 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.blobstorage;
+
+import com.azure.core.http.rest.PagedFlux;
+import com.azure.core.util.BinaryData;
+import com.azure.storage.blob.BlobAsyncClient;
+import com.azure.storage.blob.BlobContainerAsyncClient;
+import com.azure.storage.blob.BlobServiceAsyncClient;
+import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.models.BlobErrorCode;
+import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.models.BlockBlobItem;
+import com.azure.storage.blob.models.ListBlobsOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opengroup.osdu.azure.logging.CoreLogger;
+import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
+import org.opengroup.osdu.azure.logging.DependencyLogger;
+import org.opengroup.osdu.azure.logging.DependencyPayload;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Field;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveBlobStoreTest {
+
+    private static final String PARTITION_ID = "dataPartitionId";
+    private static final String STORAGE_CONTAINER_NAME = "containerName";
+
+    @Mock
+    private IBlobServiceClientFactory blobServiceClientFactory;
+
+    @Mock
+    private BlobServiceAsyncClient blobServiceAsyncClient;
+
+    @Mock
+    private BlobContainerAsyncClient blobContainerAsyncClient;
+
+    @Mock
+    private DependencyLogger dependencyLogger;
+
+    @Mock
+    private CoreLoggerFactory coreLoggerFactory;
+
+    @Mock
+    private CoreLogger coreLogger;
+
+    @InjectMocks
+    private ReactiveBlobStore sut;
+
+    @BeforeEach
+    void init() throws Exception {
+        Field instance = CoreLoggerFactory.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, coreLoggerFactory);
+        lenient().doReturn(coreLogger).when(coreLoggerFactory).getLogger(anyString());
+        lenient().doReturn(blobServiceAsyncClient).when(blobServiceClientFactory).getBlobServiceAsyncClient(PARTITION_ID);
+        lenient().doReturn(blobContainerAsyncClient).when(blobServiceAsyncClient).getBlobContainerAsyncClient(STORAGE_CONTAINER_NAME);
+    }
+
+    @AfterEach
+    void takeDown() throws Exception {
+        Field instance = CoreLoggerFactory.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+    }
+
+    @Test
+    void readFromStorageContainer_readsInParallel_upToMaxConcurrency_inOrderOfPaths() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<String> filePaths = Arrays.asList("a", "b", "c", "d", "e");
+        for (String filePath : filePaths) {
+            BlobAsyncClient blobAsyncClient = mock(BlobAsyncClient.class);
+            doReturn(blobAsyncClient).when(blobContainerAsyncClient).getBlobAsyncClient(filePath);
+            Duration delay = Duration.ofMillis("a".equals(filePath) ? 100 : 10);
+            doReturn(Mono.just(BinaryData.fromString(filePath))
+                    .doOnSubscribe(subscription -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .delayElement(delay)
+                    .doOnNext(content -> inFlight.decrementAndGet()))
+                    .when(blobAsyncClient).downloadContent();
+        }
+
+        List<String> contents = sut.readFromStorageContainer(PARTITION_ID, filePaths, STORAGE_CONTAINER_NAME, 2)
+                .map(BinaryData::toString)
+                .collectList()
+                .block();
+
+        assertEquals(filePaths, contents);
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void readFromStorageContainer_mapsMissingBlobTo404_andLogsDependency() {
+        BlobAsyncClient blobAsyncClient = mock(BlobAsyncClient.class);
+        BlobStorageException exception = mock(BlobStorageException.class);
+        doReturn(BlobErrorCode.BLOB_NOT_FOUND).when(exception).getErrorCode();
+        doReturn(404).when(exception).getStatusCode();
+        doReturn(blobAsyncClient).when(blobContainerAsyncClient).getBlobAsyncClient("filePath");
+        doReturn(Mono.error(exception)).when(blobAsyncClient).downloadContent();
+
+        Mono<BinaryData> read = sut.readFromStorageContainer(PARTITION_ID, "filePath", STORAGE_CONTAINER_NAME);
+
+        AppException ex = assertThrows(AppException.class, read::block);
+        assertEquals(404, ex.getError().getCode());
+        DependencyPayload payload = captureDependency();
+        assertEquals("READ_FROM_STORAGE_CONTAINER", payload.getName());
+        assertEquals("containerName/filePath", payload.getTarget());
+        assertEquals("404", payload.getResultCode());
+        assertFalse(payload.isSuccess());
+    }
+
+    @Test
+    void writeToStorageContainer_uploadsOnSubscription_andLogsDependency() {
+        BlobAsyncClient blobAsyncClient = mock(BlobAsyncClient.class);
+        BinaryData content = BinaryData.fromString("content");
+        doReturn(blobAsyncClient).when(blobContainerAsyncClient).getBlobAsyncClient("filePath");
+        doReturn(Mono.just(mock(BlockBlobItem.class))).when(blobAsyncClient).upload(eq(content), eq(true));
+
+        sut.writeToStorageContainer(PARTITION_ID, "filePath", content, STORAGE_CONTAINER_NAME).block();
+
+        verify(blobAsyncClient).upload(any(BinaryData.class), eq(true));
+        DependencyPayload payload = captureDependency();
+        assertEquals("WRITE_TO_STORAGE_CONTAINER", payload.getName());
+        assertTrue(payload.isSuccess());
+    }
+
+    @Test
+    void readFromStorageContainer_wrapsOtherErrorsIn500_andLogsDependency() {
+        BlobAsyncClient blobAsyncClient = mock(BlobAsyncClient.class);
+        doReturn(blobAsyncClient).when(blobContainerAsyncClient).getBlobAsyncClient("filePath");
+        doReturn(Mono.error(new UncheckedIOException(new IOException("connection reset")))).when(blobAsyncClient).downloadContent();
+
+        Mono<BinaryData> read = sut.readFromStorageContainer(PARTITION_ID, "filePath", STORAGE_CONTAINER_NAME);
+
+        AppException ex = assertThrows(AppException.class, read::block);
+        assertEquals(500, ex.getError().getCode());
+        assertTrue(ex.getOriginalException() instanceof UncheckedIOException);
+        DependencyPayload payload = captureDependency();
+        assertEquals("500", payload.getResultCode());
+        assertFalse(payload.isSuccess());
+    }
+
+    @Test
+    void readFromStorageContainer_logsDependency_whenCancelled() {
+        BlobAsyncClient blobAsyncClient = mock(BlobAsyncClient.class);
+        doReturn(blobAsyncClient).when(blobContainerAsyncClient).getBlobAsyncClient("filePath");
+        doReturn(Mono.never()).when(blobAsyncClient).downloadContent();
+
+        sut.readFromStorageContainer(PARTITION_ID, "filePath", STORAGE_CONTAINER_NAME).subscribe().dispose();
+
+        DependencyPayload payload = captureDependency();
+        assertEquals("READ_FROM_STORAGE_CONTAINER", payload.getName());
+        assertEquals("499", payload.getResultCode());
+        assertFalse(payload.isSuccess());
+    }
+
+    @Test
+    void listBlobs_wrapsOtherErrorsIn500_andLogsDependency() {
+        doReturn(new PagedFlux<BlobItem>(() -> Mono.error(new IllegalStateException("bad page")))).when(blobContainerAsyncClient).listBlobs(any(ListBlobsOptions.class));
+
+        Flux<BlobItem> blobs = sut.listBlobs(PARTITION_ID, STORAGE_CONTAINER_NAME, "prefix");
+
+        AppException ex = assertThrows(AppException.class, blobs::blockLast);
+        assertEquals(500, ex.getError().getCode());
+        DependencyPayload payload = captureDependency();
+        assertEquals("LIST_BLOBS", payload.getName());
+        assertEquals("500", payload.getResultCode());
+    }
+
+    @Test
+    void getBlobServiceAsyncClient_throws501_unlessFactoryProvidesAsyncClients() {
+        IBlobServiceClientFactory factory = new IBlobServiceClientFactory() {
+            @Override
+            public BlobServiceClient getBlobServiceClient(final String dataPartitionId) {
+                return null;
+            }
+
+            @Override
+            public BlobServiceClient getSystemBlobServiceClient() {
+                return null;
+            }
+        };
+
+        AppException ex = assertThrows(AppException.class, () -> factory.getBlobServiceAsyncClient(PARTITION_ID));
+        assertEquals(501, ex.getError().getCode());
+        assertEquals(501, assertThrows(AppException.class, factory::getSystemBlobServiceAsyncClient).getError().getCode());
+    }
+
+    private DependencyPayload captureDependency() {
+        ArgumentCaptor<DependencyPayload> captor = ArgumentCaptor.forClass(DependencyPayload.class);
+        verify(dependencyLogger).logDependencyWithPayload(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,111 @@
+//  Copyright © Microsoft Corporation
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.CosmosContainer;
+import com.azure.cosmos.ThroughputControlGroupConfig;
+import com.azure.cosmos.models.CosmosBulkExecutionOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opengroup.osdu.azure.di.CosmosBulkExecutorConfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CosmosBulkThroughputControllerTest {
+
+    private static final String COSMOS_DB = "cosmosdb";
+    private static final String COLLECTION = "collection";
+    private static final String DATA_PARTITION_ID = "data-partition-id";
+
+    @Mock
+    private CosmosBulkExecutorConfiguration bulkExecutorConfiguration;
+
+    @Mock
+    private CosmosContainer container;
+
+    @InjectMocks
+    private CosmosBulkThroughputController sut;
+
+    @Test
+    void applyTo_enablesThroughputControlGroup_withConfiguredBudget() {
+        doReturn(4000).when(bulkExecutorConfiguration).bulkThroughputControlMaxRUs();
+        CosmosBulkExecutionOptions options = new CosmosBulkExecutionOptions();
+
+        sut.applyTo(container, options);
+
+        ArgumentCaptor<ThroughputControlGroupConfig> groupConfig = ArgumentCaptor.forClass(ThroughputControlGroupConfig.class);
+        verify(container).enableLocalThroughputControlGroup(groupConfig.capture());
+        assertEquals(CosmosBulkThroughputController.THROUGHPUT_CONTROL_GROUP, groupConfig.getValue().getGroupName());
+        assertEquals(4000, groupConfig.getValue().getTargetThroughput());
+        assertEquals(CosmosBulkThroughputController.THROUGHPUT_CONTROL_GROUP, options.getThroughputControlGroupName());
+    }
+
+    @Test
+    void applyTo_leavesOptionsUntouched_ifBudgetDisabled() {
+        doReturn(0).when(bulkExecutorConfiguration).bulkThroughputControlMaxRUs();
+        CosmosBulkExecutionOptions options = new CosmosBulkExecutionOptions();
+
+        sut.applyTo(container, options);
+
+        verify(container, never()).enableLocalThroughputControlGroup(any(ThroughputControlGroupConfig.class));
+        assertNull(options.getThroughputControlGroupName());
+    }
+
+    @Test
+    void applyTo_leavesOptionsUntouched_ifGroupCannotBeEnabled() {
+        doReturn(4000).when(bulkExecutorConfiguration).bulkThroughputControlMaxRUs();
+        doThrow(IllegalArgumentException.class).when(container).enableLocalThroughputControlGroup(any(ThroughputControlGroupConfig.class));
+        CosmosBulkExecutionOptions options = new CosmosBulkExecutionOptions();
+
+        sut.applyTo(container, options);
+
+        assertNull(options.getThroughputControlGroupName());
+    }
+
+    @Test
+    void recordCharge_tracksConsumedAndRemainingBudget_perContainer() {
+        doReturn(1000).when(bulkExecutorConfiguration).bulkThroughputControlMaxRUs();
+
+        sut.recordCharge(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, 300.0);
+        sut.recordCharge(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, 200.0);
+
+        assertEquals(500.0, sut.getConsumedRUs(DATA_PARTITION_ID, COSMOS_DB, COLLECTION));
+        assertEquals(500.0, sut.getRemainingRUs(DATA_PARTITION_ID, COSMOS_DB, COLLECTION));
+        assertEquals(0.0, sut.getConsumedRUs(DATA_PARTITION_ID, COSMOS_DB, "other"));
+        assertEquals(1000.0, sut.getRemainingRUs(DATA_PARTITION_ID, COSMOS_DB, "other"));
+    }
+
+    @Test
+    void flush_publishesLastWindow_andStartsNewOne() {
+        doReturn(1000).when(bulkExecutorConfiguration).bulkThroughputControlMaxRUs();
+        sut.recordCharge(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, 300.0);
+
+        sut.flush(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
+
+        assertEquals(0.0, sut.getConsumedRUs(DATA_PARTITION_ID, COSMOS_DB, COLLECTION));
+        assertEquals(1000.0, sut.getRemainingRUs(DATA_PARTITION_ID, COSMOS_DB, COLLECTION));
+    }
+}
@@ -0,0 +1,160 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncDatabase;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.ChangeFeedProcessorOptions;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opengroup.osdu.azure.di.CosmosChangeFeedConfiguration;
+import org.opengroup.osdu.azure.logging.CoreLogger;
+import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
+import org.opengroup.osdu.azure.logging.DependencyLogger;
+import org.opengroup.osdu.azure.logging.DependencyLoggingOptions;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CosmosChangeFeedConsumerTest {
+
+    private static final String DATA_PARTITION_ID = "data-partition-id";
+    private static final String COSMOS_DB = "cosmosdb";
+    private static final String COLLECTION = "collection";
+    private static final String PROCESSOR = "indexer";
+
+    @Mock
+    private ICosmosClientFactory cosmosClientFactory;
+
+    @Mock
+    private DependencyLogger dependencyLogger;
+
+    @Spy
+    private CosmosChangeFeedConfiguration changeFeedConfiguration = new CosmosChangeFeedConfiguration();
+
+    @Mock
+    private CoreLoggerFactory coreLoggerFactory;
+
+    @Mock
+    private CoreLogger coreLogger;
+
+    @InjectMocks
+    private CosmosChangeFeedConsumer sut;
+
+    @BeforeEach
+    void init() throws Exception {
+        Field instance = CoreLoggerFactory.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, coreLoggerFactory);
+        lenient().doReturn(coreLogger).when(coreLoggerFactory).getLogger(anyString());
+    }
+
+    @AfterEach
+    void takeDown() throws Exception {
+        Field instance = CoreLoggerFactory.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+    }
+
+    @Test
+    void handleChanges_logsBatchAsDependency() {
+        List<JsonNode> changes = Arrays.asList(mock(JsonNode.class), mock(JsonNode.class));
+        List<?>[] handled = new List<?>[1];
+
+        sut.handleChanges(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PROCESSOR, batch -> handled[0] = batch, changes);
+
+        assertEquals(changes, handled[0]);
+        DependencyLoggingOptions options = captureDependency();
+        assertEquals("CHANGE_FEED_BATCH", options.getName());
+        assertEquals("processor=indexer items=2", options.getData());
+        assertEquals("data-partition-id:cosmosdb/collection", options.getTarget());
+        assertTrue(options.isSuccess());
+    }
+
+    @Test
+    void handleChanges_rethrows_soBatchIsNotCheckpointed() {
+        List<JsonNode> changes = Arrays.asList(mock(JsonNode.class));
+
+        assertThrows(IllegalStateException.class, () -> sut.handleChanges(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PROCESSOR, batch -> {
+            throw new IllegalStateException("index unavailable");
+        }, changes));
+
+        DependencyLoggingOptions options = captureDependency();
+        assertEquals(500, options.getResultCode());
+        assertFalse(options.isSuccess());
+    }
+
+    @Test
+    void newProcessorOptions_appliesConfiguration() {
+        changeFeedConfiguration.setMaxItemCount(500);
+        changeFeedConfiguration.setMaxLeasesPerHost(8);
+        changeFeedConfiguration.setLeaseExpirationInterval(Duration.ofSeconds(90));
+
+        ChangeFeedProcessorOptions options = sut.newProcessorOptions(COLLECTION, PROCESSOR, null);
+
+        assertEquals("collection.indexer.", options.getLeasePrefix());
+        assertEquals(500, options.getMaxItemCount());
+        assertEquals(8, options.getMaxScaleCount());
+        assertEquals(Duration.ofSeconds(90), options.getLeaseExpirationInterval());
+        assertEquals(ChangeFeedProcessorOptions.DEFAULT_RENEW_INTERVAL, options.getLeaseRenewInterval());
+    }
+
+    @Test
+    void start_throws500_ifLeaseContainerCannotBeCreated() {
+        CosmosAsyncClient client = mock(CosmosAsyncClient.class);
+        CosmosAsyncDatabase database = mock(CosmosAsyncDatabase.class);
+        doReturn(client).when(cosmosClientFactory).getAsyncClient(DATA_PARTITION_ID);
+        doReturn(database).when(client).getDatabase(COSMOS_DB);
+        doReturn(Mono.error(mock(CosmosException.class))).when(database).createContainerIfNotExists("leases", "/id");
+
+        AppException exception = assertThrows(AppException.class,
+                () -> sut.start(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, "leases", PROCESSOR, changes -> { }));
+
+        assertEquals(500, exception.getError().getCode());
+        assertTrue(sut.getEstimatedLag(DATA_PARTITION_ID, PROCESSOR).isEmpty());
+        verify(cosmosClientFactory).pinClients(DATA_PARTITION_ID);
+        verify(cosmosClientFactory).unpinClients(DATA_PARTITION_ID);
+    }
+
+    private DependencyLoggingOptions captureDependency() {
+        ArgumentCaptor<DependencyLoggingOptions> captor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger).logDependency(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -1,18 +1,49 @@
 package org.opengroup.osdu.azure.cosmosdb;
 
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosAsyncDatabase;
 import com.azure.cosmos.CosmosClient;
+import com.azure.cosmos.CosmosClientBuilder;
+import com.azure.cosmos.CosmosContainer;
+import com.azure.cosmos.CosmosDatabase;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.opengroup.osdu.azure.di.CosmosClientCacheConfiguration;
+import org.opengroup.osdu.azure.di.CosmosConnectionConfiguration;
+import org.opengroup.osdu.azure.di.CosmosRetryConfiguration;
+import org.opengroup.osdu.azure.di.MSIConfiguration;
+import org.opengroup.osdu.azure.logging.CoreLogger;
+import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
+import org.opengroup.osdu.azure.partition.PartitionInfoAzure;
 import org.opengroup.osdu.azure.partition.PartitionServiceClient;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,14 +53,37 @@ public class CosmosClientFactoryImplTest {
     private Map<String, CosmosClient> cosmosClientMap;
     @Mock
     private PartitionServiceClient partitionService;
+    @Mock
+    private CosmosRetryConfiguration cosmosRetryConfiguration;
+    @Mock
+    private MSIConfiguration msiConfiguration;
+    @Spy
+    private CosmosConnectionConfiguration connectionConfiguration = new CosmosConnectionConfiguration();
+    @Spy
+    private CosmosClientCacheConfiguration clientCacheConfiguration = new CosmosClientCacheConfiguration();
+    @Mock
+    private CoreLoggerFactory coreLoggerFactory;
+    @Mock
+    private CoreLogger coreLogger;
     @InjectMocks
     private CosmosClientFactoryImpl sut;
 
     private static final String PARTITION_ID = "dataPartitionId";
 
     @BeforeEach
-    void init() {
+    void init() throws Exception {
         initMocks(this);
+        Field instance = CoreLoggerFactory.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, coreLoggerFactory);
+        lenient().doReturn(coreLogger).when(coreLoggerFactory).getLogger(anyString());
+    }
+
+    @AfterEach
+    void takeDown() throws Exception {
+        Field instance = CoreLoggerFactory.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
     }
 
     @Test
@@ -54,4 +108,140 @@ public class CosmosClientFactoryImplTest {
         }
     }
 
+    @Test
+    public void getContainer_cachesContainerHandle() {
+        this.sut.initialize();
+        CosmosClientFactoryImpl factory = spy(this.sut);
+        CosmosClient cosmosClient = mock(CosmosClient.class);
+        CosmosDatabase cosmosDatabase = mock(CosmosDatabase.class);
+        CosmosContainer cosmosContainer = mock(CosmosContainer.class);
+        doReturn(cosmosClient).when(factory).getClient(PARTITION_ID);
+        doReturn(cosmosDatabase).when(cosmosClient).getDatabase("db");
+        doReturn(cosmosContainer).when(cosmosDatabase).getContainer("collection");
+
+        assertSame(cosmosContainer, factory.getContainer(PARTITION_ID, "db", "collection"));
+        assertSame(cosmosContainer, factory.getContainer(PARTITION_ID, "db", "collection"));
+
+        verify(cosmosClient, times(1)).getDatabase("db");
+    }
+
+    @Test
+    public void getAsyncContainer_cachesContainerHandle() {
+        this.sut.initialize();
+        CosmosClientFactoryImpl factory = spy(this.sut);
+        CosmosAsyncClient cosmosAsyncClient = mock(CosmosAsyncClient.class);
+        CosmosAsyncDatabase cosmosAsyncDatabase = mock(CosmosAsyncDatabase.class);
+        CosmosAsyncContainer cosmosAsyncContainer = mock(CosmosAsyncContainer.class);
+        doReturn(cosmosAsyncClient).when(factory).getAsyncClient(PARTITION_ID);
+        doReturn(cosmosAsyncDatabase).when(cosmosAsyncClient).getDatabase("db");
+        doReturn(cosmosAsyncContainer).when(cosmosAsyncDatabase).getContainer("collection");
+
+        assertSame(cosmosAsyncContainer, factory.getAsyncContainer(PARTITION_ID, "db", "collection"));
+        assertSame(cosmosAsyncContainer, factory.getAsyncContainer(PARTITION_ID, "db", "collection"));
+
+        verify(cosmosAsyncClient, times(1)).getDatabase("db");
+    }
+
+    @Test
+    public void getAsyncClient_logsAndBuildsSeparateClient_ifTransportCannotBeShared() {
+        this.sut.initialize();
+        this.connectionConfiguration.setTransportSharedBetweenSyncAndAsyncClients(true);
+        CosmosClientFactoryImpl factory = spy(this.sut);
+        CosmosClientBuilder builder = mock(CosmosClientBuilder.class);
+        CosmosAsyncClient cosmosAsyncClient = mock(CosmosAsyncClient.class);
+        doReturn(builder).when(factory).getCosmosClientBuilder(PARTITION_ID);
+        // a mocked sync client does not wrap an async client, like an SDK whose internals cannot be read
+        doReturn(mock(CosmosClient.class)).when(builder).buildClient();
+        doReturn(cosmosAsyncClient).when(builder).buildAsyncClient();
+
+        assertSame(cosmosAsyncClient, factory.getAsyncClient(PARTITION_ID));
+
+        verify(builder, times(1)).buildAsyncClient();
+        verify(coreLogger).warn(anyString(), eq(PARTITION_ID));
+    }
+
+    @Test
+    public void getCosmosClientBuilder_sharesBuilderBetweenSyncAndAsyncClients() {
+        this.sut.initialize();
+        mockPartition("key");
+
+        CosmosClientBuilder builder = this.sut.getCosmosClientBuilder(PARTITION_ID);
+
+        assertSame(builder, this.sut.getCosmosClientBuilder(PARTITION_ID));
+        verify(partitionService, times(1)).getPartition(PARTITION_ID);
+    }
+
+    @Test
+    public void refreshClients_rebuildsClients_onlyIfPrimaryKeyChanged() {
+        this.sut.initialize();
+        mockPartition("key");
+        CosmosClientBuilder builder = this.sut.getCosmosClientBuilder(PARTITION_ID);
+
+        assertFalse(this.sut.refreshClients(PARTITION_ID));
+        assertSame(builder, this.sut.getCosmosClientBuilder(PARTITION_ID));
+
+        mockPartition("rotated-key");
+        assertTrue(this.sut.refreshClients(PARTITION_ID));
+        assertNotSame(builder, this.sut.getCosmosClientBuilder(PARTITION_ID));
+    }
+
+    @Test
+    public void getContainer_evictsLeastRecentlyUsedPartition_beyondMaxPartitions() {
+        this.sut.initialize();
+        this.clientCacheConfiguration.setMaxPartitions(1);
+        CosmosClientFactoryImpl factory = spy(this.sut);
+        CosmosClient cosmosClient = mock(CosmosClient.class);
+        CosmosDatabase cosmosDatabase = mock(CosmosDatabase.class);
+        doReturn(cosmosClient).when(factory).getClient(anyString());
+        doReturn(cosmosDatabase).when(cosmosClient).getDatabase("db");
+        doReturn(mock(CosmosContainer.class)).when(cosmosDatabase).getContainer("collection");
+
+        factory.getContainer(PARTITION_ID, "db", "collection");
+        factory.getContainer("otherPartitionId", "db", "collection");
+        factory.getContainer(PARTITION_ID, "db", "collection");
+
+        verify(cosmosClient, times(3)).getDatabase("db");
+    }
+
+    @Test
+    public void getContainer_keepsPinnedPartition_beyondMaxPartitions() {
+        this.sut.initialize();
+        this.clientCacheConfiguration.setMaxPartitions(1);
+        CosmosClientFactoryImpl factory = spy(this.sut);
+        CosmosClient cosmosClient = mock(CosmosClient.class);
+        CosmosDatabase cosmosDatabase = mock(CosmosDatabase.class);
+        doReturn(cosmosClient).when(factory).getClient(anyString());
+        doReturn(cosmosDatabase).when(cosmosClient).getDatabase("db");
+        doReturn(mock(CosmosContainer.class)).when(cosmosDatabase).getContainer("collection");
+
+        factory.pinClients(PARTITION_ID);
+        factory.getContainer(PARTITION_ID, "db", "collection");
+        factory.getContainer("otherPartitionId", "db", "collection");
+        factory.getContainer(PARTITION_ID, "db", "collection");
+
+        verify(cosmosClient, times(2)).getDatabase("db");
+    }
+
+    @Test
+    public void refreshClients_notifiesEvictionListeners_evenIfPinned() {
+        this.sut.initialize();
+        mockPartition("key");
+        List<String> evicted = new ArrayList<>();
+        this.sut.addEvictionListener(evicted::add);
+        this.sut.pinClients(PARTITION_ID);
+        this.sut.getCosmosClientBuilder(PARTITION_ID);
+
+        mockPartition("rotated-key");
+        assertTrue(this.sut.refreshClients(PARTITION_ID));
+
+        assertEquals(Collections.singletonList(PARTITION_ID), evicted);
+    }
+
+    private void mockPartition(String primaryKey) {
+        PartitionInfoAzure partitionInfo = mock(PartitionInfoAzure.class);
+        lenient().doReturn("https://account.documents.azure.com:443/").when(partitionInfo).getCosmosEndpoint();
+        lenient().doReturn(primaryKey).when(partitionInfo).getCosmosPrimaryKey();
+        lenient().doReturn(partitionInfo).when(partitionService).getPartition(PARTITION_ID);
+        lenient().doReturn(false).when(msiConfiguration).getIsEnabled();
+    }
 }
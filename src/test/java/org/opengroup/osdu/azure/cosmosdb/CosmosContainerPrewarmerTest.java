@@ -0,0 +1,112 @@
+//  Copyright © Microsoft Corporation
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.CosmosContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opengroup.osdu.azure.di.CosmosPrewarmConfiguration;
+import org.opengroup.osdu.azure.logging.CoreLogger;
+import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CosmosContainerPrewarmerTest {
+
+    private static final String DATA_PARTITION_ID = "data-partition-id";
+    private static final String COSMOS_DB = "cosmosdb";
+
+    @Mock
+    private CosmosPrewarmConfiguration prewarmConfiguration;
+
+    @Mock
+    private ICosmosClientFactory cosmosClientFactory;
+
+    @Mock
+    private CosmosContainer recordContainer;
+
+    @Mock
+    private CosmosContainer schemaContainer;
+
+    @Mock
+    private CoreLoggerFactory coreLoggerFactory;
+
+    @Mock
+    private CoreLogger coreLogger;
+
+    @InjectMocks
+    private CosmosContainerPrewarmer sut;
+
+    @BeforeEach
+    void init() throws Exception {
+        Field instance = CoreLoggerFactory.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, coreLoggerFactory);
+        doReturn(coreLogger).when(coreLoggerFactory).getLogger(anyString());
+        doReturn(Arrays.asList(container("records"), container("schemas"))).when(prewarmConfiguration).getContainers();
+        doReturn(recordContainer).when(cosmosClientFactory).getContainer(DATA_PARTITION_ID, COSMOS_DB, "records");
+        doReturn(schemaContainer).when(cosmosClientFactory).getContainer(DATA_PARTITION_ID, COSMOS_DB, "schemas");
+    }
+
+    @AfterEach
+    void takeDown() throws Exception {
+        Field instance = CoreLoggerFactory.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void prewarm_opensConnectionsOfConfiguredContainers() {
+        sut.prewarm();
+
+        verify(recordContainer).openConnectionsAndInitCaches();
+        verify(schemaContainer).openConnectionsAndInitCaches();
+        verify(cosmosClientFactory).getAsyncContainer(DATA_PARTITION_ID, COSMOS_DB, "records");
+        verify(cosmosClientFactory).getAsyncContainer(DATA_PARTITION_ID, COSMOS_DB, "schemas");
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void prewarm_continuesWithNextContainer_ifOneFails() {
+        doThrow(RuntimeException.class).when(recordContainer).openConnectionsAndInitCaches();
+
+        sut.prewarm();
+
+        verify(coreLogger).warn(anyString(), any(RuntimeException.class));
+        verify(schemaContainer).openConnectionsAndInitCaches();
+    }
+
+    private static CosmosPrewarmConfiguration.Container container(String collection) {
+        CosmosPrewarmConfiguration.Container container = new CosmosPrewarmConfiguration.Container();
+        container.setDataPartitionId(DATA_PARTITION_ID);
+        container.setDatabase(COSMOS_DB);
+        container.setCollection(collection);
+        return container;
+    }
+}
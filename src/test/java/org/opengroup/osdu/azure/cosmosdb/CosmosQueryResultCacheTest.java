@@ -0,0 +1,171 @@
+// Copyright © Microsoft Corporation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.CosmosContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.util.CosmosPagedIterable;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opengroup.osdu.azure.di.CosmosQueryCacheConfiguration;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+class CosmosQueryResultCacheTest {
+
+    private static final String CONTAINER_KEY = "data-partition-id:cosmosdb/collection";
+    private static final String QUERY_KEY = "SELECT * FROM c";
+    private static final String CONTINUATION = "eyJWIjoxLCJSaWQiOiJyaWQwQUE9PSIsIk1vZGUiOiJJTkNSRU1FTlRBTCIsIlN0YXJ0RnJvbSI6eyJUeXBlIjoiTk9XIn0sIlJhbmdlIjp7Im1pbiI6IiIsIm1heCI6IkZGIn19";
+
+    @Spy
+    private CosmosQueryCacheConfiguration queryCacheConfiguration = new CosmosQueryCacheConfiguration();
+
+    @Mock
+    private CosmosContainer container;
+
+    @Mock
+    private CosmosPagedIterable<JsonNode> changeFeed;
+
+    @InjectMocks
+    private CosmosQueryResultCache sut;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Supplier<List<String>> loader = () -> Collections.singletonList("s" + loads.incrementAndGet());
+
+    @BeforeEach
+    void init() {
+        doReturn(changeFeed).when(container).queryChangeFeed(any(), eq(JsonNode.class));
+        mockChangeFeed(false);
+    }
+
+    @AfterEach
+    void cleanup() {
+        sut.close();
+    }
+
+    @Test
+    void getOrLoad_servesCachedResult_untilChangeFeedReportsChange() {
+        assertEquals(Collections.singletonList("s1"), sut.getOrLoad(CONTAINER_KEY, () -> container, QUERY_KEY, String.class, loader));
+        assertEquals(Collections.singletonList("s1"), sut.getOrLoad(CONTAINER_KEY, () -> container, QUERY_KEY, String.class, loader));
+
+        sut.pollChangeFeeds();
+        assertEquals(Collections.singletonList("s1"), sut.getOrLoad(CONTAINER_KEY, () -> container, QUERY_KEY, String.class, loader));
+
+        mockChangeFeed(true);
+        sut.pollChangeFeeds();
+        assertEquals(Collections.singletonList("s2"), sut.getOrLoad(CONTAINER_KEY, () -> container, QUERY_KEY, String.class, loader));
+    }
+
+    @Test
+    void getOrLoad_servesItemsOfTheirOwn_toEveryCaller() {
+        Supplier<List<Item>> itemLoader = () -> Collections.singletonList(new Item("s" + loads.incrementAndGet()));
+
+        List<Item> loaded = sut.getOrLoad(CONTAINER_KEY, () -> container, QUERY_KEY, Item.class, itemLoader);
+        loaded.get(0).name = "mutated";
+        List<Item> hit = sut.getOrLoad(CONTAINER_KEY, () -> container, QUERY_KEY, Item.class, itemLoader);
+        assertEquals("s1", hit.get(0).name);
+        hit.get(0).name = "mutated";
+
+        assertEquals("s1", sut.getOrLoad(CONTAINER_KEY, () -> container, QUERY_KEY, Item.class, itemLoader).get(0).name);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getOrLoad_doesNotCacheResult_ifContainerChangedWhileLoading() {
+        mockChangeFeed(true);
+        Supplier<List<String>> changingLoader = () -> {
+            sut.pollChangeFeeds();
+            return loader.get();
+        };
+
+        sut.getOrLoad(CONTAINER_KEY, () -> container, QUERY_KEY, String.class, changingLoader);
+        sut.getOrLoad(CONTAINER_KEY, () -> container, QUERY_KEY, String.class, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getOrLoad_evictsLeastRecentlyUsedResult_beyondMaxEntries() {
+        queryCacheConfiguration.setMaxEntries(1);
+
+        sut.getOrLoad(CONTAINER_KEY, () -> container, "q1", String.class, loader);
+        sut.getOrLoad(CONTAINER_KEY, () -> container, "q2", String.class, loader);
+        sut.getOrLoad(CONTAINER_KEY, () -> container, "q1", String.class, loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void getOrLoad_doesNotCache_ifChangeFeedCannotBeRead() {
+        doThrow(mock(CosmosException.class)).when(changeFeed).iterableByPage();
+
+        sut.getOrLoad(CONTAINER_KEY, () -> container, QUERY_KEY, String.class, loader);
+        sut.getOrLoad(CONTAINER_KEY, () -> container, QUERY_KEY, String.class, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void pollChangeFeeds_resolvesContainerOnEveryPoll() {
+        AtomicInteger resolved = new AtomicInteger();
+
+        sut.getOrLoad(CONTAINER_KEY, () -> {
+            resolved.incrementAndGet();
+            return container;
+        }, QUERY_KEY, String.class, loader);
+        sut.pollChangeFeeds();
+        sut.pollChangeFeeds();
+
+        assertEquals(3, resolved.get());
+    }
+
+    private void mockChangeFeed(boolean changed) {
+        FeedResponse<JsonNode> page = mock(FeedResponse.class);
+        lenient().doReturn(changed ? Collections.singletonList(mock(JsonNode.class)) : Collections.emptyList()).when(page).getResults();
+        lenient().doReturn(CONTINUATION).when(page).getContinuationToken();
+        lenient().doReturn(Collections.singletonList(page)).when(changeFeed).iterableByPage();
+    }
+
+    public static final class Item {
+        public String name;
+
+        public Item() {
+        }
+
+        Item(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package org.opengroup.osdu.azure.cosmosdb;
 
-import com.azure.cosmos.CosmosClient;
+import com.azure.cosmos.CosmosAsyncContainer;
 import com.azure.cosmos.CosmosContainer;
-import com.azure.cosmos.CosmosDatabase;
+import com.azure.cosmos.CosmosException;
 import com.azure.cosmos.models.CosmosBulkExecutionOptions;
 import com.azure.cosmos.models.CosmosBulkItemResponse;
 import com.azure.cosmos.models.CosmosBulkOperationResponse;
 import com.azure.cosmos.models.CosmosItemOperation;
+import com.azure.cosmos.models.CosmosItemOperationType;
 import com.azure.cosmos.models.CosmosPatchOperations;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,17 +19,28 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.opengroup.osdu.azure.logging.DependencyLogger;
 import org.opengroup.osdu.azure.logging.DependencyLoggingOptions;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -42,8 +54,6 @@ public class CosmosStoreBulkOperationsTest {
     private static final String COLLECTION = "collection";
     private static final String DATA_PARTITION_ID = "data-partition-id";
 
-    @Mock
-    CosmosClient cosmosClient;
     @Mock
     CosmosContainer cosmosContainer;
     @Mock
@@ -57,11 +67,11 @@ public class CosmosStoreBulkOperationsTest {
     @Mock
     CosmosBulkItemResponse cosmosBulkItemResponse;
     @Mock
-    CosmosDatabase cosmosDatabase;
-    @Mock
     private DependencyLogger dependencyLogger;
     @Mock
     private ICosmosClientFactory cosmosClientFactory;
+    @Mock
+    private CosmosBulkThroughputController throughputController;
     @Captor
     ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor;
     @Captor
@@ -74,15 +84,13 @@ public class CosmosStoreBulkOperationsTest {
     void init() {
         openMocks(this);
 
-        lenient().doReturn(cosmosClient).when(cosmosClientFactory).getClient(DATA_PARTITION_ID);
+        lenient().doReturn(cosmosContainer).when(cosmosClientFactory).getContainer(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
         lenient().doReturn(cosmosBulkItemResponse).when(cosmosBulkOperationResponse).getResponse();
         lenient().doReturn(cosmosItemOperation).when(cosmosBulkOperationResponse).getOperation();
         lenient().when(cosmosBulkOperationResponse.getResponse().isSuccessStatusCode()).thenReturn(true);
         lenient().when(cosmosItemOperation.getItem()).thenReturn("item");
         lenient().when(cosmosBulkItemResponse.getStatusCode()).thenReturn(200);
         lenient().when(cosmosBulkItemResponse.getRequestCharge()).thenReturn(0.0);
-        when(cosmosClient.getDatabase(COSMOS_DB)).thenReturn(cosmosDatabase);
-        when(cosmosDatabase.getContainer(COLLECTION)).thenReturn(cosmosContainer);
         cosmosBulkExecutionOptions.setMaxMicroBatchConcurrency(1);
     }
 
@@ -101,7 +109,7 @@ public class CosmosStoreBulkOperationsTest {
 
         this.sut.bulkPatchWithCosmosClient(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, cosmosPatchOperationsPerDoc, partitionKeyForDoc, 1);
 
-        verify(this.cosmosClientFactory, times(1)).getClient(DATA_PARTITION_ID);
+        verify(this.cosmosClientFactory, times(1)).getContainer(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
         DependencyLoggingOptions actualLoggingOptions = loggingOptionsArgumentCaptor.getValue();
         verifyDependencyLogging(actualLoggingOptions, "PATCH_ITEMS", "partition_key=[id1]", "cosmosdb/collection", 0.0, 200, true);
@@ -119,7 +127,7 @@ public class CosmosStoreBulkOperationsTest {
         lenient().doReturn(bulkPatchResponse).when(cosmosContainer).executeBulkOperations(anyList(), any(CosmosBulkExecutionOptions.class));
 
         sut.bulkMultiPatchWithCosmosClient(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, cosmosPatchOperationsPerDoc, partitionKeyForDoc, 1);
-        verify(cosmosClientFactory).getClient(DATA_PARTITION_ID);
+        verify(cosmosClientFactory).getContainer(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
         verify(cosmosContainer).executeBulkOperations(cosmosItemOperations.capture(), any(CosmosBulkExecutionOptions.class));
         List<CosmosItemOperation> itemOperations = cosmosItemOperations.getValue();
         assertEquals(2, itemOperations.size());
@@ -128,6 +136,188 @@ public class CosmosStoreBulkOperationsTest {
         verifyDependencyLogging(actualLoggingOptions, "PATCH_ITEMS", "partition_key=[id1]", "cosmosdb/collection", 0.0, 200, true);
     }
 
+    @Test
+    void bulkDelete_treatsMissingItemsAsDeleted() {
+        CosmosBulkOperationResponse missing = mock(CosmosBulkOperationResponse.class);
+        CosmosBulkItemResponse notFound = mock(CosmosBulkItemResponse.class);
+        doReturn(notFound).when(missing).getResponse();
+        doReturn(cosmosItemOperation).when(missing).getOperation();
+        doReturn(404).when(notFound).getStatusCode();
+        doReturn(Arrays.asList(cosmosBulkOperationResponse, missing)).when(cosmosContainer).executeBulkOperations(anyList(), any(CosmosBulkExecutionOptions.class));
+        Map<String, String> partitionKeyForDoc = new HashMap<>();
+        partitionKeyForDoc.put("id1", "pk1");
+        partitionKeyForDoc.put("id2", "pk1");
+
+        sut.bulkDeleteWithCosmosClient(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, partitionKeyForDoc, 1);
+
+        verify(cosmosContainer).executeBulkOperations(cosmosItemOperations.capture(), any(CosmosBulkExecutionOptions.class));
+        assertEquals(2, cosmosItemOperations.getValue().size());
+        assertEquals(CosmosItemOperationType.DELETE, cosmosItemOperations.getValue().get(0).getOperationType());
+        verify(dependencyLogger).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getValue(), "DELETE_ITEMS", "partition_key=[pk1]", "cosmosdb/collection", 0.0, 200, true);
+    }
+
+    @Test
+    void bulkRead_returnsFoundItems_andThrowsOnOtherFailures() {
+        doReturn("doc1").when(cosmosBulkItemResponse).getItem(String.class);
+        CosmosBulkOperationResponse missing = mock(CosmosBulkOperationResponse.class);
+        CosmosBulkItemResponse notFound = mock(CosmosBulkItemResponse.class);
+        doReturn(notFound).when(missing).getResponse();
+        doReturn(cosmosItemOperation).when(missing).getOperation();
+        doReturn(404).when(notFound).getStatusCode();
+        doReturn(Arrays.asList(cosmosBulkOperationResponse, missing)).when(cosmosContainer).executeBulkOperations(anyList(), any(CosmosBulkExecutionOptions.class));
+        Map<String, String> partitionKeyForDoc = new HashMap<>();
+        partitionKeyForDoc.put("id1", "pk1");
+        partitionKeyForDoc.put("id2", "pk2");
+
+        List<String> items = sut.bulkReadWithCosmosClient(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, partitionKeyForDoc, String.class, 1);
+
+        assertEquals(Collections.singletonList("doc1"), items);
+        verify(dependencyLogger).logDependency(loggingOptionsArgumentCaptor.capture());
+        assertEquals("READ_ITEMS", loggingOptionsArgumentCaptor.getValue().getName());
+
+        doReturn(503).when(notFound).getStatusCode();
+        AppException exception = assertThrows(AppException.class,
+                () -> sut.bulkReadWithCosmosClient(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, partitionKeyForDoc, String.class, 1));
+        assertEquals(503, exception.getError().getCode());
+    }
+
+    @Test
+    void executeBulkOperations_redrivesOnlyThrottledOperations() {
+        CosmosItemOperation throttledOperation = mock(CosmosItemOperation.class);
+        CosmosBulkOperationResponse throttledResponse = mock(CosmosBulkOperationResponse.class);
+        CosmosBulkItemResponse throttledItemResponse = mock(CosmosBulkItemResponse.class);
+        doReturn(throttledItemResponse).when(throttledResponse).getResponse();
+        doReturn(throttledOperation).when(throttledResponse).getOperation();
+        doReturn(429).when(throttledItemResponse).getStatusCode();
+        doReturn(Duration.ofMillis(1)).when(throttledItemResponse).getRetryAfterDuration();
+        CosmosBulkOperationResponse redrivenResponse = mock(CosmosBulkOperationResponse.class);
+        doReturn(cosmosBulkItemResponse).when(redrivenResponse).getResponse();
+        doReturn(throttledOperation).when(redrivenResponse).getOperation();
+        List<List<CosmosItemOperation>> submitted = new ArrayList<>();
+        List<Integer> concurrency = new ArrayList<>();
+        doAnswer(invocation -> {
+            submitted.add(new ArrayList<>(invocation.getArgument(0)));
+            concurrency.add(((CosmosBulkExecutionOptions) invocation.getArgument(1)).getMaxMicroBatchConcurrency());
+            return submitted.size() == 1 ? Arrays.asList(cosmosBulkOperationResponse, throttledResponse) : Arrays.asList(redrivenResponse);
+        }).when(cosmosContainer).executeBulkOperations(anyList(), any(CosmosBulkExecutionOptions.class));
+        List<Integer> progress = new ArrayList<>();
+
+        CosmosBulkResult result = sut.executeBulkOperations(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                Arrays.asList(cosmosItemOperation, throttledOperation), 4, 3, r -> progress.add(r.getThrottled().size()));
+
+        assertTrue(result.isSuccess());
+        assertEquals(1, result.getRedriveAttempts());
+        assertEquals(Arrays.asList(cosmosItemOperation, throttledOperation), result.getSucceeded());
+        assertEquals(Arrays.asList(throttledOperation), submitted.get(1));
+        assertEquals(Arrays.asList(4, 2), concurrency);
+        assertEquals(Arrays.asList(1, 0), progress);
+        verify(dependencyLogger, times(2)).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getAllValues().get(0), "BULK_ITEMS", "operations=2 attempt=0", "cosmosdb/collection", 0.0, 429, false);
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getAllValues().get(1), "BULK_ITEMS", "operations=1 attempt=1", "cosmosdb/collection", 0.0, 200, true);
+        verify(throughputController, times(1)).flush(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
+    }
+
+    @Test
+    void executeBulkOperations_mapsUnexpectedErrors_andFlushesCharge() {
+        doAnswer(invocation -> { throw new IllegalStateException("executor closed"); })
+                .when(cosmosContainer).executeBulkOperations(anyList(), any(CosmosBulkExecutionOptions.class));
+
+        AppException exception = assertThrows(AppException.class, () -> sut.executeBulkOperations(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                Arrays.asList(cosmosItemOperation), 1, 0));
+
+        assertEquals(500, exception.getError().getCode());
+        verify(throughputController, times(1)).flush(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
+    }
+
+    @Test
+    void executeBulkOperations_reportsFailedAndThrottled_withoutRedrive() {
+        CosmosItemOperation failedOperation = mock(CosmosItemOperation.class);
+        CosmosBulkOperationResponse failedResponse = mock(CosmosBulkOperationResponse.class);
+        CosmosBulkItemResponse failedItemResponse = mock(CosmosBulkItemResponse.class);
+        doReturn(failedItemResponse).when(failedResponse).getResponse();
+        doReturn(failedOperation).when(failedResponse).getOperation();
+        doReturn(409).when(failedItemResponse).getStatusCode();
+        CosmosBulkOperationResponse throttledResponse = mock(CosmosBulkOperationResponse.class);
+        CosmosException throttled = mock(CosmosException.class);
+        doReturn(429).when(throttled).getStatusCode();
+        doReturn(throttled).when(throttledResponse).getException();
+        doReturn(cosmosItemOperation).when(throttledResponse).getOperation();
+        doReturn(Arrays.asList(failedResponse, throttledResponse)).when(cosmosContainer).executeBulkOperations(anyList(), any(CosmosBulkExecutionOptions.class));
+
+        CosmosBulkResult result = sut.executeBulkOperations(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                Arrays.asList(failedOperation, cosmosItemOperation), 1, 0);
+
+        assertEquals(Arrays.asList(failedResponse), result.getFailed());
+        assertEquals(Arrays.asList(cosmosItemOperation), result.getThrottled());
+        assertEquals(429, result.getStatusCode());
+        verify(cosmosContainer, times(1)).executeBulkOperations(anyList(), any(CosmosBulkExecutionOptions.class));
+    }
+
+    @Test
+    void bulkUpsertStream_sendsBoundedWindows_andEmitsPerItemResults() {
+        CosmosAsyncContainer asyncContainer = mockAsyncContainer();
+        CosmosBulkOperationResponse<Object> failedResponse = mock(CosmosBulkOperationResponse.class);
+        CosmosBulkItemResponse failedItemResponse = mock(CosmosBulkItemResponse.class);
+        doReturn(failedItemResponse).when(failedResponse).getResponse();
+        doReturn(cosmosItemOperation).when(failedResponse).getOperation();
+        doReturn(400).when(failedItemResponse).getStatusCode();
+        doReturn(1.0).when(failedItemResponse).getRequestCharge();
+        when(cosmosBulkItemResponse.getRequestCharge()).thenReturn(2.0);
+        List<Integer> windowSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            Flux<CosmosItemOperation> operations = invocation.getArgument(0);
+            List<CosmosItemOperation> window = operations.collectList().block();
+            windowSizes.add(window.size());
+            return Flux.fromIterable(window).map(op -> windowSizes.size() == 1 ? cosmosBulkOperationResponse : failedResponse);
+        }).when(asyncContainer).executeBulkOperations(any(), any(CosmosBulkExecutionOptions.class));
+
+        Iterator<String> docs = Arrays.asList("a", "b", "c", "d", "e").iterator();
+        List<CosmosBulkOperationResponse<Object>> results = sut.bulkUpsertStream(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, docs, doc -> "pk-" + doc, 3, 1)
+                .collectList().block();
+
+        assertEquals(Arrays.asList(3, 2), windowSizes);
+        assertEquals(5, results.size());
+        verify(dependencyLogger, times(2)).logDependency(loggingOptionsArgumentCaptor.capture());
+        List<DependencyLoggingOptions> loggedOptions = loggingOptionsArgumentCaptor.getAllValues();
+        assertEquals("UPSERT_ITEMS", loggedOptions.get(0).getName());
+        assertEquals(6.0, loggedOptions.get(0).getRequestCharge());
+        assertEquals(200, loggedOptions.get(0).getResultCode());
+        verifyDependencyLogging(loggedOptions.get(1), "UPSERT_ITEMS", "partition_key=[pk-d, pk-e]", "cosmosdb/collection", 2.0, 400, false);
+    }
+
+    @Test
+    void bulkUpsertStream_doesNotReadSource_untilSubscribed() {
+        Iterator<String> docs = mock(Iterator.class);
+
+        sut.bulkUpsertStream(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, docs, doc -> doc, 10, 1);
+
+        verify(docs, never()).hasNext();
+        verify(cosmosClientFactory, never()).getAsyncContainer(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
+    }
+
+    @Test
+    void bulkUpsertStream_keepsStatus_ofErrorsReachingContainer() {
+        AppException notFound = new AppException(404, "Not Found", "partition not found");
+        doAnswer(invocation -> { throw notFound; }).when(cosmosClientFactory).getAsyncContainer(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
+        Flux<String> docs = Flux.just("a");
+
+        AppException passedThrough = assertThrows(AppException.class,
+                () -> sut.bulkUpsertStream(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, docs, doc -> doc, 10, 1).blockLast());
+        assertEquals(notFound, passedThrough);
+
+        doAnswer(invocation -> { throw new Throwable("not an exception"); }).when(cosmosClientFactory).getAsyncContainer(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
+        AppException wrapped = assertThrows(AppException.class,
+                () -> sut.bulkUpsertStream(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, docs, doc -> doc, 10, 1).blockLast());
+        assertEquals(500, wrapped.getError().getCode());
+    }
+
+    private CosmosAsyncContainer mockAsyncContainer() {
+        CosmosAsyncContainer asyncContainer = mock(CosmosAsyncContainer.class);
+        doReturn(asyncContainer).when(cosmosClientFactory).getAsyncContainer(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
+        return asyncContainer;
+    }
+
     private void verifyDependencyLogging(DependencyLoggingOptions capturedLoggingOptions, String name, String data, String target, double requestCharge, int resultCode, boolean success) {
         assertEquals(COSMOS_STORE, capturedLoggingOptions.getType());
         assertEquals(name, capturedLoggingOptions.getName());
@@ -15,18 +15,30 @@
 package org.opengroup.osdu.azure.cosmosdb;
 
 
-import com.azure.cosmos.CosmosClient;
+import com.azure.cosmos.CosmosAsyncContainer;
 import com.azure.cosmos.CosmosContainer;
-import com.azure.cosmos.CosmosDatabase;
 import com.azure.cosmos.CosmosException;
 import com.azure.cosmos.implementation.ConflictException;
 import com.azure.cosmos.implementation.NotFoundException;
+import com.azure.cosmos.implementation.RequestRateTooLargeException;
+import com.azure.cosmos.models.CosmosBatch;
+import com.azure.cosmos.models.CosmosBatchOperationResult;
+import com.azure.cosmos.models.CosmosBatchResponse;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.CosmosItemOperation;
 import com.azure.cosmos.models.CosmosItemRequestOptions;
 import com.azure.cosmos.models.CosmosItemResponse;
+import com.azure.cosmos.models.CosmosPatchItemRequestOptions;
+import com.azure.cosmos.models.CosmosPatchOperations;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
 import com.azure.cosmos.models.PartitionKey;
 import com.azure.cosmos.models.SqlQuerySpec;
+import com.azure.cosmos.models.FeedRange;
 import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.util.CosmosPagedFlux;
 import com.azure.cosmos.util.CosmosPagedIterable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,22 +47,37 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.opengroup.osdu.azure.di.CosmosPagingConfiguration;
+import org.opengroup.osdu.azure.di.CosmosQueryFanOutConfiguration;
+import org.opengroup.osdu.azure.di.CosmosWriteConfiguration;
 import org.opengroup.osdu.azure.logging.CoreLogger;
 import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
 import org.opengroup.osdu.azure.logging.DependencyLogger;
 import org.opengroup.osdu.azure.logging.DependencyLoggingOptions;
 import org.opengroup.osdu.azure.multitenancy.TenantInfoDoc;
+import org.opengroup.osdu.azure.query.CosmosQueryCursor;
+import org.opengroup.osdu.azure.query.CosmosStorePageRequest;
 import org.opengroup.osdu.core.common.model.http.AppException;
 import org.springframework.data.domain.Page;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -62,6 +89,7 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -105,13 +133,19 @@ class CosmosStoreTest {
     private ICosmosClientFactory cosmosClientFactory;
 
     @Mock
-    private CosmosClient cosmosClient;
+    private DependencyLogger dependencyLogger;
 
     @Mock
-    private CosmosDatabase cosmosDatabase;
+    private CosmosQueryFanOutConfiguration queryFanOutConfiguration;
 
     @Mock
-    private DependencyLogger dependencyLogger;
+    private CosmosWriteConfiguration writeConfiguration;
+
+    @Mock
+    private CosmosPagingConfiguration pagingConfiguration;
+
+    @Mock
+    private CosmosQueryResultCache queryResultCache;
 
     @InjectMocks
     private CosmosStore cosmosStore;
@@ -156,10 +190,8 @@ class CosmosStoreTest {
         lenient().doReturn(cosmosItem).when(cosmosResponse).getItem();
         lenient().doReturn(cosmosResponse).when(container).readItem(any(), any(), any(), any());
         //lenient().doReturn(cosmosItemProperties).when(cosmosResponse).getProperties();
-        lenient().doReturn(cosmosClient).when(cosmosClientFactory).getClient(anyString());
-        lenient().doReturn(cosmosClient).when(cosmosClientFactory).getSystemClient();
-        lenient().doReturn(cosmosDatabase).when(cosmosClient).getDatabase(any());
-        lenient().doReturn(container).when(cosmosDatabase).getContainer(anyString());
+        lenient().doReturn(container).when(cosmosClientFactory).getContainer(anyString(), anyString(), anyString());
+        lenient().doReturn(container).when(cosmosClientFactory).getSystemContainer(anyString(), anyString());
     }
 
     @AfterEach
@@ -226,7 +258,7 @@ class CosmosStoreTest {
     @Test
     void findItem_returnsEmpty_ifNotFound() throws CosmosException {
         doThrow(NotFoundException.class).when(container).readItem(any(), any(), any(), any());
-        assertFalse(cosmosStore.findItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY, any(Class.class)).isPresent());
+        assertFalse(cosmosStore.findItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY, String.class).isPresent());
 
         ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
@@ -238,7 +270,7 @@ class CosmosStoreTest {
     void findItem_returnsEmpty_ifNotFound_System() throws CosmosException {
         doThrow(NotFoundException.class).when(container).readItem(any(), any(), any(), any());
         assertFalse(cosmosStore.findItem(COSMOS_DB, COLLECTION, ID, PARTITION_KEY, Object.class).isPresent());
-        verify(this.cosmosClientFactory, times(1)).getSystemClient();
+        verify(this.cosmosClientFactory, times(1)).getSystemContainer(COSMOS_DB, COLLECTION);
 
         ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
@@ -250,7 +282,7 @@ class CosmosStoreTest {
     void findItem_throws500_ifUnknownError() throws CosmosException {
         doThrow(CosmosException.class).when(container).readItem(any(), any(), any(), any());
         AppException exception = assertThrows(AppException.class, () -> {
-            cosmosStore.findItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY, any(Class.class));
+            cosmosStore.findItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY, String.class);
         });
         assertEquals(500, exception.getError().getCode());
 
@@ -273,14 +305,14 @@ class CosmosStoreTest {
     void upsertItem_throws500_ifUnknownError() throws CosmosException {
         doThrow(CosmosException.class).when(container).upsertItem(any(), any(), any());
         AppException exception = assertThrows(AppException.class, () -> {
-            cosmosStore.upsertItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY_SOME_DATA, any());
+            cosmosStore.upsertItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY_SOME_DATA, ITEM);
         });
         assertEquals(500, exception.getError().getCode());
 
         ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
         DependencyLoggingOptions actualLoggingOptions = loggingOptionsArgumentCaptor.getValue();
-        verifyDependencyLogging(actualLoggingOptions, "UPSERT_ITEM", "partition_key=some-data", "cosmosdb/collection", 0, false);
+        verifyDependencyLogging(actualLoggingOptions, "UPSERT_ITEM", "partition_key=some-data content_response_on_write=false", "cosmosdb/collection", 0, false);
     }
 
     @Test
@@ -297,7 +329,7 @@ class CosmosStoreTest {
         ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
         DependencyLoggingOptions actualLoggingOptions = loggingOptionsArgumentCaptor.getValue();
-        verifyDependencyLogging(actualLoggingOptions, "REPLACE_ITEM", "id=id partition_key=pk", "data-partition-id:cosmosdb/collection", 0, false);
+        verifyDependencyLogging(actualLoggingOptions, "REPLACE_ITEM", "id=id partition_key=pk content_response_on_write=false", "data-partition-id:cosmosdb/collection", 0, false);
     }
 
     @Test
@@ -314,7 +346,7 @@ class CosmosStoreTest {
         ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
         DependencyLoggingOptions actualLoggingOptions = loggingOptionsArgumentCaptor.getValue();
-        verifyDependencyLogging(actualLoggingOptions, "REPLACE_ITEM", "id=id partition_key=pk", "data-partition-id:cosmosdb/collection", 0, false);
+        verifyDependencyLogging(actualLoggingOptions, "REPLACE_ITEM", "id=id partition_key=pk content_response_on_write=false", "data-partition-id:cosmosdb/collection", 0, false);
     }
 
     @Test
@@ -330,21 +362,51 @@ class CosmosStoreTest {
         ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
         DependencyLoggingOptions actualLoggingOptions = loggingOptionsArgumentCaptor.getValue();
-        verifyDependencyLogging(actualLoggingOptions, "REPLACE_ITEM", "id=id partition_key=pk", "data-partition-id:cosmosdb/collection", 200, true);
+        verifyDependencyLogging(actualLoggingOptions, "REPLACE_ITEM", "id=id partition_key=pk content_response_on_write=false", "data-partition-id:cosmosdb/collection", 200, true);
+    }
+
+    @Test
+    void upsertItem_returnsContent_ifRequestedPerCall() {
+        CosmosItemResponse<Object> upsertResponse = mock(CosmosItemResponse.class);
+        doReturn(upsertResponse).when(container).upsertItem(eq(ITEM), any(PartitionKey.class), any(CosmosItemRequestOptions.class));
+
+        cosmosStore.upsertItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY, ITEM, CosmosWriteMode.CONTENT_RESPONSE_ON);
+
+        ArgumentCaptor<CosmosItemRequestOptions> optionsCaptor = ArgumentCaptor.forClass(CosmosItemRequestOptions.class);
+        verify(container).upsertItem(eq(ITEM), eq(new PartitionKey(PARTITION_KEY)), optionsCaptor.capture());
+        assertTrue(optionsCaptor.getValue().isContentResponseOnWriteEnabled());
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getValue(), "UPSERT_ITEM", "partition_key=pk content_response_on_write=true", "cosmosdb/collection", 200, true);
+    }
+
+    @Test
+    void createItem_usesConfiguredWriteMode() {
+        doReturn(true).when(writeConfiguration).isContentResponseOnWriteEnabled();
+        CosmosItemResponse<Object> createResponse = mock(CosmosItemResponse.class);
+        doReturn(createResponse).when(container).createItem(eq(ITEM), any(PartitionKey.class), any(CosmosItemRequestOptions.class));
+
+        cosmosStore.createItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY, ITEM);
+        cosmosStore.createItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY, ITEM, CosmosWriteMode.CONTENT_RESPONSE_OFF);
+
+        ArgumentCaptor<CosmosItemRequestOptions> optionsCaptor = ArgumentCaptor.forClass(CosmosItemRequestOptions.class);
+        verify(container, times(2)).createItem(eq(ITEM), eq(new PartitionKey(PARTITION_KEY)), optionsCaptor.capture());
+        assertTrue(optionsCaptor.getAllValues().get(0).isContentResponseOnWriteEnabled());
+        assertFalse(optionsCaptor.getAllValues().get(1).isContentResponseOnWriteEnabled());
     }
 
     @Test
     void createItem_throws409_ifDuplicateDocument() throws CosmosException {
         doThrow(ConflictException.class).when(container).createItem(any(), any(), any());
         AppException exception = assertThrows(AppException.class, () -> {
-            cosmosStore.createItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY_SOME_DATA, any());
+            cosmosStore.createItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY_SOME_DATA, ITEM);
         });
         assertEquals(409, exception.getError().getCode());
 
         ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
         DependencyLoggingOptions actualLoggingOptions = loggingOptionsArgumentCaptor.getValue();
-        verifyDependencyLogging(actualLoggingOptions, "CREATE_ITEM", "partition_key=some-data", "cosmosdb/collection", 0, false);
+        verifyDependencyLogging(actualLoggingOptions, "CREATE_ITEM", "partition_key=some-data content_response_on_write=false", "cosmosdb/collection", 0, false);
     }
 
     @Test
@@ -358,21 +420,21 @@ class CosmosStoreTest {
         ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
         DependencyLoggingOptions actualLoggingOptions = loggingOptionsArgumentCaptor.getValue();
-        verifyDependencyLogging(actualLoggingOptions, "CREATE_ITEM", "partition_key=some-data", "cosmosdb/collection", 0, false);
+        verifyDependencyLogging(actualLoggingOptions, "CREATE_ITEM", "partition_key=some-data content_response_on_write=false", "cosmosdb/collection", 0, false);
     }
 
     @Test
     void createItem_throws500_ifUnknownError() throws CosmosException {
         doThrow(CosmosException.class).when(container).createItem(any(), any(), any());
         AppException exception = assertThrows(AppException.class, () -> {
-            cosmosStore.createItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY_SOME_DATA, any());
+            cosmosStore.createItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY_SOME_DATA, ITEM);
         });
         assertEquals(500, exception.getError().getCode());
 
         ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
         DependencyLoggingOptions actualLoggingOptions = loggingOptionsArgumentCaptor.getValue();
-        verifyDependencyLogging(actualLoggingOptions, "CREATE_ITEM", "partition_key=some-data", "cosmosdb/collection", 0, false);
+        verifyDependencyLogging(actualLoggingOptions, "CREATE_ITEM", "partition_key=some-data content_response_on_write=false", "cosmosdb/collection", 0, false);
     }
 
     @Test
@@ -382,7 +444,7 @@ class CosmosStoreTest {
         when(cosmosItemResponse.getRequestCharge()).thenReturn(1.0);
         doReturn(cosmosItemResponse).when(container).createItem(any(), partitionKeyArgumentCaptor.capture(), any(CosmosItemRequestOptions.class));
         try {
-            cosmosStore.createItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY_SOME_DATA, any());
+            cosmosStore.createItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY_SOME_DATA, ITEM);
         } catch (Exception ex) {
             fail("Should not fail.");
         }
@@ -391,7 +453,7 @@ class CosmosStoreTest {
         ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
         DependencyLoggingOptions actualLoggingOptions = loggingOptionsArgumentCaptor.getValue();
-        verifyDependencyLogging(actualLoggingOptions, "CREATE_ITEM", "partition_key=some-data", "cosmosdb/collection", 200, true);
+        verifyDependencyLogging(actualLoggingOptions, "CREATE_ITEM", "partition_key=some-data content_response_on_write=false", "cosmosdb/collection", 200, true);
     }
 
     @Test
@@ -410,7 +472,7 @@ class CosmosStoreTest {
         ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
         verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
         DependencyLoggingOptions actualLoggingOptions = loggingOptionsArgumentCaptor.getValue();
-        verifyDependencyLogging(actualLoggingOptions, "CREATE_ITEM", "partition_key=some-data", "cosmosdb/collection", 200, true);
+        verifyDependencyLogging(actualLoggingOptions, "CREATE_ITEM", "partition_key=some-data content_response_on_write=false", "cosmosdb/collection", 200, true);
     }
 
     @Test
@@ -419,7 +481,11 @@ class CosmosStoreTest {
         Page results = cosmosStore.queryItemsPage(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
                 new SqlQuerySpec("SELECT * FROM c"), PARTITION_KEY_SOME_DATA, String.class, 1, "");
 
-        assertEquals(3, results.getTotalElements());
+        // one item read, one more counted while another page follows
+        assertEquals(1, results.getContent().size());
+        assertEquals(0, results.getNumber());
+        assertEquals(2, results.getTotalElements());
+        assertTrue(results.hasNext());
 
         mockQueryResponse();
         results = cosmosStore.queryItemsPage(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
@@ -428,6 +494,549 @@ class CosmosStoreTest {
         assertEquals(0, results.getTotalElements());
     }
 
+    @Test
+    void queryItems_servesResultFromQueryResultCache_ifEnabledForCollection() {
+        doReturn(true).when(queryResultCache).isEnabled(COLLECTION);
+        doReturn(Collections.singletonList("s1")).when(queryResultCache).getOrLoad(eq("data-partition-id:cosmosdb/collection"), any(),
+                eq("data-partition-id:cosmosdb/collection|SELECT * FROM c|pk=null|range=null|java.lang.String"), eq(String.class), any());
+
+        List<String> results = cosmosStore.queryItems(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, new SqlQuerySpec("SELECT * FROM c"),
+                new CosmosQueryRequestOptions(), String.class);
+
+        assertEquals(Collections.singletonList("s1"), results);
+        verify(container, never()).queryItems(any(SqlQuerySpec.class), any(), any());
+    }
+
+    @Test
+    void upsertItem_invalidatesQueryResultCache_ifEnabledForCollection() {
+        doReturn(true).when(queryResultCache).isEnabled(COLLECTION);
+        doReturn(mock(CosmosItemResponse.class)).when(container).upsertItem(eq(ITEM), any(PartitionKey.class), any(CosmosItemRequestOptions.class));
+
+        cosmosStore.upsertItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY, ITEM);
+
+        verify(queryResultCache).invalidate("data-partition-id:cosmosdb/collection");
+    }
+
+    @Test
+    void createItem_invalidatesSystemQueryResultCache_evenIfWriteFails() {
+        doReturn(true).when(queryResultCache).isEnabled(COLLECTION);
+        doThrow(ConflictException.class).when(container).createItem(any(), any(), any());
+
+        assertThrows(AppException.class, () -> cosmosStore.createItem(COSMOS_DB, COLLECTION, PARTITION_KEY, ITEM));
+
+        verify(queryResultCache).invalidate("cosmosdb/collection");
+    }
+
+    @Test
+    void queryItemsPage_withPartitionKey_readsOnlyMissingItems_afterShortSubPage_andReportsChargeOfAllSubPages() {
+        FeedResponse emptyPage = mock(FeedResponse.class);
+        doReturn(Collections.emptyList()).when(emptyPage).getResults();
+        doReturn("c1").when(emptyPage).getContinuationToken();
+        doReturn(1.0).when(emptyPage).getRequestCharge();
+        FeedResponse partialPage = mock(FeedResponse.class);
+        doReturn(Arrays.asList("s1", "s2")).when(partialPage).getResults();
+        doReturn("c2").when(partialPage).getContinuationToken();
+        doReturn(2.0).when(partialPage).getRequestCharge();
+        FeedResponse lastPage = mock(FeedResponse.class);
+        doReturn(Arrays.asList("s3", "s4", "s5")).when(lastPage).getResults();
+        doReturn("c3").when(lastPage).getContinuationToken();
+        doReturn(3.0).when(lastPage).getRequestCharge();
+        CosmosPagedIterable pagedIterable = mock(CosmosPagedIterable.class);
+        doReturn(pagedIterable).when(container).queryItems(any(SqlQuerySpec.class), any(), any());
+        doReturn(Arrays.asList(emptyPage, partialPage, mock(FeedResponse.class))).when(pagedIterable).iterableByPage("c0", 5);
+        doReturn(Arrays.asList(lastPage, mock(FeedResponse.class))).when(pagedIterable).iterableByPage("c2", 3);
+
+        Page<String> page = cosmosStore.queryItemsPage(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                new SqlQuerySpec("SELECT * FROM c"), PARTITION_KEY_SOME_DATA, String.class, 5, "c0", 3);
+
+        assertEquals(Arrays.asList("s1", "s2", "s3", "s4", "s5"), page.getContent());
+        assertEquals("c3", ((CosmosStorePageRequest) page.getPageable()).getRequestContinuation());
+        assertEquals(3, page.getNumber());
+        assertTrue(page.hasNext());
+        verify(pagedIterable, times(2)).iterableByPage(anyString(), anyInt());
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getValue(), "QUERY_ITEMS_PAGE", "query=SELECT * FROM c sub_pages=3", "data-partition-id:cosmosdb/collection", 200, true);
+        assertEquals(6.0, loggingOptionsArgumentCaptor.getValue().getRequestCharge());
+    }
+
+    @Test
+    void queryItemsPage_withPartitionKey_stopsAtPageSize_ifSubPagesWouldOvershoot() {
+        FeedResponse shortPage = mock(FeedResponse.class);
+        doReturn(Arrays.asList("s1", "s2", "s3")).when(shortPage).getResults();
+        doReturn("c1").when(shortPage).getContinuationToken();
+        FeedResponse fullPage = mock(FeedResponse.class);
+        doReturn(Arrays.asList("s4", "s5", "s6", "s7")).when(fullPage).getResults();
+        doReturn("c2").when(fullPage).getContinuationToken();
+        FeedResponse remainderPage = mock(FeedResponse.class);
+        doReturn(Collections.singletonList("s4")).when(remainderPage).getResults();
+        doReturn("c1-1").when(remainderPage).getContinuationToken();
+        CosmosPagedIterable pagedIterable = mock(CosmosPagedIterable.class);
+        doReturn(pagedIterable).when(container).queryItems(any(SqlQuerySpec.class), any(), any());
+        doReturn(Arrays.asList(shortPage, fullPage)).when(pagedIterable).iterableByPage("c0", 4);
+        doReturn(Collections.singletonList(remainderPage)).when(pagedIterable).iterableByPage("c1", 1);
+
+        Page<String> page = cosmosStore.queryItemsPage(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                new SqlQuerySpec("SELECT * FROM c"), PARTITION_KEY_SOME_DATA, String.class, 4, "c0", 2);
+
+        assertEquals(Arrays.asList("s1", "s2", "s3", "s4"), page.getContent());
+        assertEquals("c1-1", ((CosmosStorePageRequest) page.getPageable()).getRequestContinuation());
+        assertEquals(2, page.getNumber());
+        assertEquals(2 * 4 + 4 + 1, page.getTotalElements());
+        assertEquals(4, page.getTotalPages());
+        assertTrue(page.hasNext());
+        verify(pagedIterable).iterableByPage("c1", 1);
+    }
+
+    @Test
+    void queryItemsPage_withOptions_returnsRealPageNumber_andTotalWhileContinuationExists() {
+        FeedResponse feedPage = mock(FeedResponse.class);
+        doReturn(Arrays.asList("s1", "s2")).when(feedPage).getResults();
+        doReturn("c1").when(feedPage).getContinuationToken();
+        CosmosPagedIterable pagedIterable = mock(CosmosPagedIterable.class);
+        doReturn(pagedIterable).when(container).queryItems(any(SqlQuerySpec.class), any(), any());
+        doReturn(Collections.singletonList(feedPage)).when(pagedIterable).iterableByPage("c0", 2);
+
+        Page<String> page = cosmosStore.queryItemsPage(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                new SqlQuerySpec("SELECT * FROM c"), String.class, 2, "c0", new CosmosQueryRequestOptions(), 4);
+
+        assertEquals(Arrays.asList("s1", "s2"), page.getContent());
+        assertEquals(4, page.getNumber());
+        assertEquals(4 * 2 + 2 + 1, page.getTotalElements());
+        assertTrue(page.hasNext());
+        assertEquals("c1", ((CosmosStorePageRequest) page.getPageable()).getRequestContinuation());
+    }
+
+    @Test
+    void queryItemsPageAsync_fillsPageFromContinuation_andReturnsRealPageNumber() {
+        FeedResponse shortPage = mock(FeedResponse.class);
+        doReturn(Collections.singletonList("s1")).when(shortPage).getResults();
+        doReturn("c1").when(shortPage).getContinuationToken();
+        FeedResponse lastPage = mock(FeedResponse.class);
+        doReturn(Arrays.asList("s2", "s3")).when(lastPage).getResults();
+        CosmosPagedFlux pagedFlux = mock(CosmosPagedFlux.class);
+        doReturn(Flux.just(shortPage)).when(pagedFlux).byPage("c0", 3);
+        doReturn(Flux.just(lastPage)).when(pagedFlux).byPage("c1", 2);
+        CosmosAsyncContainer asyncContainer = mock(CosmosAsyncContainer.class);
+        doReturn(asyncContainer).when(cosmosClientFactory).getAsyncContainer(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
+        doReturn(pagedFlux).when(asyncContainer).queryItems(any(SqlQuerySpec.class), any(CosmosQueryRequestOptions.class), any(Class.class));
+
+        Page<String> page = cosmosStore.queryItemsPageAsync(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                new SqlQuerySpec("SELECT * FROM c"), String.class, 3, "c0", 1);
+
+        assertEquals(Arrays.asList("s1", "s2", "s3"), page.getContent());
+        assertEquals(1, page.getNumber());
+        assertEquals(1 * 3 + 3, page.getTotalElements());
+        assertFalse(page.hasNext());
+        assertNull(((CosmosStorePageRequest) page.getPageable()).getRequestContinuation());
+    }
+
+    @Test
+    void queryItemsPageByCursor_returnsRealPageNumber_andCursorToNextPage() {
+        lenient().doReturn(512).when(pagingConfiguration).getCursorCompressionThreshold();
+        FeedResponse page = mock(FeedResponse.class);
+        doReturn(Arrays.asList("s1", "s2")).when(page).getResults();
+        doReturn("token-1").when(page).getContinuationToken();
+        CosmosPagedIterable pagedIterable = mock(CosmosPagedIterable.class);
+        doReturn(pagedIterable).when(container).queryItems(any(SqlQuerySpec.class), any(), any());
+        doReturn(Collections.singletonList(page)).when(pagedIterable).iterableByPage(any(), eq(2));
+        SqlQuerySpec query = new SqlQuerySpec("SELECT * FROM c");
+
+        Page<String> firstPage = cosmosStore.queryItemsPageByCursor(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, query, String.class, 2, null);
+
+        assertEquals(Arrays.asList("s1", "s2"), firstPage.getContent());
+        assertEquals(0, firstPage.getNumber());
+        assertTrue(firstPage.hasNext());
+        String cursor = ((CosmosStorePageRequest) firstPage.getPageable()).getRequestContinuation();
+        CosmosQueryCursor decoded = CosmosQueryCursor.decode(cursor);
+        assertEquals(1, decoded.getPageNumber());
+        assertEquals("token-1", decoded.getContinuation());
+
+        doReturn(null).when(page).getContinuationToken();
+        Page<String> secondPage = cosmosStore.queryItemsPageByCursor(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, query, String.class, 2, cursor);
+
+        assertEquals(1, secondPage.getNumber());
+        assertFalse(secondPage.hasNext());
+        assertNull(((CosmosStorePageRequest) secondPage.getPageable()).getRequestContinuation());
+        verify(pagedIterable).iterableByPage("token-1", 2);
+    }
+
+    @Test
+    void queryItemsPageByCursor_throws400_ifCursorBelongsToAnotherQuery() {
+        String cursor = new CosmosQueryCursor(1, "token-1", 42).encode(512);
+
+        AppException exception = assertThrows(AppException.class, () -> cosmosStore.queryItemsPageByCursor(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                new SqlQuerySpec("SELECT * FROM c"), String.class, 2, cursor));
+
+        assertEquals(400, exception.getError().getCode());
+        verify(container, never()).queryItems(any(SqlQuerySpec.class), any(), any());
+    }
+
+    @Test
+    void queryItemsPageByCursor_cachesTotalCount() {
+        doReturn(Duration.ofMinutes(5)).when(pagingConfiguration).getTotalCountTtl();
+        doReturn(1000).when(pagingConfiguration).getTotalCountCacheSize();
+        FeedResponse page = mock(FeedResponse.class);
+        doReturn(Collections.singletonList("s1")).when(page).getResults();
+        CosmosPagedIterable pagedIterable = mock(CosmosPagedIterable.class);
+        SqlQuerySpec query = new SqlQuerySpec("SELECT * FROM c");
+        doReturn(pagedIterable).when(container).queryItems(eq(query), any(), eq(String.class));
+        doReturn(Collections.singletonList(page)).when(pagedIterable).iterableByPage(any(), anyInt());
+        FeedResponse countPage = mock(FeedResponse.class);
+        doReturn(Arrays.asList(3L, 4L)).when(countPage).getResults();
+        CosmosPagedIterable countIterable = mock(CosmosPagedIterable.class);
+        SqlQuerySpec countQuery = new SqlQuerySpec("SELECT VALUE COUNT(1) FROM c");
+        doReturn(countIterable).when(container).queryItems(eq(countQuery), any(), eq(Long.class));
+        doReturn(Collections.singletonList(countPage)).when(countIterable).iterableByPage();
+
+        Page<String> first = cosmosStore.queryItemsPageByCursor(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, query, countQuery, String.class, 2, null);
+        Page<String> second = cosmosStore.queryItemsPageByCursor(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, query, countQuery, String.class, 2, null);
+
+        assertEquals(7, first.getTotalElements());
+        assertEquals(7, second.getTotalElements());
+        verify(countIterable, times(1)).iterableByPage();
+    }
+
+    @Test
+    void queryItemsPageByCursor_evictsLeastRecentlyUsedTotalCount_whenCacheIsFull() {
+        doReturn(Duration.ofMinutes(5)).when(pagingConfiguration).getTotalCountTtl();
+        doReturn(2).when(pagingConfiguration).getTotalCountCacheSize();
+        FeedResponse page = mock(FeedResponse.class);
+        doReturn(Collections.singletonList("s1")).when(page).getResults();
+        CosmosPagedIterable pagedIterable = mock(CosmosPagedIterable.class);
+        SqlQuerySpec query = new SqlQuerySpec("SELECT * FROM c");
+        doReturn(pagedIterable).when(container).queryItems(eq(query), any(), eq(String.class));
+        doReturn(Collections.singletonList(page)).when(pagedIterable).iterableByPage(any(), anyInt());
+        FeedResponse countPage = mock(FeedResponse.class);
+        doReturn(Collections.singletonList(1L)).when(countPage).getResults();
+        List<SqlQuerySpec> countQueries = new ArrayList<>();
+        List<CosmosPagedIterable> countIterables = new ArrayList<>();
+        for (String kind : Arrays.asList("a", "b", "c")) {
+            SqlQuerySpec countQuery = new SqlQuerySpec("SELECT VALUE COUNT(1) FROM c WHERE c.kind = '" + kind + "'");
+            CosmosPagedIterable countIterable = mock(CosmosPagedIterable.class);
+            doReturn(countIterable).when(container).queryItems(eq(countQuery), any(), eq(Long.class));
+            doReturn(Collections.singletonList(countPage)).when(countIterable).iterableByPage();
+            countQueries.add(countQuery);
+            countIterables.add(countIterable);
+        }
+
+        for (int i : new int[] {0, 1, 0, 2, 0, 1}) {
+            cosmosStore.queryItemsPageByCursor(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, query, countQueries.get(i), String.class, 2, null);
+        }
+
+        verify(countIterables.get(0), times(1)).iterableByPage();
+        verify(countIterables.get(1), times(2)).iterableByPage();
+        verify(countIterables.get(2), times(1)).iterableByPage();
+    }
+
+    @Test
+    void queryItemsStream_fetchesPagesLazily_andLogsOnClose() {
+        FeedResponse firstPage = mock(FeedResponse.class);
+        doReturn(Arrays.asList("s1", "s2")).when(firstPage).getResults();
+        doReturn(2.0).when(firstPage).getRequestCharge();
+        FeedResponse secondPage = mock(FeedResponse.class);
+        CosmosPagedIterable pagedIterable = mock(CosmosPagedIterable.class);
+        doReturn(pagedIterable).when(container).queryItems(any(SqlQuerySpec.class), any(), any());
+        doReturn(Arrays.asList(firstPage, secondPage)).when(pagedIterable).iterableByPage(anyInt());
+
+        try (Stream<String> items = cosmosStore.queryItemsStream(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                new SqlQuerySpec("SELECT * FROM c"), new CosmosQueryRequestOptions(), String.class)) {
+            assertEquals(Arrays.asList("s1", "s2"), items.limit(2).collect(Collectors.toList()));
+            verify(secondPage, never()).getResults();
+            verify(dependencyLogger, never()).logDependency(any());
+        }
+
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
+        DependencyLoggingOptions actualLoggingOptions = loggingOptionsArgumentCaptor.getValue();
+        verifyDependencyLogging(actualLoggingOptions, "QUERY_ITEMS_STREAM", "query=SELECT * FROM c", "cosmosdb/collection", 200, true);
+        assertEquals(2.0, actualLoggingOptions.getRequestCharge());
+    }
+
+    @Test
+    void queryItemsStream_throws500_andLogsFailure_ifPageFetchFails() {
+        CosmosException cosmosException = mock(CosmosException.class);
+        doReturn(429).when(cosmosException).getStatusCode();
+        Iterator<FeedResponse> pages = mock(Iterator.class);
+        doThrow(cosmosException).when(pages).hasNext();
+        Iterable<FeedResponse> pageIterable = () -> pages;
+        CosmosPagedIterable pagedIterable = mock(CosmosPagedIterable.class);
+        doReturn(pagedIterable).when(container).queryItems(any(SqlQuerySpec.class), any(), any());
+        doReturn(pageIterable).when(pagedIterable).iterableByPage(anyInt());
+
+        Stream<String> items = cosmosStore.queryItemsStream(COSMOS_DB, COLLECTION,
+                new SqlQuerySpec("SELECT * FROM c"), new CosmosQueryRequestOptions(), String.class);
+        AppException exception = assertThrows(AppException.class, () -> items.collect(Collectors.toList()));
+        items.close();
+
+        assertEquals(500, exception.getError().getCode());
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getValue(), "QUERY_ITEMS_STREAM", "query=SELECT * FROM c", "cosmosdb/collection", 429, false);
+    }
+
+    @Test
+    void queryItemsFanOut_queriesEachFeedRange_andLogsPerRange() {
+        doReturn(4).when(queryFanOutConfiguration).getMaxDegreeOfParallelism("scan");
+        doReturn(100).when(queryFanOutConfiguration).getMaxBufferedItemCount("scan");
+        CosmosAsyncContainer asyncContainer = mock(CosmosAsyncContainer.class);
+        doReturn(asyncContainer).when(cosmosClientFactory).getAsyncContainer(DATA_PARTITION_ID, COSMOS_DB, COLLECTION);
+        doReturn(Mono.just(Arrays.asList(mock(FeedRange.class), mock(FeedRange.class)))).when(asyncContainer).getFeedRanges();
+        FeedResponse page = mock(FeedResponse.class);
+        doReturn(Collections.singletonList("s1")).when(page).getResults();
+        doReturn(1.5).when(page).getRequestCharge();
+        CosmosPagedFlux pagedFlux = mock(CosmosPagedFlux.class);
+        doReturn(Flux.just(page)).when(pagedFlux).byPage(anyInt());
+        doReturn(pagedFlux).when(asyncContainer).queryItems(any(SqlQuerySpec.class), any(CosmosQueryRequestOptions.class), any(Class.class));
+
+        List<String> results = cosmosStore.queryItemsFanOut(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                new SqlQuerySpec("SELECT * FROM c WHERE c.kind = 'a'"), "scan", String.class);
+
+        assertEquals(Arrays.asList("s1", "s1"), results);
+        ArgumentCaptor<CosmosQueryRequestOptions> optionsCaptor = ArgumentCaptor.forClass(CosmosQueryRequestOptions.class);
+        verify(asyncContainer, times(2)).queryItems(any(SqlQuerySpec.class), optionsCaptor.capture(), any(Class.class));
+        assertEquals(100, optionsCaptor.getValue().getMaxBufferedItemCount());
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(3)).logDependency(loggingOptionsArgumentCaptor.capture());
+        List<DependencyLoggingOptions> loggedOptions = loggingOptionsArgumentCaptor.getAllValues();
+        assertEquals("QUERY_ITEMS_FANOUT_RANGE", loggedOptions.get(0).getName());
+        assertEquals(1.5, loggedOptions.get(0).getRequestCharge());
+        verifyDependencyLogging(loggedOptions.get(2), "QUERY_ITEMS_FANOUT", "query=SELECT * FROM c WHERE c.kind = 'a'", "data-partition-id:cosmosdb/collection", 200, true);
+        assertEquals(3.0, loggedOptions.get(2).getRequestCharge());
+    }
+
+    @Test
+    void queryItemsFanOut_usesSdkParallelism_forOrderedQueries() {
+        doReturn(4).when(queryFanOutConfiguration).getMaxDegreeOfParallelism(null);
+        doReturn(100).when(queryFanOutConfiguration).getMaxBufferedItemCount(null);
+        CosmosPagedIterable pagedIterable = mock(CosmosPagedIterable.class);
+        doReturn(pagedIterable).when(container).queryItems(any(SqlQuerySpec.class), any(), any());
+        doReturn(Collections.emptyList()).when(pagedIterable).iterableByPage(anyInt());
+
+        cosmosStore.queryItemsFanOut(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                new SqlQuerySpec("SELECT * FROM c ORDER BY c.name"), null, String.class);
+
+        ArgumentCaptor<CosmosQueryRequestOptions> optionsCaptor = ArgumentCaptor.forClass(CosmosQueryRequestOptions.class);
+        verify(container).queryItems(any(SqlQuerySpec.class), optionsCaptor.capture(), any());
+        assertEquals(4, optionsCaptor.getValue().getMaxDegreeOfParallelism());
+        assertEquals(100, optionsCaptor.getValue().getMaxBufferedItemCount());
+        verify(cosmosClientFactory, never()).getAsyncContainer(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void findItems_readsInChunks_andReportsMisses() {
+        List<CosmosItemIdentity> identities = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            identities.add(new CosmosItemIdentity(new PartitionKey("pk" + i), "id" + i));
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        FeedResponse<ObjectNode> firstChunk = mock(FeedResponse.class);
+        FeedResponse<ObjectNode> secondChunk = mock(FeedResponse.class);
+        doReturn(Arrays.asList(mapper.createObjectNode().put("id", "id0"), mapper.createObjectNode().put("id", "id7"))).when(firstChunk).getResults();
+        doReturn(4.0).when(firstChunk).getRequestCharge();
+        doReturn(Collections.emptyList()).when(secondChunk).getResults();
+        doReturn(1.0).when(secondChunk).getRequestCharge();
+        doReturn(firstChunk, secondChunk).when(container).readMany(any(), eq(ObjectNode.class));
+
+        CosmosReadManyResult<TenantInfoDoc> result = cosmosStore.findItems(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, identities, TenantInfoDoc.class);
+
+        ArgumentCaptor<List<CosmosItemIdentity>> chunkCaptor = ArgumentCaptor.forClass(List.class);
+        verify(container, times(2)).readMany(chunkCaptor.capture(), eq(ObjectNode.class));
+        assertEquals(1000, chunkCaptor.getAllValues().get(0).size());
+        assertEquals(1, chunkCaptor.getAllValues().get(1).size());
+        assertEquals(Arrays.asList("id0", "id7"), result.getItems().stream().map(TenantInfoDoc::getId).collect(Collectors.toList()));
+        assertEquals(999, result.getMissing().size());
+        assertFalse(result.isComplete());
+        assertEquals(5.0, result.getRequestCharge());
+
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getValue(), "READ_MANY_ITEMS", "items=1001 missing=999", "data-partition-id:cosmosdb/collection", 200, true);
+        assertEquals(5.0, loggingOptionsArgumentCaptor.getValue().getRequestCharge());
+    }
+
+    @Test
+    void findItems_readsSharedIdsInSeparateChunks_andReportsMissByPartitionKey() {
+        CosmosItemIdentity found = new CosmosItemIdentity(new PartitionKey("pk1"), "1");
+        CosmosItemIdentity missing = new CosmosItemIdentity(new PartitionKey("pk2"), "1");
+        FeedResponse<ObjectNode> firstChunk = mock(FeedResponse.class);
+        FeedResponse<ObjectNode> secondChunk = mock(FeedResponse.class);
+        doReturn(Collections.singletonList(new ObjectMapper().createObjectNode().put("id", "1"))).when(firstChunk).getResults();
+        doReturn(Collections.emptyList()).when(secondChunk).getResults();
+        doReturn(firstChunk, secondChunk).when(container).readMany(any(), eq(ObjectNode.class));
+
+        CosmosReadManyResult<TenantInfoDoc> result = cosmosStore.findItems(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                Arrays.asList(found, missing, found), TenantInfoDoc.class);
+
+        ArgumentCaptor<List<CosmosItemIdentity>> chunkCaptor = ArgumentCaptor.forClass(List.class);
+        verify(container, times(2)).readMany(chunkCaptor.capture(), eq(ObjectNode.class));
+        assertEquals(Collections.singletonList(found), chunkCaptor.getAllValues().get(0));
+        assertEquals(Collections.singletonList(missing), chunkCaptor.getAllValues().get(1));
+        assertEquals(1, result.getItems().size());
+        assertEquals(Collections.singletonList(missing), result.getMissing());
+    }
+
+    @Test
+    void findItems_throws500_onCosmosFailure() {
+        CosmosException exception = mock(CosmosException.class);
+        doReturn(503).when(exception).getStatusCode();
+        doThrow(exception).when(container).readMany(any(), eq(ObjectNode.class));
+
+        AppException appException = assertThrows(AppException.class, () -> cosmosStore.findItems(DATA_PARTITION_ID, COSMOS_DB, COLLECTION,
+                Collections.singletonList(new CosmosItemIdentity(new PartitionKey(PARTITION_KEY), ID)), TenantInfoDoc.class));
+        assertEquals(500, appException.getError().getCode());
+
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getValue(), "READ_MANY_ITEMS", "items=1 missing=0", "data-partition-id:cosmosdb/collection", 503, false);
+    }
+
+    @Test
+    void patchItem_sendsFilterPredicate_andLogsDependency() {
+        CosmosPatchOperations patchOperations = CosmosPatchOperations.create().set("/name", "new-name");
+        CosmosItemResponse<Object> patchResponse = mock(CosmosItemResponse.class);
+        doReturn(3.0).when(patchResponse).getRequestCharge();
+        doReturn(patchResponse).when(container).patchItem(eq(ID), any(PartitionKey.class), eq(patchOperations), any(CosmosPatchItemRequestOptions.class), eq(Object.class));
+
+        cosmosStore.patchItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY, patchOperations, "from c where c.version = 3");
+
+        ArgumentCaptor<CosmosPatchItemRequestOptions> optionsCaptor = ArgumentCaptor.forClass(CosmosPatchItemRequestOptions.class);
+        verify(container).patchItem(eq(ID), eq(new PartitionKey(PARTITION_KEY)), eq(patchOperations), optionsCaptor.capture(), eq(Object.class));
+        assertEquals("from c where c.version = 3", optionsCaptor.getValue().getFilterPredicate());
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getValue(), "PATCH_ITEM", "id=id partition_key=pk", "data-partition-id:cosmosdb/collection", 200, true);
+        assertEquals(3.0, loggingOptionsArgumentCaptor.getValue().getRequestCharge());
+    }
+
+    @Test
+    void patchItem_throws412_ifConditionNotMet() {
+        CosmosException preconditionFailed = mock(CosmosException.class);
+        doReturn(412).when(preconditionFailed).getStatusCode();
+        doThrow(preconditionFailed).when(container).patchItem(eq(ID), any(PartitionKey.class), any(CosmosPatchOperations.class), any(CosmosPatchItemRequestOptions.class), eq(Object.class));
+
+        AppException exception = assertThrows(AppException.class, () -> cosmosStore.patchItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY,
+                CosmosPatchOperations.create().increment("/count", 1), "from c where c.count < 10"));
+
+        assertEquals(412, exception.getError().getCode());
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getValue(), "PATCH_ITEM", "id=id partition_key=pk", "data-partition-id:cosmosdb/collection", 412, false);
+    }
+
+    @Test
+    void patchItem_throws404_ifNotFound() {
+        doThrow(NotFoundException.class).when(container).patchItem(eq(ID), any(PartitionKey.class), any(CosmosPatchOperations.class), any(CosmosPatchItemRequestOptions.class), eq(Object.class));
+
+        AppException exception = assertThrows(AppException.class, () -> cosmosStore.patchItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY,
+                CosmosPatchOperations.create().remove("/obsolete")));
+
+        assertEquals(404, exception.getError().getCode());
+    }
+
+    @Test
+    void replaceItemIfMatch_sendsETag_andReturnsNewETag() {
+        CosmosItemResponse<Object> replaceResponse = mock(CosmosItemResponse.class);
+        doReturn("\"etag-2\"").when(replaceResponse).getETag();
+        doReturn(replaceResponse).when(container).replaceItem(any(), eq(ID), any(PartitionKey.class), any(CosmosItemRequestOptions.class));
+
+        String eTag = cosmosStore.replaceItemIfMatch(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY, ITEM, "\"etag-1\"");
+
+        assertEquals("\"etag-2\"", eTag);
+        ArgumentCaptor<CosmosItemRequestOptions> optionsCaptor = ArgumentCaptor.forClass(CosmosItemRequestOptions.class);
+        verify(container).replaceItem(eq(ITEM), eq(ID), eq(new PartitionKey(PARTITION_KEY)), optionsCaptor.capture());
+        assertEquals("\"etag-1\"", optionsCaptor.getValue().getIfMatchETag());
+    }
+
+    @Test
+    void deleteItemIfMatch_throwsPreconditionFailed_ifModifiedConcurrently() {
+        CosmosException preconditionFailed = mock(CosmosException.class);
+        doReturn(412).when(preconditionFailed).getStatusCode();
+        doThrow(preconditionFailed).when(container).deleteItem(eq(ID), any(PartitionKey.class), any(CosmosItemRequestOptions.class));
+
+        CosmosPreconditionFailedException exception = assertThrows(CosmosPreconditionFailedException.class,
+                () -> cosmosStore.deleteItemIfMatch(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY, "\"etag-1\""));
+
+        assertEquals(412, exception.getError().getCode());
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getValue(), "DELETE_ITEM", "id=id partition_key=pk", "cosmosdb/collection", 412, false);
+    }
+
+    @Test
+    void findItemIfNoneMatch_returnsEmpty_ifNotModified() {
+        CosmosItemResponse<String> readResponse = mock(CosmosItemResponse.class);
+        doReturn(304).when(readResponse).getStatusCode();
+        doReturn(readResponse).when(container).readItem(eq(ID), any(PartitionKey.class), any(CosmosItemRequestOptions.class), eq(String.class));
+
+        Optional<CosmosVersionedItem<String>> result = cosmosStore.findItemIfNoneMatch(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY, "\"etag-1\"", String.class);
+
+        assertFalse(result.isPresent());
+        ArgumentCaptor<CosmosItemRequestOptions> optionsCaptor = ArgumentCaptor.forClass(CosmosItemRequestOptions.class);
+        verify(container).readItem(eq(ID), eq(new PartitionKey(PARTITION_KEY)), optionsCaptor.capture(), eq(String.class));
+        assertEquals("\"etag-1\"", optionsCaptor.getValue().getIfNoneMatchETag());
+    }
+
+    @Test
+    void executeBatch_executesAllOperationsInOneRequest() {
+        CosmosBatchResponse response = mock(CosmosBatchResponse.class);
+        doReturn(true).when(response).isSuccessStatusCode();
+        doReturn(200).when(response).getStatusCode();
+        doReturn(12.5).when(response).getRequestCharge();
+        doReturn(response).when(container).executeCosmosBatch(any(CosmosBatch.class));
+
+        CosmosBatchResponse result = cosmosStore.executeBatch(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY, batch -> {
+            batch.createItemOperation(ITEM);
+            batch.deleteItemOperation(ID);
+        });
+
+        assertEquals(response, result);
+        ArgumentCaptor<CosmosBatch> batchCaptor = ArgumentCaptor.forClass(CosmosBatch.class);
+        verify(container).executeCosmosBatch(batchCaptor.capture());
+        assertEquals(new PartitionKey(PARTITION_KEY), batchCaptor.getValue().getPartitionKeyValue());
+        assertEquals(2, batchCaptor.getValue().getOperations().size());
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getValue(), "EXECUTE_BATCH", "partition_key=pk operations=2", "data-partition-id:cosmosdb/collection", 200, true);
+        assertEquals(12.5, loggingOptionsArgumentCaptor.getValue().getRequestCharge());
+    }
+
+    @Test
+    void executeBatch_throwsStatusOfFailedOperation_ifRolledBack() {
+        CosmosBatchResponse response = mock(CosmosBatchResponse.class);
+        CosmosBatchOperationResult rolledBack = mock(CosmosBatchOperationResult.class);
+        CosmosBatchOperationResult conflict = mock(CosmosBatchOperationResult.class);
+        doReturn(424).when(rolledBack).getStatusCode();
+        doReturn(409).when(conflict).getStatusCode();
+        doReturn(mock(CosmosItemOperation.class)).when(conflict).getOperation();
+        doReturn(false).when(response).isSuccessStatusCode();
+        doReturn(409).when(response).getStatusCode();
+        doReturn(Arrays.asList(rolledBack, conflict)).when(response).getResults();
+        doReturn(response).when(container).executeCosmosBatch(any(CosmosBatch.class));
+
+        AppException exception = assertThrows(AppException.class, () -> cosmosStore.executeBatch(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY, batch -> {
+            batch.upsertItemOperation(ITEM);
+            batch.createItemOperation(ITEM);
+        }));
+
+        assertEquals(409, exception.getError().getCode());
+        assertTrue(exception.getError().getMessage().startsWith("Batch operation 1 "));
+        ArgumentCaptor<DependencyLoggingOptions> loggingOptionsArgumentCaptor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(loggingOptionsArgumentCaptor.capture());
+        verifyDependencyLogging(loggingOptionsArgumentCaptor.getValue(), "EXECUTE_BATCH", "partition_key=pk operations=2", "data-partition-id:cosmosdb/collection", 409, false);
+    }
+
+    @Test
+    void executeBatch_throwsRequestRateTooLarge_ifThrottled() {
+        CosmosBatchResponse response = mock(CosmosBatchResponse.class);
+        doReturn(false).when(response).isSuccessStatusCode();
+        doReturn(429).when(response).getStatusCode();
+        doReturn(response).when(container).executeCosmosBatch(any(CosmosBatch.class));
+
+        assertThrows(RequestRateTooLargeException.class, () -> cosmosStore.executeBatch(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY,
+                batch -> batch.upsertItemOperation(ITEM)));
+    }
+
     private void mockQueryResponse(String... responses) {
         ArrayList<FeedResponse> paginatedResponse = new ArrayList<>();
         for (String response : responses) {
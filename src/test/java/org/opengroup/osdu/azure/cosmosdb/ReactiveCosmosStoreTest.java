@@ -0,0 +1,252 @@
+//  Copyright © Microsoft Corporation
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+
+package org.opengroup.osdu.azure.cosmosdb;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.implementation.ConflictException;
+import com.azure.cosmos.implementation.NotFoundException;
+import com.azure.cosmos.implementation.RequestRateTooLargeException;
+import com.azure.cosmos.models.CosmosItemResponse;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.azure.cosmos.util.CosmosPagedFlux;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opengroup.osdu.azure.logging.CoreLogger;
+import org.opengroup.osdu.azure.logging.CoreLoggerFactory;
+import org.opengroup.osdu.azure.logging.DependencyLogger;
+import org.opengroup.osdu.azure.logging.DependencyLoggingOptions;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCosmosStoreTest {
+
+    private static final String ID = "id";
+    private static final String PARTITION_KEY = "pk";
+    private static final String COSMOS_DB = "cosmosdb";
+    private static final String COLLECTION = "collection";
+    private static final String DATA_PARTITION_ID = "data-partition-id";
+    private static final String ITEM = "ITEM";
+
+    @Mock
+    private CoreLoggerFactory coreLoggerFactory;
+
+    @Mock
+    private CoreLogger coreLogger;
+
+    @Mock
+    private ICosmosClientFactory cosmosClientFactory;
+
+    @Mock
+    private CosmosAsyncContainer container;
+
+    @Mock
+    private CosmosItemResponse<String> cosmosResponse;
+
+    @Mock
+    private DependencyLogger dependencyLogger;
+
+    @InjectMocks
+    private ReactiveCosmosStore reactiveCosmosStore;
+
+    private void mockSingleton(CoreLoggerFactory mock) {
+        try {
+            Field instance = CoreLoggerFactory.class.getDeclaredField("instance");
+            instance.setAccessible(true);
+            instance.set(null, mock);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void resetSingleton() {
+        try {
+            Field instance = CoreLoggerFactory.class.getDeclaredField("instance");
+            instance.setAccessible(true);
+            instance.set(null, null);
+            instance.setAccessible(false);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @BeforeEach
+    void init() {
+        mockSingleton(coreLoggerFactory);
+        lenient().when(coreLoggerFactory.getLogger(anyString())).thenReturn(coreLogger);
+        lenient().doReturn(container).when(cosmosClientFactory).getAsyncContainer(anyString(), anyString(), anyString());
+    }
+
+    @AfterEach
+    void takeDown() {
+        resetSingleton();
+    }
+
+    @Test
+    void findItem_isLazy_andLogsDependencyOnSubscribe() {
+        doReturn(ITEM).when(cosmosResponse).getItem();
+        doReturn(2.5).when(cosmosResponse).getRequestCharge();
+        doReturn(Mono.just(cosmosResponse)).when(container).readItem(eq(ID), any(), any(), eq(String.class));
+
+        Mono<String> result = reactiveCosmosStore.findItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY, String.class);
+        verify(cosmosClientFactory, never()).getAsyncContainer(anyString(), anyString(), anyString());
+
+        assertEquals(ITEM, result.block());
+        DependencyLoggingOptions options = captureDependency();
+        assertEquals("READ_ITEM", options.getName());
+        assertEquals("id=id partition_key=pk", options.getData());
+        assertEquals("cosmosdb/collection", options.getTarget());
+        assertEquals(2.5, options.getRequestCharge());
+        assertEquals(200, options.getResultCode());
+    }
+
+    @Test
+    void findItem_completesEmpty_ifNotFound() {
+        NotFoundException notFound = mock(NotFoundException.class);
+        doReturn(404).when(notFound).getStatusCode();
+        doReturn(Mono.error(notFound)).when(container).readItem(eq(ID), any(), any(), eq(String.class));
+
+        assertNull(reactiveCosmosStore.findItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY, String.class).block());
+        DependencyLoggingOptions options = captureDependency();
+        assertEquals(404, options.getResultCode());
+        assertEquals(false, options.isSuccess());
+    }
+
+    @Test
+    void deleteItem_errors404_ifNotFound() {
+        NotFoundException notFound = mock(NotFoundException.class);
+        doReturn(Mono.error(notFound)).when(container).deleteItem(eq(ID), any(), any());
+
+        Mono<Void> result = reactiveCosmosStore.deleteItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY);
+        AppException exception = assertThrows(AppException.class, result::block);
+        assertEquals(404, exception.getError().getCode());
+    }
+
+    @Test
+    void createItem_errors409_ifConflict() {
+        ConflictException conflict = mock(ConflictException.class);
+        doReturn(Mono.error(conflict)).when(container).createItem(any(), any(), any());
+
+        Mono<Void> result = reactiveCosmosStore.createItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY, ITEM);
+        AppException exception = assertThrows(AppException.class, result::block);
+        assertEquals(409, exception.getError().getCode());
+    }
+
+    @Test
+    void upsertItem_errorsRequestRateTooLarge_ifThrottled() {
+        CosmosException throttled = mock(CosmosException.class);
+        doReturn(429).when(throttled).getStatusCode();
+        doReturn(Mono.error(throttled)).when(container).upsertItem(any(), any(), any());
+
+        Mono<Void> result = reactiveCosmosStore.upsertItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, PARTITION_KEY, ITEM);
+        assertThrows(RequestRateTooLargeException.class, result::block);
+        assertEquals(429, captureDependency().getResultCode());
+    }
+
+    @Test
+    void replaceItem_errors500_onUnexpectedFailure() {
+        CosmosException failure = mock(CosmosException.class);
+        doReturn(Mono.error(failure)).when(container).replaceItem(any(), eq(ID), any(), any());
+
+        Mono<Void> result = reactiveCosmosStore.replaceItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY, ITEM);
+        AppException exception = assertThrows(AppException.class, result::block);
+        assertEquals(500, exception.getError().getCode());
+    }
+
+    @Test
+    void queryItems_emitsAllPages_andLogsAccumulatedCharge() {
+        SqlQuerySpec query = new SqlQuerySpec("SELECT * FROM c");
+        CosmosPagedFlux<String> pagedFlux = mock(CosmosPagedFlux.class);
+        FeedResponse<String> firstPage = mock(FeedResponse.class);
+        FeedResponse<String> secondPage = mock(FeedResponse.class);
+        doReturn(Arrays.asList("a", "b")).when(firstPage).getResults();
+        doReturn(1.0).when(firstPage).getRequestCharge();
+        doReturn(Collections.singletonList("c")).when(secondPage).getResults();
+        doReturn(2.0).when(secondPage).getRequestCharge();
+        doReturn(Flux.just(firstPage, secondPage)).when(pagedFlux).byPage(anyInt());
+        doReturn(pagedFlux).when(container).queryItems(eq(query), any(CosmosQueryRequestOptions.class), eq(String.class));
+
+        List<String> results = reactiveCosmosStore.queryItems(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, query, new CosmosQueryRequestOptions(), String.class)
+                .collectList().block();
+
+        assertEquals(Arrays.asList("a", "b", "c"), results);
+        DependencyLoggingOptions options = captureDependency();
+        assertEquals("QUERY_ITEMS", options.getName());
+        assertEquals("query=SELECT * FROM c", options.getData());
+        assertEquals(3.0, options.getRequestCharge());
+        assertEquals(200, options.getResultCode());
+    }
+
+    @Test
+    void operations_error500_ifContainerUnavailable() {
+        doReturn(null).when(cosmosClientFactory).getAsyncContainer(anyString(), anyString(), anyString());
+
+        Mono<Void> result = reactiveCosmosStore.deleteItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY);
+        AppException exception = assertThrows(AppException.class, result::block);
+        assertEquals(500, exception.getError().getCode());
+        assertTrue(exception.getOriginalException() instanceof NullPointerException);
+        verify(coreLogger, times(1)).warn(anyString(), any(Throwable.class));
+        verify(dependencyLogger, never()).logDependency(any());
+    }
+
+    @Test
+    void operations_error500_ifContainerLookupFailsWithError() {
+        doThrow(new ServiceConfigurationError("no transport")).when(cosmosClientFactory).getAsyncContainer(anyString(), anyString(), anyString());
+
+        Mono<Void> result = reactiveCosmosStore.deleteItem(DATA_PARTITION_ID, COSMOS_DB, COLLECTION, ID, PARTITION_KEY);
+        AppException exception = assertThrows(AppException.class, result::block);
+        assertEquals(500, exception.getError().getCode());
+        assertTrue(exception.getOriginalException().getCause() instanceof ServiceConfigurationError);
+    }
+
+    private DependencyLoggingOptions captureDependency() {
+        ArgumentCaptor<DependencyLoggingOptions> captor = ArgumentCaptor.forClass(DependencyLoggingOptions.class);
+        verify(dependencyLogger, times(1)).logDependency(captor.capture());
+        return captor.getValue();
+    }
+}
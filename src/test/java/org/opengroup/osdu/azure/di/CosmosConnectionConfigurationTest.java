@@ -0,0 +1,115 @@
+//  Copyright © Microsoft Corporation
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+
+package org.opengroup.osdu.azure.di;
+
+import com.azure.cosmos.ConnectionMode;
+import com.azure.cosmos.DirectConnectionConfig;
+import com.azure.cosmos.GatewayConnectionConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CosmosConnectionConfigurationTest {
+
+    private static final String DATA_PARTITION_ID = "opendes";
+
+    private final CosmosConnectionConfiguration sut = new CosmosConnectionConfiguration();
+
+    @Test
+    void unsetValues_keepSdkDefaults() {
+        DirectConnectionConfig sdkDefaults = DirectConnectionConfig.getDefaultConfig();
+
+        DirectConnectionConfig direct = sut.getDirectConnectionConfig(DATA_PARTITION_ID);
+
+        assertEquals(ConnectionMode.DIRECT, sut.getMode(DATA_PARTITION_ID));
+        assertEquals(sdkDefaults.getMaxConnectionsPerEndpoint(), direct.getMaxConnectionsPerEndpoint());
+        assertEquals(sdkDefaults.getIdleEndpointTimeout(), direct.getIdleEndpointTimeout());
+        assertTrue(sut.getPreferredRegions(DATA_PARTITION_ID).isEmpty());
+        assertEquals(GatewayConnectionConfig.getDefaultConfig().getMaxConnectionPoolSize(),
+                sut.getGatewayConnectionConfig(DATA_PARTITION_ID).getMaxConnectionPoolSize());
+    }
+
+    @Test
+    void configuredValues_applyToEveryPartition() {
+        sut.setMaxConnectionsPerEndpoint(64);
+        sut.setIdleConnectionTimeout(Duration.ofMinutes(5));
+        sut.setGatewayMaxConnectionPoolSize(500);
+        sut.setPreferredRegions(Arrays.asList("West Europe", "North Europe"));
+
+        DirectConnectionConfig direct = sut.getDirectConnectionConfig(DATA_PARTITION_ID);
+        GatewayConnectionConfig gateway = sut.getGatewayConnectionConfig(null);
+
+        assertEquals(64, direct.getMaxConnectionsPerEndpoint());
+        assertEquals(Duration.ofMinutes(5), direct.getIdleConnectionTimeout());
+        assertEquals(500, gateway.getMaxConnectionPoolSize());
+        assertEquals(Duration.ofMinutes(5), gateway.getIdleConnectionTimeout());
+        assertEquals(Arrays.asList("West Europe", "North Europe"), sut.getPreferredRegions(null));
+    }
+
+    @Test
+    void partitionOverrides_takePrecedenceOverDefaults() {
+        sut.setMaxConnectionsPerEndpoint(64);
+        sut.setPreferredRegions(Collections.singletonList("West Europe"));
+        CosmosConnectionConfiguration.Partition partition = new CosmosConnectionConfiguration.Partition();
+        partition.setMode(ConnectionMode.GATEWAY);
+        partition.setMaxConnectionsPerEndpoint(256);
+        sut.setPartitions(Collections.singletonMap(DATA_PARTITION_ID, partition));
+
+        assertEquals(ConnectionMode.GATEWAY, sut.getMode(DATA_PARTITION_ID));
+        assertEquals(256, sut.getDirectConnectionConfig(DATA_PARTITION_ID).getMaxConnectionsPerEndpoint());
+        assertEquals(Collections.singletonList("West Europe"), sut.getPreferredRegions(DATA_PARTITION_ID));
+        assertEquals(ConnectionMode.DIRECT, sut.getMode("other"));
+        assertEquals(64, sut.getDirectConnectionConfig("other").getMaxConnectionsPerEndpoint());
+    }
+
+    @Test
+    void directOverrides_areDetected_andSharingIsOffByDefault() {
+        CosmosConnectionConfiguration.Partition partition = new CosmosConnectionConfiguration.Partition();
+        partition.setIdleEndpointTimeout(Duration.ofMinutes(10));
+        CosmosConnectionConfiguration.Partition regionsOnly = new CosmosConnectionConfiguration.Partition();
+        regionsOnly.setPreferredRegions(Collections.singletonList("West Europe"));
+        Map<String, CosmosConnectionConfiguration.Partition> partitions = new HashMap<>();
+        partitions.put(DATA_PARTITION_ID, partition);
+        partitions.put("regions-only", regionsOnly);
+        sut.setPartitions(partitions);
+
+        assertFalse(sut.isConnectionSharingAcrossClientsEnabled());
+        assertFalse(sut.isTransportSharedBetweenSyncAndAsyncClients());
+        assertTrue(sut.hasDirectConnectionOverrides(DATA_PARTITION_ID));
+        assertFalse(sut.hasDirectConnectionOverrides("regions-only"));
+        assertFalse(sut.hasDirectConnectionOverrides(null));
+    }
+
+    @Test
+    void validate_rejectsSharingAcrossClients_withDirectOverrides() {
+        CosmosConnectionConfiguration.Partition partition = new CosmosConnectionConfiguration.Partition();
+        partition.setMaxConnectionsPerEndpoint(10);
+        sut.setPartitions(Collections.singletonMap(DATA_PARTITION_ID, partition));
+        sut.validate();
+
+        sut.setConnectionSharingAcrossClientsEnabled(true);
+
+        assertThrows(IllegalStateException.class, sut::validate);
+    }
+}
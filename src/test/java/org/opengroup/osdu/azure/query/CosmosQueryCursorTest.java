@@ -0,0 +1,66 @@
+//  Copyright © Microsoft Corporation
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+
+package org.opengroup.osdu.azure.query;
+
+import org.junit.jupiter.api.Test;
+import org.opengroup.osdu.core.common.model.http.AppException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CosmosQueryCursorTest {
+
+    @Test
+    void encode_roundTrips() {
+        String encoded = new CosmosQueryCursor(3, "{\"token\":\"-RID:abc\"}", 42).encode(512);
+
+        CosmosQueryCursor decoded = CosmosQueryCursor.decode(encoded);
+
+        assertEquals(3, decoded.getPageNumber());
+        assertEquals("{\"token\":\"-RID:abc\"}", decoded.getContinuation());
+        assertEquals(42, decoded.getQueryFingerprint());
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void encode_compressesLongContinuation() {
+        String continuation = "[{\"token\":\"-RID:~abc#RT:1#TRC:10\",\"range\":{\"min\":\"\",\"max\":\"FF\"}}]".repeat(50);
+
+        String compressed = new CosmosQueryCursor(1, continuation, 7).encode(512);
+        String uncompressed = new CosmosQueryCursor(1, continuation, 7).encode(Integer.MAX_VALUE);
+
+        assertTrue(compressed.length() < uncompressed.length());
+        assertEquals(continuation, CosmosQueryCursor.decode(compressed).getContinuation());
+    }
+
+    @Test
+    void decode_throws400_ifCursorIsMalformed() {
+        AppException notBase64 = assertThrows(AppException.class, () -> CosmosQueryCursor.decode("not a cursor!"));
+        AppException truncated = assertThrows(AppException.class, () -> CosmosQueryCursor.decode("AQ"));
+
+        assertEquals(400, notBase64.getError().getCode());
+        assertEquals(400, truncated.getError().getCode());
+    }
+
+    @Test
+    void decode_throws400_ifPageNumberIsNegative() {
+        String encoded = new CosmosQueryCursor(-1, "token", 42).encode(512);
+
+        AppException exception = assertThrows(AppException.class, () -> CosmosQueryCursor.decode(encoded));
+
+        assertEquals(400, exception.getError().getCode());
+    }
+}